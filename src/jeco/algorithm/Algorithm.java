@@ -21,8 +21,10 @@
  */
 package jeco.algorithm;
 
+import java.util.IdentityHashMap;
 import java.util.Observable;
 import jeco.problem.Problem;
+import jeco.problem.Solution;
 import jeco.problem.Solutions;
 import jeco.problem.Variable;
 
@@ -36,6 +38,15 @@ public abstract class Algorithm<V extends Variable<?>> extends Observable {
   protected Problem<V> problem = null;
   // Attribute to stop execution of the algorithm.
   protected boolean stop = false;
+  // Ask/tell state: batch being evaluated outside, solutions handed out and
+  // not told yet
+  protected boolean started = false;
+  protected Solutions<V> askBatch = null;
+  protected boolean askBatchInitial = false;
+  protected int asked = 0;
+  protected IdentityHashMap<Solution<V>, Boolean> pending = new IdentityHashMap<Solution<V>, Boolean>();
+  // Parallel breeding stage, if any
+  protected Breeding<V> breeding = null;
   
   /**
    * Allows to stop execution after finishing the current generation; must be
@@ -58,4 +69,196 @@ public abstract class Algorithm<V extends Variable<?>> extends Observable {
   public abstract void step();
 
   public abstract Solutions<V> execute();
+
+  /**
+   * @return The solutions that execute() would return if the run ended now,
+   * without further steps (IslandModel steps the algorithm itself, for
+   * instance).
+   * @throws UnsupportedOperationException If the algorithm does not provide
+   * them.
+   */
+  public Solutions<V> getCurrentSolution() {
+    throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not provide its current solution.");
+  }
+
+  /**
+   * @return The current population, which may be modified in place (to
+   * migrate solutions between islands, for instance), or null if the
+   * algorithm has no population.
+   */
+  public Solutions<V> getPopulation() {
+    return null;
+  }
+
+  /**
+   * Ask/tell interface, for evaluations that run outside the algorithm.
+   * Returns up to n solutions of the current batch to evaluate. The first
+   * batch is the initial population (unless initialize() was called) and
+   * each of the next ones is a generation. Once a batch has been handed out,
+   * ask() returns an empty set until all of it has been told.
+   *
+   * @param n Maximum number of solutions
+   * @return Solutions to evaluate.
+   * @throws UnsupportedOperationException If the algorithm does not support
+   * ask/tell.
+   */
+  public Solutions<V> ask(int n) {
+    if (askBatch == null) {
+      askBatch = started ? newBatch() : newInitialBatch();
+      askBatchInitial = !started;
+      started = true;
+      asked = 0;
+      pending.clear();
+      if (askBatch.isEmpty()) {
+        completeBatch();
+        return new Solutions<V>();
+      }
+    }
+    Solutions<V> solutions = new Solutions<V>();
+    while (solutions.size() < n && asked < askBatch.size()) {
+      Solution<V> solution = askBatch.get(asked++);
+      pending.put(solution, Boolean.TRUE);
+      solutions.add(solution);
+    }
+    return solutions;
+  }
+
+  /**
+   * Feeds back solutions returned by ask(), in any order and grouping, with
+   * their objectives set. When the whole batch has been told, the algorithm
+   * updates its population (or swarm, archive ...) with it.
+   *
+   * @throws IllegalArgumentException If a solution is not pending.
+   */
+  public void tell(Solutions<V> evaluated) {
+    for (Solution<V> solution : evaluated) {
+      if (pending.remove(solution) == null) {
+        throw new IllegalArgumentException("The solution was not asked for or has already been told.");
+      }
+    }
+    if (askBatch != null && asked == askBatch.size() && pending.isEmpty()) {
+      completeBatch();
+    }
+  }
+
+  private void completeBatch() {
+    Solutions<V> batch = askBatch;
+    askBatch = null;
+    if (askBatchInitial) {
+      initialBatchEvaluated(batch);
+    } else {
+      batchEvaluated(batch);
+    }
+  }
+
+  /**
+   * Breeds the offspring of the algorithms that support it in parallel, with
+   * one random stream per unit of offspring (see Breeding). The results for
+   * a given seed do not depend on the number of threads, but they differ
+   * from sequential breeding, which draws from one stream.
+   *
+   * @param numberOfThreads Number of threads, or 0 to breed sequentially
+   */
+  public void setNumberOfBreedingThreads(int numberOfThreads) {
+    if (breeding != null) {
+      breeding.shutdown();
+    }
+    breeding = numberOfThreads > 0 ? new Breeding<V>(numberOfThreads) : null;
+  }
+
+  public int getNumberOfBreedingThreads() {
+    return breeding == null ? 0 : breeding.getNumberOfThreads();
+  }
+
+  /**
+   * Breeding hook: one unit of offspring, mutated (usually the children of
+   * two parents). With parallel breeding, it is called concurrently, so it
+   * may read but not modify the state of the algorithm.
+   */
+  protected Solutions<V> newOffspring() {
+    throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support breeding units.");
+  }
+
+  /**
+   * @return Offspring of numberOfUnits calls to newOffspring(), in
+   * parallel if there is a breeding stage.
+   */
+  protected Solutions<V> breed(int numberOfUnits) {
+    if (breeding != null) {
+      return breeding.execute(this, numberOfUnits);
+    }
+    Solutions<V> offspring = new Solutions<V>();
+    for (int i = 0; i < numberOfUnits; ++i) {
+      offspring.addAll(newOffspring());
+    }
+    return offspring;
+  }
+
+  /**
+   * @return Offspring of calls to newOffspring() until there are at least
+   * size solutions, in parallel if there is a breeding stage.
+   */
+  protected Solutions<V> breedUntil(int size) {
+    if (breeding != null) {
+      return breeding.executeUntil(this, size);
+    }
+    Solutions<V> offspring = new Solutions<V>();
+    while (offspring.size() < size) {
+      offspring.addAll(newOffspring());
+    }
+    return offspring;
+  }
+
+  /**
+   * Ask/tell hook: resets the algorithm and creates its initial solutions,
+   * not evaluated.
+   */
+  protected Solutions<V> newInitialBatch() {
+    throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support ask/tell.");
+  }
+
+  /**
+   * Ask/tell hook: the initial solutions have been evaluated.
+   */
+  protected void initialBatchEvaluated(Solutions<V> batch) {
+    throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support ask/tell.");
+  }
+
+  /**
+   * Ask/tell hook: starts a generation and creates the solutions to
+   * evaluate.
+   */
+  protected Solutions<V> newBatch() {
+    throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support ask/tell.");
+  }
+
+  /**
+   * Ask/tell hook: the solutions of the generation have been evaluated.
+   */
+  protected void batchEvaluated(Solutions<V> batch) {
+    throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support ask/tell.");
+  }
+
+  /**
+   * initialize() of the algorithms that support ask/tell: the initial batch,
+   * evaluated by the problem.
+   */
+  protected void initializeBatches() {
+    Solutions<V> batch = newInitialBatch();
+    problem.evaluate(batch);
+    initialBatchEvaluated(batch);
+    started = true;
+    askBatch = null;
+    pending.clear();
+  }
+
+  /**
+   * step() of the algorithms that support ask/tell: one batch, evaluated by
+   * the problem.
+   */
+  protected void stepBatches() {
+    Solutions<V> batch = newBatch();
+    problem.evaluate(batch);
+    batchEvaluated(batch);
+  }
 }
@@ -0,0 +1,186 @@
+package jeco.algorithm;
+
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.random.RandomGenerator;
+import jeco.util.random.SplitMixRandom;
+
+/**
+ * Parallel breeding stage of an algorithm. Offspring are bred in units
+ * (one call to Algorithm.newOffspring(): selection, crossover and mutation
+ * of one set of parents), and unit i draws its random numbers from its own
+ * stream, seeded from i and from one number drawn per generation from the
+ * generator of the calling thread. Threads claim units as they finish the
+ * previous ones, and the offspring are joined in unit order, so the result
+ * for a given seed is the same whatever the number of threads.
+ *
+ * The calling thread breeds too, so numberOfThreads - 1 threads are
+ * created. They stop after one minute without work, or at shutdown(), and
+ * then unbind their generators from RandomGenerator.
+ *
+ * @author José L. Risco-Martín
+ */
+public class Breeding<V extends Variable<?>> {
+
+  protected int numberOfThreads;
+  protected ThreadPoolExecutor executor = null;
+
+  /**
+   * @param numberOfThreads Number of threads, including the calling one
+   */
+  public Breeding(int numberOfThreads) {
+    this.numberOfThreads = Math.max(1, numberOfThreads);
+    if (this.numberOfThreads > 1) {
+      final AtomicInteger count = new AtomicInteger(0);
+      executor = new ThreadPoolExecutor(this.numberOfThreads - 1, this.numberOfThreads - 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable task) {
+          Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+              RandomGenerator.setThreadGenerator(new SplitMixRandom());
+              try {
+                task.run();
+              } finally {
+                // The thread ends: idle for one minute, or shut down
+                RandomGenerator.setThreadGenerator(null);
+              }
+            }
+          }, Breeding.class.getSimpleName() + "-" + count.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.allowCoreThreadTimeOut(true);
+    }
+  }
+
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * Stops the threads once they finish their current units.
+   */
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * @param algorithm Algorithm whose newOffspring() breeds the units
+   * @param numberOfUnits Number of units to breed
+   * @return Offspring of all the units, in unit order.
+   */
+  public Solutions<V> execute(Algorithm<V> algorithm, int numberOfUnits) {
+    Solutions<V> offspring = new Solutions<V>();
+    for (Solutions<V> unit : breed(algorithm, RandomGenerator.generator().nextLong(), 0, numberOfUnits)) {
+      offspring.addAll(unit);
+    }
+    return offspring;
+  }
+
+  /**
+   * Breeds units, in unit order, until there are at least size offspring,
+   * as a sequential loop would do. Units are bred in rounds sized from the
+   * offspring per unit seen so far; units beyond the last one needed are
+   * discarded.
+   *
+   * @return Offspring of the units needed.
+   */
+  public Solutions<V> executeUntil(Algorithm<V> algorithm, int size) {
+    long seed = RandomGenerator.generator().nextLong();
+    Solutions<V> offspring = new Solutions<V>();
+    int first = 0;
+    int count = Math.max(1, (size + 1) / 2);
+    while (offspring.size() < size) {
+      for (Solutions<V> unit : breed(algorithm, seed, first, count)) {
+        if (offspring.size() >= size) {
+          break;
+        }
+        offspring.addAll(unit);
+      }
+      first += count;
+      int remaining = size - offspring.size();
+      if (remaining > 0) {
+        count = offspring.isEmpty() ? count : Math.max(1, (int) Math.ceil(remaining * (double) first / offspring.size()));
+      }
+    }
+    return offspring;
+  }
+
+  /**
+   * Breeds units first to first + count - 1 in all the threads.
+   */
+  protected Solutions<V>[] breed(final Algorithm<V> algorithm, final long seed, final int first, final int count) {
+    @SuppressWarnings("unchecked")
+    final Solutions<V>[] units = (Solutions<V>[]) new Solutions<?>[count];
+    final AtomicInteger next = new AtomicInteger(0);
+    final Throwable[] failure = new Throwable[1];
+    int helpers = executor == null ? 0 : Math.min(numberOfThreads - 1, count - 1);
+    // Helpers and the calling thread still breeding
+    final AtomicInteger running = new AtomicInteger(helpers + 1);
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        try {
+          SplitMixRandom random = (SplitMixRandom) RandomGenerator.generator();
+          int i;
+          while ((i = next.getAndIncrement()) < count && failure[0] == null) {
+            random.stream(seed, first + i);
+            units[i] = algorithm.newOffspring();
+          }
+        } catch (Throwable t) {
+          synchronized (failure) {
+            if (failure[0] == null) {
+              failure[0] = t;
+            }
+          }
+        } finally {
+          synchronized (running) {
+            if (running.decrementAndGet() <= 0) {
+              running.notifyAll();
+            }
+          }
+        }
+      }
+    };
+    for (int i = 0; i < helpers; ++i) {
+      executor.execute(task);
+    }
+    // The calling thread breeds with its own stream, and then gets back its
+    // generator (its island's one, for instance)
+    Random previous = RandomGenerator.getThreadGenerator();
+    RandomGenerator.setThreadGenerator(new SplitMixRandom());
+    try {
+      task.run();
+    } finally {
+      RandomGenerator.setThreadGenerator(previous);
+    }
+    boolean interrupted = false;
+    synchronized (running) {
+      while (running.get() > 0) {
+        try {
+          running.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure[0] != null) {
+      throw new RuntimeException("Breeding failed: " + failure[0].getLocalizedMessage(), failure[0]);
+    }
+    return units;
+  }
+}
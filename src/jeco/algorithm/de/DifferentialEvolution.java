@@ -2,7 +2,6 @@ package jeco.algorithm.de;
 
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.logging.Logger;
 import jeco.algorithm.Algorithm;
 import jeco.algorithm.ga.SimpleGeneticAlgorithm;
@@ -11,6 +10,7 @@ import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
 import jeco.problem.Variable;
+import jeco.util.random.RandomGenerator;
 
 /**
  * Class implementing the differential evolution technique for problem solving.
@@ -20,7 +20,6 @@ import jeco.problem.Variable;
 public class DifferentialEvolution extends Algorithm<Variable<Double>> {
 
     private static final Logger logger = Logger.getLogger(SimpleGeneticAlgorithm.class.getName());
-    private static Random rnd;
 
     /////////////////////////////////////////////////////////////////////////
     public Boolean verbose = false;    
@@ -57,8 +56,6 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
         this.f = mutationFactor;
         this.gr = recombinationFactor;
         
-        rnd = new Random();
-        
         if (np < 4) {
             logger.severe("Differential Evolution requieres at least 4 individuals !!");
             System.exit(-1);
@@ -78,8 +75,17 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
     
     @Override
     public void initialize() {
+        initializeBatches();
+    }
+
+    @Override
+    protected Solutions<Variable<Double>> newInitialBatch() {
         population = problem.newRandomSetOfSolutions(np);
-        problem.evaluate(population);
+        return population;
+    }
+
+    @Override
+    protected void initialBatchEvaluated(Solutions<Variable<Double>> batch) {
         Collections.sort(population, dominance);        
         currentGeneration = 0;
     }
@@ -96,7 +102,7 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
         int k = 0;
         
         do {
-            k = rnd.nextInt(np);
+            k = RandomGenerator.nextInt(np);
         } while ((k==i) || (alreadyChosen.contains(k)));
         
         alreadyChosen.add(k);
@@ -108,6 +114,14 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
     
     @Override
     public void step() {
+        stepBatches();
+    }
+
+    /**
+     * Mutation and recombination: the trial vectors to evaluate.
+     */
+    @Override
+    protected Solutions<Variable<Double>> newBatch() {
         currentGeneration++;
         
         // Mutation phase ******************************************************
@@ -157,7 +171,7 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
             Solution<Variable<Double>> t = population.get(i).clone();
 
             for (int j = 0; j < t.getVariables().size(); j++) {
-                if (rnd.nextDouble() < gr) {
+                if (RandomGenerator.nextDouble() < gr) {
                     t.getVariable(j).setValue(noisyVectors.get(i).getVariable(j).getValue());
                 }
             }
@@ -166,12 +180,14 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
             
         }
         
-        
+        return trialVectors;
+    }
+
+    @Override
+    protected void batchEvaluated(Solutions<Variable<Double>> trialVectors) {
         // Selection phase ******************************************************
         
         // Current population is already evaluated. Not trial vectors:
-        problem.evaluate(trialVectors);
-        
         Solutions<Variable<Double>> newPopulation = new Solutions<Variable<Double>>();        
         
         for (int i = 0; i < np; i++) {
@@ -211,6 +227,16 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
 
     
     
+    @Override
+    public Solutions<Variable<Double>> getPopulation() {
+        return population;
+    }
+
+    @Override
+    public Solutions<Variable<Double>> getCurrentSolution() {
+        return population;
+    }
+
     @Override
     public Solutions<Variable<Double>> execute() {
         // Headers for detailed fitness info
@@ -222,7 +248,7 @@ public class DifferentialEvolution extends Algorithm<Variable<Double>> {
         while (currentGeneration < maxGenerations) {
             step();
             int percentage = Math.round((currentGeneration * 100) / maxGenerations);
-            Double bestObj = population.get(0).getObjectives().get(0);
+            Double bestObj = population.get(0).getObjectiveValue(0);
             if (percentage == nextPercentageReport) {
                 logger.info(percentage + "% performed ..." + " -- Best fitness: " + bestObj);
                 nextPercentageReport += 10;
@@ -2,7 +2,6 @@ package jeco.algorithm.de;
 
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.logging.Logger;
 import jeco.algorithm.Algorithm;
 import jeco.algorithm.ga.SimpleGeneticAlgorithm;
@@ -11,6 +10,7 @@ import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
 import jeco.problem.Variable;
+import jeco.util.random.RandomGenerator;
 
 /**
  * Class implementing the differential evolution technique for problem solving.
@@ -22,7 +22,6 @@ import jeco.problem.Variable;
 public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
 
     private static final Logger logger = Logger.getLogger(SimpleGeneticAlgorithm.class.getName());
-    private static Random rnd;
 
     /////////////////////////////////////////////////////////////////////////
     public Boolean verbose = false;    
@@ -58,8 +57,6 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
         this.f = mutationFactor;
         this.gr = recombinationFactor;
         
-        rnd = new Random();
-        
         if (np < 4) {
             logger.severe("Differential Evolution requieres at least 4 individuals !!");
             System.exit(-1);
@@ -79,8 +76,17 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
     
     @Override
     public void initialize() {
+        initializeBatches();
+    }
+
+    @Override
+    protected Solutions<Variable<Integer>> newInitialBatch() {
         population = problem.newRandomSetOfSolutions(np);
-        problem.evaluate(population);
+        return population;
+    }
+
+    @Override
+    protected void initialBatchEvaluated(Solutions<Variable<Integer>> batch) {
         Collections.sort(population, dominance);        
         currentGeneration = 0;
     }
@@ -97,7 +103,7 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
         int k = 0;
         
         do {
-            k = rnd.nextInt(np);
+            k = RandomGenerator.nextInt(np);
         } while ((k==i) || (alreadyChosen.contains(k)));
         
         alreadyChosen.add(k);
@@ -109,6 +115,14 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
     
     @Override
     public void step() {
+        stepBatches();
+    }
+
+    /**
+     * Mutation and recombination: the trial vectors to evaluate.
+     */
+    @Override
+    protected Solutions<Variable<Integer>> newBatch() {
         currentGeneration++;
         
         // Mutation phase ******************************************************
@@ -149,7 +163,7 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
             Solution<Variable<Integer>> t = population.get(i).clone();
 
             for (int j = 0; j < t.getVariables().size(); j++) {
-                if (rnd.nextDouble() < gr) {
+                if (RandomGenerator.nextDouble() < gr) {
                     t.getVariable(j).setValue(noisyVectors.get(i).getVariable(j).getValue());
                 }
             }
@@ -158,12 +172,14 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
             
         }
         
-        
+        return trialVectors;
+    }
+
+    @Override
+    protected void batchEvaluated(Solutions<Variable<Integer>> trialVectors) {
         // Selection phase ******************************************************
         
         // Current population is already evaluated. Not trial vectors:
-        problem.evaluate(trialVectors);
-        
         Solutions<Variable<Integer>> newPopulation = new Solutions<Variable<Integer>>();        
         
         for (int i = 0; i < np; i++) {
@@ -203,6 +219,16 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
 
     
     
+    @Override
+    public Solutions<Variable<Integer>> getPopulation() {
+        return population;
+    }
+
+    @Override
+    public Solutions<Variable<Integer>> getCurrentSolution() {
+        return population;
+    }
+
     @Override
     public Solutions<Variable<Integer>> execute() {
         // Headers for detailed fitness info
@@ -214,7 +240,7 @@ public class DifferentialEvolutionInt extends Algorithm<Variable<Integer>> {
         while (currentGeneration < maxGenerations) {
             step();
             int percentage = Math.round((currentGeneration * 100) / maxGenerations);
-            Double bestObj = population.get(0).getObjectives().get(0);
+            Double bestObj = population.get(0).getObjectiveValue(0);
             if (percentage == nextPercentageReport) {
                 logger.info(percentage + "% performed ..." + " -- Best fitness: " + bestObj);
                 nextPercentageReport += 10;
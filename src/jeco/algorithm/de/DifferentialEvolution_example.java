@@ -30,7 +30,7 @@ public class DifferentialEvolution_example {
         algorithm.verbose = true;
         Solutions<Variable<Double>> solutions = algorithm.execute();
         for (Solution<Variable<Double>> solution : solutions) {
-            logger.info("Fitness = " + solution.getObjectives().get(0));
+            logger.info("Fitness = " + solution.getObjectiveValue(0));
         }
     }
 }
@@ -58,9 +58,18 @@ public class EvolutionaryStrategy<T extends Variable<?>> extends Algorithm<T> {
 	
 	@Override
 	public void initialize() {
+		initializeBatches();
+	}
+
+	@Override
+	protected Solutions<T> newInitialBatch() {
 		// Create the initial solutionSet
 		muPopulation = problem.newRandomSetOfSolutions(mu);
-		problem.evaluate(muPopulation);
+		return muPopulation;
+	}
+
+	@Override
+	protected void initialBatchEvaluated(Solutions<T> batch) {
 		currentGeneration = 0;
 	}
 
@@ -75,7 +84,7 @@ public class EvolutionaryStrategy<T extends Variable<?>> extends Algorithm<T> {
 				nextPercentageReport += 10;
 			}
 			if(stopWhenSolved) {
-				Double bestObj = muPopulation.get(0).getObjectives().get(0);
+				Double bestObj = muPopulation.get(0).getObjectiveValue(0);
 				if(bestObj<=0) {
 					logger.info("Optimal solution found in " + currentGeneration + " generations.");
 					break;
@@ -85,30 +94,49 @@ public class EvolutionaryStrategy<T extends Variable<?>> extends Algorithm<T> {
 		return muPopulation;
 	}
 
+	@Override
+	public Solutions<T> getPopulation() {
+		return muPopulation;
+	}
+
+	@Override
+	public Solutions<T> getCurrentSolution() {
+		return muPopulation;
+	}
+
 	public void step() {
+		stepBatches();
+	} // step
+
+	@Override
+	protected Solutions<T> newBatch() {
 		currentGeneration++;
 		// Create the offSpring solutionSet  
-		Solutions<T> lambdaPopulation = new Solutions<T>();
-		Solution<T> parent1, parent2;
-		while(lambdaPopulation.size()<lambda) {
-			// We apply recombination if rho is 2 or greater
-			// In this version we only apply a traditional recombination of two parents
-			Solutions<T> offSpring = new Solutions<T>();
-			parent1 = selectionOperator.execute(muPopulation).get(0);
-			if(rho>RHO_DEFAULT) {
-				// obtain 2º parent
-				parent2 = selectionOperator.execute(muPopulation).get(0);
-				offSpring.addAll(crossoverOperator.execute(parent1, parent2));
-			}
-			else {
-				offSpring.add(parent1.clone());
-			}
-			for (Solution<T> solution : offSpring) {
-				mutationOperator.execute(solution);
-				lambdaPopulation.add(solution);
-			}        	
-		} // for
-		problem.evaluate(lambdaPopulation);
+		return breedUntil(lambda);
+	}
+
+	@Override
+	protected Solutions<T> newOffspring() {
+		// We apply recombination if rho is 2 or greater
+		// In this version we only apply a traditional recombination of two parents
+		Solutions<T> offSpring = new Solutions<T>();
+		Solution<T> parent1 = selectionOperator.execute(muPopulation).get(0);
+		if(rho>RHO_DEFAULT) {
+			// obtain 2º parent
+			Solution<T> parent2 = selectionOperator.execute(muPopulation).get(0);
+			offSpring.addAll(crossoverOperator.execute(parent1, parent2));
+		}
+		else {
+			offSpring.add(parent1.clone());
+		}
+		for (Solution<T> solution : offSpring) {
+			mutationOperator.execute(solution);
+		}
+		return offSpring;
+	}
+
+	@Override
+	protected void batchEvaluated(Solutions<T> lambdaPopulation) {
 		// Selection
 		if(selectionType == SELECTION_PLUS) {
 			lambdaPopulation.addAll(muPopulation);
@@ -118,6 +146,6 @@ public class EvolutionaryStrategy<T extends Variable<?>> extends Algorithm<T> {
 		while(lambdaPopulation.size()>mu)
 			lambdaPopulation.remove(lambdaPopulation.size()-1);
 		muPopulation = lambdaPopulation;
-	} // step
+	}
 
 }
@@ -27,7 +27,7 @@ public class EvolutionaryStrategy_example {
 		algorithm.initialize();
 		Solutions<Variable<Double>> solutions = algorithm.execute();
 		for (Solution<Variable<Double>> solution : solutions) {
-			logger.info("Fitness = " + solution.getObjectives().get(0));
+			logger.info("Fitness = " + solution.getObjectiveValue(0));
 		}
 	}
 }
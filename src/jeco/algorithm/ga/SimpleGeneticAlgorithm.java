@@ -63,9 +63,18 @@ public class SimpleGeneticAlgorithm<V extends Variable<?>> extends Algorithm<V>
 
     @Override
     public void initialize() {
+        initializeBatches();
+    }
+
+    @Override
+    protected Solutions<V> newInitialBatch() {
         population = problem.newRandomSetOfSolutions(maxPopulationSize);
         leaders = new Solutions<>();
-        problem.evaluate(population);
+        return population;
+    }
+
+    @Override
+    protected void initialBatchEvaluated(Solutions<V> batch) {
         for (Solution<V> solution : population) {
             leaders.add(solution.clone());
         }
@@ -83,7 +92,7 @@ public class SimpleGeneticAlgorithm<V extends Variable<?>> extends Algorithm<V>
         while ((currentGeneration < maxGenerations) && !stop){
             step();
             int percentage = Math.round((currentGeneration * 100) / maxGenerations);
-            Double bestObj = leaders.get(0).getObjectives().get(0);
+            Double bestObj = leaders.get(0).getObjectiveValue(0);
             
             // For observers:
             obsData.put("CurrentGeneration", String.valueOf(currentGeneration));
@@ -104,7 +113,7 @@ public class SimpleGeneticAlgorithm<V extends Variable<?>> extends Algorithm<V>
         }
         if (stop) {
             logger.info("Execution stopped at generation "+ currentGeneration);
-            logger.info("Best objective value: "+leaders.get(0).getObjectives().get(0));
+            logger.info("Best objective value: "+leaders.get(0).getObjectiveValue(0));
         }
         
         return leaders;
@@ -112,21 +121,30 @@ public class SimpleGeneticAlgorithm<V extends Variable<?>> extends Algorithm<V>
 
     @Override
     public void step() {
+        stepBatches();
+    }
+
+    @Override
+    protected Solutions<V> newBatch() {
         currentGeneration++;
-        // Create the offSpring solutionSet        
-        Solutions<V> childPop = new Solutions<V>();
-        Solution<V> parent1, parent2;
-        for (int i = 0; i < (maxPopulationSize / 2); i++) {
-            //obtain parents
-            parent1 = selectionOperator.execute(population).get(0);
-            parent2 = selectionOperator.execute(population).get(0);
-            Solutions<V> offSpring = crossoverOperator.execute(parent1, parent2);
-            for (Solution<V> solution : offSpring) {
-                mutationOperator.execute(solution);
-                childPop.add(solution);
-            }
-        } // for
-        problem.evaluate(childPop);
+        // Create the offSpring solutionSet
+        return breed(maxPopulationSize / 2);
+    }
+
+    @Override
+    protected Solutions<V> newOffspring() {
+        //obtain parents
+        Solution<V> parent1 = selectionOperator.execute(population).get(0);
+        Solution<V> parent2 = selectionOperator.execute(population).get(0);
+        Solutions<V> offSpring = crossoverOperator.execute(parent1, parent2);
+        for (Solution<V> solution : offSpring) {
+            mutationOperator.execute(solution);
+        }
+        return offSpring;
+    }
+
+    @Override
+    protected void batchEvaluated(Solutions<V> childPop) {
         population = childPop;
         //Actualize the archive
         for (Solution<V> solution : population) {
@@ -168,6 +186,19 @@ public class SimpleGeneticAlgorithm<V extends Variable<?>> extends Algorithm<V>
     public Solutions<V> getSolutions() {
         return population;
     }
+
+    @Override
+    public Solutions<V> getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return The leaders, as execute().
+     */
+    @Override
+    public Solutions<V> getCurrentSolution() {
+        return leaders;
+    }
     
     public Solutions<V> getLeaders() {
         return leaders;
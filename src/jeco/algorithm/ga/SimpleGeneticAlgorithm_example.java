@@ -29,7 +29,7 @@ public class SimpleGeneticAlgorithm_example {
 		ga.initialize();
 		Solutions<Variable<Double>> solutions = ga.execute();
 		for(Solution<Variable<Double>> solution : solutions) {
-			System.out.println("Fitness = " + solution.getObjectives().get(0));
+			System.out.println("Fitness = " + solution.getObjectiveValue(0));
 		}
 		//System.out.println("solutions.size()="+ solutions.size());
 		//System.out.println(solutions.toString());
@@ -33,6 +33,7 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jeco.algorithm.ga.SimpleGeneticAlgorithm;
@@ -60,7 +61,13 @@ public class GramEvalStaticModel extends AbstractProblemGE {
 
     private static final Logger logger = Logger.getLogger(GramEvalStaticModel.class.getName());
 
+    // Clones created so far in this JVM, by any instance
+    private static final AtomicInteger NUMBER_OF_CLONES = new AtomicInteger(0);
+
     protected int threadId;
+    // Suffix of the name of the generated class: threadId, or threadId_n in
+    // the n-th clone, so that no two instances write and load the same class
+    protected String classId;
     protected MyCompiler compiler;
     protected NormalizedDataTable dataTable;
     protected Properties properties;
@@ -73,6 +80,7 @@ public class GramEvalStaticModel extends AbstractProblemGE {
         super(properties.getProperty("BnfPathFile"), 1);
         this.properties = properties; // Just for its use in "clone" member function
         this.threadId = threadId;
+        this.classId = String.valueOf(threadId);
         compiler = new MyCompiler(properties);
         dataTable = new NormalizedDataTable(this, properties.getProperty("TrainingPath"), Boolean.valueOf(properties.getProperty("NormalizeTable","true")));
         varNames = properties.getProperty("VarNames").split(";");
@@ -94,9 +102,9 @@ public class GramEvalStaticModel extends AbstractProblemGE {
             }
         }
         // Compilation process:
-        File file = new File(compiler.getWorkDir() + File.separator + "PopPredictor" + threadId + ".java");
+        File file = new File(compiler.getWorkDir() + File.separator + "PopPredictor" + classId + ".java");
         BufferedWriter writer = new BufferedWriter(new FileWriter(file));
-        writer.write(AbstractPopPredictor.generateClassCode(threadId, phenotypes));
+        writer.write(AbstractPopPredictor.generateClassCode(classId, phenotypes));
         writer.flush();
         writer.close();
         LinkedList<String> filePaths = new LinkedList<>();
@@ -122,7 +130,7 @@ public class GramEvalStaticModel extends AbstractProblemGE {
         try {
             this.generateCodeAndCompile(solutions);
             // And now we evaluate all the solutions with the compiled file:
-            predictor = (AbstractPopPredictor) (new MyLoader(compiler.getWorkDir())).loadClass("PopPredictor" + threadId).newInstance();
+            predictor = (AbstractPopPredictor) (new MyLoader(compiler.getWorkDir())).loadClass("PopPredictor" + classId).newInstance();
             // double[][] x = dataTable.getXTReal();
             // double[] y = dataTable.getYTReal();
             // TODO: Fix the previous code:
@@ -139,7 +147,7 @@ public class GramEvalStaticModel extends AbstractProblemGE {
                     }
                     logger.info("Best FIT=" + bestFitness + "; Expresion=" + bestExpression);
                 }
-                solutions.get(i).getObjectives().set(0, rmse);
+                solutions.get(i).setObjectiveValue(0, rmse);
             }
         } catch (Exception ex) {
             Logger.getLogger(GramEvalStaticModel.class.getName()).log(Level.SEVERE, null, ex);
@@ -150,7 +158,7 @@ public class GramEvalStaticModel extends AbstractProblemGE {
         try {
             this.generateCodeAndCompile(solutions);
             // And now we evaluate all the solutions with the compiled file:
-            predictor = (AbstractPopPredictor) (new MyLoader(compiler.getWorkDir())).loadClass("PopPredictor" + threadId).newInstance();
+            predictor = (AbstractPopPredictor) (new MyLoader(compiler.getWorkDir())).loadClass("PopPredictor" + classId).newInstance();
             // double[][] x = dataTable.getXVReal();
             // double[] y = dataTable.getYVReal();
             // TODO: Fix the previous code:
@@ -159,7 +167,7 @@ public class GramEvalStaticModel extends AbstractProblemGE {
             for (int i = 0; i < solutions.size(); ++i) {
                 double[] yP = predictor.computeYP(i, x);
                 double rmse = computeRMSE(y, yP);
-                solutions.get(i).getObjectives().set(0, rmse);
+                solutions.get(i).setObjectiveValue(0, rmse);
             }
         } catch (Exception ex) {
             Logger.getLogger(GramEvalStaticModel.class.getName()).log(Level.SEVERE, null, ex);
@@ -180,7 +188,8 @@ public class GramEvalStaticModel extends AbstractProblemGE {
     public GramEvalStaticModel clone() {
         GramEvalStaticModel clone = null;
         try {
-            clone = new GramEvalStaticModel(properties, threadId + 1);
+            clone = new GramEvalStaticModel(properties, threadId);
+            clone.classId = threadId + "_" + NUMBER_OF_CLONES.incrementAndGet();
         } catch (IOException ex) {
             Logger.getLogger(GramEvalStaticModel.class.getName()).log(Level.SEVERE, null, ex);
         }
@@ -228,7 +237,7 @@ public class GramEvalStaticModel extends AbstractProblemGE {
         logger.info("Validation of solutions[0] with fitness " + solutions.get(0).getObjective(0));
         problem.validate(solutions);
         Solution<Variable<Integer>> solution = solutions.get(0);
-        double validationFitness = solution.getObjectives().get(0);
+        double validationFitness = solution.getObjectiveValue(0);
         logger.info("Validation fitness for solutions[0] = " + validationFitness);
     }
 }
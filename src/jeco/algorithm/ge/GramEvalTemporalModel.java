@@ -33,6 +33,7 @@ import java.net.URLClassLoader;
 import java.util.LinkedList;
 import java.util.Observer;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JTable;
@@ -57,7 +58,13 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
 
     private static final Logger logger = Logger.getLogger(GramEvalTemporalModel.class.getName());
 
+    // Clones created so far in this JVM, by any instance
+    private static final AtomicInteger NUMBER_OF_CLONES = new AtomicInteger(0);
+
     protected int threadId;
+    // Suffix of the name of the generated class: threadId, or threadId_n in
+    // the n-th clone, so that no two instances write and load the same class
+    protected String classId;
     protected MyCompiler compiler;
     protected NormalizedDataTable dataTable;
     protected Properties properties;
@@ -67,6 +74,7 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
         super(properties.getProperty("BnfPathFile"), 1);
         this.properties = properties;
         this.threadId = threadId;
+        this.classId = String.valueOf(threadId);
         compiler = new MyCompiler(properties);
         dataTable = new NormalizedDataTable(this, properties.getProperty("TrainingPath"), Boolean.valueOf(properties.getProperty("NormalizeTable", "true")), Integer.valueOf(properties.getProperty("IdxBegin", "-1")), Integer.valueOf(properties.getProperty("IdxEnd", "-1")));
     }
@@ -75,7 +83,7 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
     public void evaluate(Solutions<Variable<Integer>> solutions) {
         StringBuilder currentJavaFile = new StringBuilder();
 
-        currentJavaFile.append("public class PopEvaluator").append(threadId).append(" extends jeco.core.operator.evaluator.AbstractPopEvaluator {\n\n");
+        currentJavaFile.append("public class PopEvaluator").append(classId).append(" extends jeco.core.operator.evaluator.AbstractPopEvaluator {\n\n");
 
         currentJavaFile.append("\tpublic double MyDrv(int from, int to, int idxVar) {\n");
         currentJavaFile.append("\t\treturn (getVariable(idxVar, to) - getVariable(idxVar, from))/(to - from + 1);\n");
@@ -146,7 +154,7 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
         currentJavaFile.append("}\n");
         // Compilation process:
         try {
-            File file = new File(compiler.getWorkDir() + File.separator + "PopEvaluator" + threadId + ".java");
+            File file = new File(compiler.getWorkDir() + File.separator + "PopEvaluator" + classId + ".java");
             BufferedWriter writer = new BufferedWriter(new FileWriter(file));
             writer.write(currentJavaFile.toString());
             writer.flush();
@@ -164,7 +172,7 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
         // And now we evaluate all the solutions with the compiled file:
         evaluator = null;
         try {
-            evaluator = (AbstractPopEvaluator) (new MyLoader(compiler.getWorkDir())).loadClass("PopEvaluator" + threadId).newInstance();
+            evaluator = (AbstractPopEvaluator) (new MyLoader(compiler.getWorkDir())).loadClass("PopEvaluator" + classId).newInstance();
             evaluator.setDataTable(dataTable.getTrainingTable());
         } catch (Exception ex) {
             logger.severe(ex.getLocalizedMessage());
@@ -175,7 +183,7 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
             if (Double.isNaN(fitness)) {
                 logger.info("I have a NaN number here");
             }
-            solution.getObjectives().set(0, fitness);
+            solution.setObjectiveValue(0, fitness);
         }
     }
 
@@ -193,7 +201,8 @@ public class GramEvalTemporalModel extends AbstractProblemGE {
     public GramEvalTemporalModel clone() {
         GramEvalTemporalModel clone = null;
         try {
-            clone = new GramEvalTemporalModel(properties, threadId + 1);
+            clone = new GramEvalTemporalModel(properties, threadId);
+            clone.classId = threadId + "_" + NUMBER_OF_CLONES.incrementAndGet();
         } catch (IOException ex) {
             logger.severe(ex.getLocalizedMessage());
         }
@@ -48,4 +48,34 @@ public class SimpleGrammaticalEvolution extends Algorithm<Variable<Integer>> {
         return algorithm.execute();
     }
 
+    @Override
+    public Solutions<Variable<Integer>> getPopulation() {
+        return algorithm.getPopulation();
+    }
+
+    @Override
+    public Solutions<Variable<Integer>> getCurrentSolution() {
+        return algorithm.getCurrentSolution();
+    }
+
+    @Override
+    public void setNumberOfBreedingThreads(int numberOfThreads) {
+        algorithm.setNumberOfBreedingThreads(numberOfThreads);
+    }
+
+    @Override
+    public int getNumberOfBreedingThreads() {
+        return algorithm.getNumberOfBreedingThreads();
+    }
+
+    @Override
+    public Solutions<Variable<Integer>> ask(int n) {
+        return algorithm.ask(n);
+    }
+
+    @Override
+    public void tell(Solutions<Variable<Integer>> evaluated) {
+        algorithm.tell(evaluated);
+    }
+
 }
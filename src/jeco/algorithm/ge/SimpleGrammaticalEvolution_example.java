@@ -56,7 +56,7 @@ public class SimpleGrammaticalEvolution_example extends AbstractProblemGE {
       error = Math.pow(funcI - func[i], 2);
       totError += error;
     }
-    solution.getObjectives().set(0, totError);
+    solution.setObjectiveValue(0, totError);
   }
 
   @Override
@@ -75,7 +75,7 @@ public class SimpleGrammaticalEvolution_example extends AbstractProblemGE {
         algorithm.initialize();
         Solutions<Variable<Integer>> solutions = algorithm.execute();
         for (Solution<Variable<Integer>> solution : solutions) {
-            logger.info("Fitness = (" + solution.getObjectives().get(0) + ")");
+            logger.info("Fitness = (" + solution.getObjectiveValue(0) + ")");
             logger.info("Phenotype = (" + problem.generatePhenotype(solution).toString() + ")");
         }
   }
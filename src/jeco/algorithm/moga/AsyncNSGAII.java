@@ -0,0 +1,254 @@
+package jeco.algorithm.moga;
+
+import java.util.ArrayList;
+import java.util.logging.Logger;
+import jeco.operator.assigner.CrowdingDistance;
+import jeco.operator.comparator.SolutionDominance;
+import jeco.operator.crossover.CrossoverOperator;
+import jeco.operator.mutation.MutationOperator;
+import jeco.operator.selection.SelectionOperator;
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Asynchronous steady-state NSGA-II, for problems whose evaluation times
+ * vary a lot. There are no generations: each worker thread, with its own
+ * clone of the problem, takes a new solution, evaluates it and inserts it
+ * into the population, and then takes the next one right away.
+ *
+ * The first MAX_POPULATION_SIZE solutions are random. The rest are bred
+ * from the current population (selection, crossover and mutation; the first
+ * child is kept). Inserting a solution applies the NSGA-II reduction to the
+ * population plus that solution, which removes the worst one by rank and
+ * crowding distance. Breeding and insertion are short and share one lock;
+ * evaluations run outside it, so workers are only idle while another worker
+ * holds the lock.
+ *
+ * step() does the same in the calling thread, one evaluation at a time, and
+ * ask()/tell() let the caller evaluate the solutions.
+ *
+ * Input parameters: - MAX_POPULATION_SIZE - MAX_EVALUATIONS - NUM_WORKERS
+ *
+ * Operators: - CROSSOVER: Crossover operator - MUTATION: Mutation operator -
+ * SELECTION: Selection operator
+ *
+ * @author José L. Risco-Martín
+ *
+ */
+public class AsyncNSGAII<T extends Variable<?>> extends NSGAII<T> {
+
+  private static final Logger logger = Logger.getLogger(AsyncNSGAII.class.getName());
+  /////////////////////////////////////////////////////////////////////////
+  protected int maxEvaluations;
+  protected int numWorkers;
+  /////////////////////////////////////////////////////////////////////////
+  // Solutions handed out and inserted
+  protected int issuedEvaluations;
+  protected int currentEvaluation;
+  protected int nextPercentageReport;
+  protected Throwable failure;
+  // Time spent in evaluations by all the workers
+  protected long evaluationNanos;
+  protected long executionNanos;
+
+  public AsyncNSGAII(Problem<T> problem, int maxPopulationSize, int maxEvaluations, int numWorkers, MutationOperator<T> mutationOperator, CrossoverOperator<T> crossoverOperator, SelectionOperator<T> selectionOperator) {
+    super(problem, maxPopulationSize, maxEvaluations / maxPopulationSize, mutationOperator, crossoverOperator, selectionOperator);
+    this.maxEvaluations = maxEvaluations;
+    this.numWorkers = numWorkers;
+  }
+
+  public AsyncNSGAII(Problem<T> problem, int maxPopulationSize, int maxEvaluations, MutationOperator<T> mutationOperator, CrossoverOperator<T> crossoverOperator, SelectionOperator<T> selectionOperator) {
+    this(problem, maxPopulationSize, maxEvaluations, Runtime.getRuntime().availableProcessors(), mutationOperator, crossoverOperator, selectionOperator);
+  }
+
+  /**
+   * Empties the population: initial solutions are evaluated by the workers
+   * too.
+   */
+  @Override
+  public void initialize() {
+    dominance = new SolutionDominance<T>();
+    crowdingDistance = new CrowdingDistance<T>(problem.getNumberOfObjectives());
+    population = new Solutions<T>();
+    currentGeneration = 0;
+    issuedEvaluations = 0;
+    currentEvaluation = 0;
+    nextPercentageReport = 10;
+    failure = null;
+    evaluationNanos = 0;
+    executionNanos = 0;
+    stop = false;
+    started = true;
+    pending.clear();
+  }
+
+  @Override
+  public Solutions<T> execute() {
+    long start = System.nanoTime();
+    ArrayList<Thread> workers = new ArrayList<Thread>();
+    for (int i = 0; i < numWorkers; ++i) {
+      final Problem<T> instance = problem.clone();
+      if (instance == null) {
+        throw new IllegalStateException("The problem cannot be cloned for the workers.");
+      }
+      Thread worker = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          work(instance);
+        }
+      }, AsyncNSGAII.class.getSimpleName() + "-" + i);
+      workers.add(worker);
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        logger.severe("Interrupted while waiting for " + worker.getName() + ". Stopping ...");
+        stopExection();
+        Thread.currentThread().interrupt();
+      }
+    }
+    executionNanos += System.nanoTime() - start;
+    if (failure != null) {
+      throw new RuntimeException("Evaluation failed: " + failure.getLocalizedMessage(), failure);
+    }
+    return this.getCurrentSolution();
+  }
+
+  /**
+   * One evaluation in the calling thread.
+   */
+  @Override
+  public void step() {
+    Solution<T> solution = nextSolution();
+    if (solution == null) {
+      return;
+    }
+    long start = System.nanoTime();
+    evaluate(problem, solution);
+    insert(solution, System.nanoTime() - start);
+  }
+
+  /**
+   * Steady-state ask/tell: there is no generation barrier, so new solutions
+   * can be asked for while others are being evaluated. Each told solution is
+   * inserted into the population at once. Calls initialize() if it has not
+   * been called.
+   *
+   * @return Up to n solutions, fewer when the evaluations run out.
+   */
+  @Override
+  public synchronized Solutions<T> ask(int n) {
+    if (!started) {
+      initialize();
+    }
+    Solutions<T> solutions = new Solutions<T>();
+    Solution<T> solution;
+    while (solutions.size() < n && (solution = nextSolution()) != null) {
+      pending.put(solution, Boolean.TRUE);
+      solutions.add(solution);
+    }
+    return solutions;
+  }
+
+  @Override
+  public synchronized void tell(Solutions<T> evaluated) {
+    for (Solution<T> solution : evaluated) {
+      if (pending.remove(solution) == null) {
+        throw new IllegalArgumentException("The solution was not asked for or has already been told.");
+      }
+      insert(solution, 0);
+    }
+  }
+
+  /**
+   * @return Time spent in evaluations over the time available to the workers
+   * in execute() (1 means that no worker was ever idle).
+   */
+  public synchronized double getUtilization() {
+    return executionNanos > 0 ? (double) evaluationNanos / (numWorkers * executionNanos) : 0;
+  }
+
+  public synchronized int getCurrentEvaluation() {
+    return currentEvaluation;
+  }
+
+  /**
+   * Evaluates one solution as a one-solution set, so that problems that only
+   * evaluate in batches (as GramEvalTemporalModel) set its objectives too.
+   */
+  protected void evaluate(Problem<T> instance, Solution<T> solution) {
+    Solutions<T> single = new Solutions<T>();
+    single.add(solution);
+    instance.evaluate(single);
+  }
+
+  protected void work(Problem<T> instance) {
+    Solution<T> solution;
+    while ((solution = nextSolution()) != null) {
+      long start = System.nanoTime();
+      try {
+        evaluate(instance, solution);
+      } catch (Throwable t) {
+        synchronized (this) {
+          if (failure == null) {
+            failure = t;
+          }
+        }
+        return;
+      }
+      insert(solution, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return A random or bred solution, or null if every evaluation has been
+   * handed out, the algorithm was stopped or an evaluation failed.
+   */
+  protected synchronized Solution<T> nextSolution() {
+    if (stop || failure != null || issuedEvaluations >= maxEvaluations) {
+      return null;
+    }
+    issuedEvaluations++;
+    if (issuedEvaluations <= maxPopulationSize || population.size() < 2) {
+      return problem.newRandomSetOfSolutions(1).get(0);
+    }
+    Solution<T> parent1 = selectionOperator.execute(population).get(0);
+    Solution<T> parent2 = selectionOperator.execute(population).get(0);
+    Solution<T> child = crossoverOperator.execute(parent1, parent2).get(0);
+    mutationOperator.execute(child);
+    return child;
+  }
+
+  /**
+   * Steady-state survival: the population keeps its best maxPopulationSize
+   * solutions after adding the evaluated one. Ranks and crowding distances
+   * are updated for the next selections.
+   */
+  protected synchronized void insert(Solution<T> solution, long nanos) {
+    evaluationNanos += nanos;
+    currentEvaluation++;
+    population.add(solution);
+    population = reduce(population, maxPopulationSize);
+    currentGeneration = currentEvaluation / maxPopulationSize;
+    int percentage = (int) ((currentEvaluation * 100L) / maxEvaluations);
+    if (percentage >= nextPercentageReport) {
+      logger.info(percentage + "% performed ...");
+      nextPercentageReport += 10;
+    }
+  }
+
+  public void setMaxEvaluations(int maxEvaluations) {
+    this.maxEvaluations = maxEvaluations;
+    this.maxGenerations = maxEvaluations / maxPopulationSize;
+  }
+
+  public void setNumWorkers(int numWorkers) {
+    this.numWorkers = numWorkers;
+  }
+}
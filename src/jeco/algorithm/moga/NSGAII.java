@@ -38,6 +38,7 @@ public class NSGAII<T extends Variable<?>> extends Algorithm<T> {
   protected Comparator<Solution<T>> dominance;
   protected int currentGeneration;
   protected Solutions<T> population;
+  protected CrowdingDistance<T> crowdingDistance;
 
   public Solutions<T> getPopulation() {
     return population;
@@ -57,13 +58,22 @@ public class NSGAII<T extends Variable<?>> extends Algorithm<T> {
 
   @Override
   public void initialize() {
+    initializeBatches();
+  }
+
+  @Override
+  protected Solutions<T> newInitialBatch() {
     dominance = new SolutionDominance<T>();
     // Create the initial solutionSet
     population = problem.newRandomSetOfSolutions(maxPopulationSize);
-    problem.evaluate(population);
+    return population;
+  }
+
+  @Override
+  protected void initialBatchEvaluated(Solutions<T> batch) {
     // Compute crowding distance
-    CrowdingDistance<T> assigner = new CrowdingDistance<T>(problem.getNumberOfObjectives());
-    assigner.execute(population);
+    crowdingDistance = new CrowdingDistance<T>(problem.getNumberOfObjectives());
+    crowdingDistance.execute(population);
     currentGeneration = 0;
 
   }
@@ -83,33 +93,46 @@ public class NSGAII<T extends Variable<?>> extends Algorithm<T> {
     return this.getCurrentSolution();
   }
 
+  @Override
   public Solutions<T> getCurrentSolution() {
     population.reduceToNonDominated(dominance);
     return population;
   }
 
   public void step() {
+    stepBatches();
+  } // step
+
+  @Override
+  protected Solutions<T> newBatch() {
     currentGeneration++;
     // Create the offSpring solutionSet
+    Solutions<T> childPop = new Solutions<T>();
     if (population.size() < 2) {
       logger.severe("Generation: " + currentGeneration + ". Population size is less than 2.");
-      return;
+      return childPop;
     }
 
-    Solutions<T> childPop = new Solutions<T>();
-    Solution<T> parent1, parent2;
-    for (int i = 0; i < (maxPopulationSize / 2); i++) {
-      //obtain parents
-      parent1 = selectionOperator.execute(population).get(0);
-      parent2 = selectionOperator.execute(population).get(0);
-      Solutions<T> offSpring = crossoverOperator.execute(parent1, parent2);
-      for (Solution<T> solution : offSpring) {
-        mutationOperator.execute(solution);
-        childPop.add(solution);
-      }
-    } // for
-    problem.evaluate(childPop);
+    return breed(maxPopulationSize / 2);
+  }
+
+  @Override
+  protected Solutions<T> newOffspring() {
+    //obtain parents
+    Solution<T> parent1 = selectionOperator.execute(population).get(0);
+    Solution<T> parent2 = selectionOperator.execute(population).get(0);
+    Solutions<T> offSpring = crossoverOperator.execute(parent1, parent2);
+    for (Solution<T> solution : offSpring) {
+      mutationOperator.execute(solution);
+    }
+    return offSpring;
+  }
 
+  @Override
+  protected void batchEvaluated(Solutions<T> childPop) {
+    if (childPop.isEmpty()) {
+      return;
+    }
     // Create the solutionSet union of solutionSet and offSpring
     Solutions<T> mixedPop = new Solutions<T>();
     mixedPop.addAll(population);
@@ -118,19 +141,18 @@ public class NSGAII<T extends Variable<?>> extends Algorithm<T> {
     // Reducing the union
     population = reduce(mixedPop, maxPopulationSize);
     logger.fine("Generation " + currentGeneration + "/" + maxGenerations + "\n" + population.toString());
-  } // step
+  }
 
   public Solutions<T> reduce(Solutions<T> pop, int maxSize) {
     FrontsExtractor<T> extractor = new FrontsExtractor<T>(dominance);
     ArrayList<Solutions<T>> fronts = extractor.execute(pop);
 
     Solutions<T> reducedPop = new Solutions<T>();
-    CrowdingDistance<T> assigner = new CrowdingDistance<T>(problem.getNumberOfObjectives());
     Solutions<T> front;
     int i = 0;
     while (reducedPop.size() < maxSize && i < fronts.size()) {
       front = fronts.get(i);
-      assigner.execute(front);
+      crowdingDistance.execute(front);
       reducedPop.addAll(front);
       i++;
     }
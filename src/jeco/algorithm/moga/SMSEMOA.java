@@ -0,0 +1,313 @@
+package jeco.algorithm.moga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Logger;
+import jeco.algorithm.Algorithm;
+import jeco.operator.assigner.FrontsExtractor;
+import jeco.operator.comparator.SolutionDominance;
+import jeco.operator.crossover.CrossoverOperator;
+import jeco.operator.mutation.MutationOperator;
+import jeco.operator.selection.SelectionOperator;
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.indicator.Hypervolume;
+import jeco.util.indicator.HypervolumeContributions;
+
+/**
+ * S-Metric Selection EMOA: N. Beume, B. Naujoks, M. Emmerich. SMS-EMOA:
+ * Multiobjective selection based on dominated hypervolume. European Journal
+ * of Operational Research, 181(3), 1653-1669, 2007.
+ *
+ * Steady state: every step creates one offspring and removes, from the last
+ * front of the population, the solution with the lowest exclusive hypervolume
+ * contribution. The reference point is the worst point of that front plus
+ * offset in each objective.
+ *
+ * While the whole population is one front (most of a run), contributions are
+ * kept in a <code>HypervolumeContributions</code> and only updated with the
+ * offspring and the removed solution. The reference point only moves when
+ * the worst value of an objective changes; then, with three objectives, the
+ * contributions are shifted in O(n log n), and with more they are all
+ * recomputed. Otherwise the fronts are extracted and the contributions of
+ * the last front are computed from scratch.
+ *
+ * Input parameters: - MAX_POPULATION_SIZE - MAX_EVALUATIONS
+ *
+ * Operators: - CROSSOVER: Crossover operator - MUTATION: Mutation operator -
+ * SELECTION: Selection operator
+ *
+ * @author José L. Risco-Martín
+ *
+ */
+public class SMSEMOA<T extends Variable<?>> extends Algorithm<T> {
+
+  private static final Logger logger = Logger.getLogger(SMSEMOA.class.getName());
+  /////////////////////////////////////////////////////////////////////////
+  protected int maxEvaluations;
+  protected int maxPopulationSize;
+  protected double offset = 1.0;
+  /////////////////////////////////////////////////////////////////////////
+  protected Comparator<Solution<T>> dominance;
+  protected int currentEvaluation;
+  protected Solutions<T> population;
+  // Contributions of population (same indexes) while it is a single front
+  protected HypervolumeContributions contributions;
+
+  protected MutationOperator<T> mutationOperator;
+  protected CrossoverOperator<T> crossoverOperator;
+  protected SelectionOperator<T> selectionOperator;
+
+  public SMSEMOA(Problem<T> problem, int maxPopulationSize, int maxEvaluations, MutationOperator<T> mutationOperator, CrossoverOperator<T> crossoverOperator, SelectionOperator<T> selectionOperator) {
+    super(problem);
+    setMaxPopulationSize(maxPopulationSize);
+    this.maxEvaluations = maxEvaluations;
+    this.mutationOperator = mutationOperator;
+    this.crossoverOperator = crossoverOperator;
+    this.selectionOperator = selectionOperator;
+  }
+
+  @Override
+  public void initialize() {
+    dominance = new SolutionDominance<T>();
+    population = problem.newRandomSetOfSolutions(maxPopulationSize);
+    problem.evaluate(population);
+    currentEvaluation = maxPopulationSize;
+    contributions = null;
+    if (new FrontsExtractor<T>(dominance).execute(population).size() == 1) {
+      track();
+    }
+  }
+
+  @Override
+  public Solutions<T> execute() {
+    int nextPercentageReport = 10;
+    while (currentEvaluation < maxEvaluations) {
+      step();
+      int percentage = Math.round((currentEvaluation * 100) / maxEvaluations);
+      if (percentage == nextPercentageReport) {
+        logger.info(percentage + "% performed ...");
+        nextPercentageReport += 10;
+      }
+    }
+    return this.getCurrentSolution();
+  }
+
+  /**
+   * @return The non-dominated solutions of the population.
+   */
+  @Override
+  public Solutions<T> getCurrentSolution() {
+    Solutions<T> solutions = new Solutions<T>();
+    solutions.addAll(population);
+    solutions.reduceToNonDominated(dominance);
+    return solutions;
+  }
+
+  /**
+   * The population may be modified afterwards, so contributions are not
+   * tracked any more: the next reduction starts again from the fronts.
+   */
+  @Override
+  public Solutions<T> getPopulation() {
+    contributions = null;
+    return population;
+  }
+
+  /**
+   * One steady-state iteration: one offspring is evaluated and one solution
+   * is removed.
+   *
+   * @throws IllegalStateException If the population was left with fewer than
+   * two solutions (through getPopulation()), since no evaluation could be
+   * counted and execute() would never end.
+   */
+  public void step() {
+    if (population.size() < 2) {
+      throw new IllegalStateException("Evaluation: " + currentEvaluation + ". Population size is less than 2.");
+    }
+    Solution<T> parent1 = selectionOperator.execute(population).get(0);
+    Solution<T> parent2 = selectionOperator.execute(population).get(0);
+    Solution<T> child = crossoverOperator.execute(parent1, parent2).get(0);
+    mutationOperator.execute(child);
+    problem.evaluate(child);
+    currentEvaluation++;
+    population.add(child);
+    reduce(child);
+  }
+
+  /**
+   * Removes one solution from the population, which holds the new child in
+   * its last position.
+   */
+  protected void reduce(Solution<T> child) {
+    if (contributions != null) {
+      int last = population.size() - 1;
+      int dominated = -1;
+      int numberOfDominated = 0;
+      for (int i = 0; i < last; ++i) {
+        Solution<T> member = population.get(i);
+        int compare = dominance.compare(member, child);
+        if (compare < 0 || (compare == 0 && sameObjectives(member, child))) {
+          // The child is the last front, or a copy that adds nothing
+          population.remove(last);
+          return;
+        }
+        if (compare > 0) {
+          dominated = i;
+          numberOfDominated++;
+        }
+      }
+      if (numberOfDominated <= 1) {
+        population.remove(last);
+        if (numberOfDominated == 1) {
+          // The dominated solution is the last front
+          remove(dominated);
+        }
+        population.add(child);
+        contributions.setReferencePoint(referencePoint(population));
+        contributions.add(getPoint(child));
+        if (numberOfDominated == 0) {
+          remove(contributions.getLeastContributor());
+        }
+        return;
+      }
+      contributions = null;
+    }
+
+    FrontsExtractor<T> extractor = new FrontsExtractor<T>(dominance);
+    ArrayList<Solutions<T>> fronts = extractor.execute(population);
+    Solutions<T> lastFront = fronts.get(fronts.size() - 1);
+    Solution<T> worst = lastFront.get(0);
+    if (lastFront.size() > 1) {
+      double[] values = Hypervolume.contributions(Hypervolume.toArray(lastFront, problem.getNumberOfObjectives()), referencePoint(lastFront));
+      int worstIndex = 0;
+      for (int i = 1; i < values.length; ++i) {
+        if (values[i] < values[worstIndex]) {
+          worstIndex = i;
+        }
+      }
+      worst = lastFront.get(worstIndex);
+    }
+    for (int i = population.size() - 1; i >= 0; --i) {
+      if (population.get(i) == worst) {
+        population.remove(i);
+        break;
+      }
+    }
+    if (fronts.size() == 1 || (fronts.size() == 2 && lastFront.size() == 1)) {
+      track();
+    }
+  }
+
+  /**
+   * Starts tracking contributions if the population, which must be one
+   * front, has no repeated points.
+   */
+  protected void track() {
+    int m = problem.getNumberOfObjectives();
+    double[][] points = Hypervolume.toArray(population, m);
+    double[][] sorted = points.clone();
+    Arrays.sort(sorted, new Comparator<double[]>() {
+      @Override
+      public int compare(double[] a, double[] b) {
+        for (int k = 0; k < a.length; ++k) {
+          int result = Double.compare(a[k], b[k]);
+          if (result != 0) {
+            return result;
+          }
+        }
+        return 0;
+      }
+    });
+    for (int i = 1; i < sorted.length; ++i) {
+      if (Arrays.equals(sorted[i - 1], sorted[i])) {
+        return;
+      }
+    }
+    contributions = new HypervolumeContributions(referencePoint(population));
+    for (double[] point : points) {
+      contributions.add(point);
+    }
+  }
+
+  /**
+   * Swap-removes solution i from the population and the contributions.
+   */
+  private void remove(int i) {
+    int last = population.size() - 1;
+    population.set(i, population.get(last));
+    population.remove(last);
+    contributions.remove(i);
+  }
+
+  private double[] referencePoint(Solutions<T> front) {
+    int m = problem.getNumberOfObjectives();
+    double[] reference = new double[m];
+    Arrays.fill(reference, Double.NEGATIVE_INFINITY);
+    for (Solution<T> solution : front) {
+      for (int k = 0; k < m; ++k) {
+        reference[k] = Math.max(reference[k], solution.getObjectiveValue(k));
+      }
+    }
+    for (int k = 0; k < m; ++k) {
+      reference[k] += offset;
+    }
+    return reference;
+  }
+
+  private double[] getPoint(Solution<T> solution) {
+    double[] point = new double[problem.getNumberOfObjectives()];
+    for (int k = 0; k < point.length; ++k) {
+      point[k] = solution.getObjectiveValue(k);
+    }
+    return point;
+  }
+
+  private boolean sameObjectives(Solution<T> s1, Solution<T> s2) {
+    for (int k = 0; k < problem.getNumberOfObjectives(); ++k) {
+      if (s1.getObjectiveValue(k) != s2.getObjectiveValue(k)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void setMutationOperator(MutationOperator<T> mutationOperator) {
+    this.mutationOperator = mutationOperator;
+  }
+
+  public void setCrossoverOperator(CrossoverOperator<T> crossoverOperator) {
+    this.crossoverOperator = crossoverOperator;
+  }
+
+  public void setSelectionOperator(SelectionOperator<T> selectionOperator) {
+    this.selectionOperator = selectionOperator;
+  }
+
+  public void setMaxEvaluations(int maxEvaluations) {
+    this.maxEvaluations = maxEvaluations;
+  }
+
+  /**
+   * @param maxPopulationSize At least 2, the number of parents of every
+   * offspring
+   */
+  public void setMaxPopulationSize(int maxPopulationSize) {
+    if (maxPopulationSize < 2) {
+      throw new IllegalArgumentException("The population size must be at least 2: " + maxPopulationSize);
+    }
+    this.maxPopulationSize = maxPopulationSize;
+  }
+
+  /**
+   * @param offset Distance from the worst point of the last front to the
+   * reference point, in every objective
+   */
+  public void setOffset(double offset) {
+    this.offset = offset;
+  }
+}
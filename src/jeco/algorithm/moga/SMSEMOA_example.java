@@ -0,0 +1,29 @@
+package jeco.algorithm.moga;
+
+import java.util.logging.Logger;
+
+import jeco.operator.crossover.SBXCrossover;
+import jeco.operator.mutation.PolynomialMutation;
+import jeco.operator.selection.BinaryTournament;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.problems.dtlz.DTLZ2;
+import jeco.util.logger.JecoLogger;
+
+public class SMSEMOA_example {
+	private static final Logger logger = Logger.getLogger(SMSEMOA_example.class.getName());
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		JecoLogger.setup();
+		// First create the problem
+		DTLZ2 problem = new DTLZ2(12);
+		// Second create the algorithm
+		SMSEMOA<Variable<Double>> algorithm = new SMSEMOA<Variable<Double>>(problem, 100, 25000, new PolynomialMutation<Variable<Double>>(problem), new SBXCrossover<Variable<Double>>(problem), new BinaryTournament<Variable<Double>>());
+		algorithm.initialize();
+		Solutions<Variable<Double>> solutions = algorithm.execute();
+		logger.info("solutions.size()="+ solutions.size());
+		System.out.println(solutions.toString());
+	}
+}
@@ -1,17 +1,17 @@
 package jeco.algorithm.moga;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 
 import jeco.algorithm.Algorithm;
-import jeco.operator.comparator.ArrayDominance;
+import jeco.operator.assigner.KdTree;
 import jeco.operator.comparator.PropertyComparator;
 import jeco.operator.comparator.SolutionDominance;
 import jeco.operator.crossover.CrossoverOperator;
 import jeco.operator.mutation.MutationOperator;
 import jeco.operator.selection.SelectionOperator;
+import jeco.problem.AttributeKey;
+import jeco.problem.DominanceMatrix;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
@@ -34,6 +34,8 @@ import jeco.problem.Variable;
  */
 public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
     /////////////////////////////////////////////////////////////////////////
+    public static final String propertyFitness = "fitness";
+    public static final AttributeKey attributeFitness = AttributeKey.FITNESS;
 
     protected int maxGenerations;
     protected int maxPopulationSize;
@@ -57,12 +59,21 @@ public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
     }
 
     public void initialize() {
+        initializeBatches();
+    }
+
+    @Override
+    protected Solutions<T> newInitialBatch() {
         dominance = new SolutionDominance<T>();
         K = (int) Math.sqrt(maxPopulationSize + maxPopulationSize);
         //Initialize the variables
         archive = new Solutions<T>();
         population = problem.newRandomSetOfSolutions(maxPopulationSize);
-        problem.evaluate(population);
+        return population;
+    }
+
+    @Override
+    protected void initialBatchEvaluated(Solutions<T> batch) {
         currentGeneration = 0;
     }
 
@@ -70,11 +81,37 @@ public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
         while (currentGeneration < maxGenerations) {
             step();
         }
+        return getCurrentSolution();
+    } // execute
+
+    /**
+     * @return The non-dominated solutions of the archive.
+     */
+    @Override
+    public Solutions<T> getCurrentSolution() {
         archive.reduceToNonDominated(dominance);
         return archive;
-    } // execute
+    }
+
+    /**
+     * @return The offspring of the last generation (the initial population
+     * at first). The archive is built from it in the next step.
+     */
+    @Override
+    public Solutions<T> getPopulation() {
+        return population;
+    }
 
     public void step() {
+        stepBatches();
+    }
+
+    /**
+     * Updates the archive and, unless it is the last generation, breeds the
+     * offspring from it.
+     */
+    @Override
+    protected Solutions<T> newBatch() {
         currentGeneration++;
 
         Solutions<T> union = new Solutions<T>();
@@ -90,116 +127,106 @@ public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
         }
 
         archive = unionReduced;
+        // Create a new offspringPopulation
+        Solutions<T> offSpringSolutionSet = new Solutions<T>();
         if (currentGeneration == maxGenerations) {
-            return;
+            return offSpringSolutionSet;
         }
 
-        // Create a new offspringPopulation
-        Solutions<T> offSpringSolutionSet = new Solutions<T>();
-        Solution<T> parent1, parent2;
-        while (offSpringSolutionSet.size() < maxPopulationSize) {
-            parent1 = selectionOperator.execute(archive).get(0);
-            parent2 = selectionOperator.execute(archive).get(0);
-            //make the crossover
-            Solutions<T> offSpring = crossoverOperator.execute(parent1, parent2);
-            // We only add one of the two children:
-            for (Solution<T> solution : offSpring) {
-                mutationOperator.execute(solution);
-                offSpringSolutionSet.add(solution);
-            }
-        } // while
-        problem.evaluate(offSpringSolutionSet);
+        return breedUntil(maxPopulationSize);
+    }
+
+    @Override
+    protected Solutions<T> newOffspring() {
+        Solution<T> parent1 = selectionOperator.execute(archive).get(0);
+        Solution<T> parent2 = selectionOperator.execute(archive).get(0);
+        //make the crossover
+        Solutions<T> offSpring = crossoverOperator.execute(parent1, parent2);
+        for (Solution<T> solution : offSpring) {
+            mutationOperator.execute(solution);
+        }
+        return offSpring;
+    }
+
+    @Override
+    protected void batchEvaluated(Solutions<T> offSpringSolutionSet) {
+        if (offSpringSolutionSet.isEmpty()) {
+            return;
+        }
         // End Create a offSpring solutionSet
         population = offSpringSolutionSet;
     }
 
+    /**
+     * Assigns SPEA2 fitness: raw fitness (sum of the strengths of the
+     * dominators) plus density. The dominance relation is computed once, as
+     * a bitset, and the density uses the distance to the K-th nearest
+     * neighbour, selected without sorting all the distances.
+     */
     public void assignFitness(Solutions<T> solutions) {
         int i, j, popSize = solutions.size();
         int strength[] = new int[popSize];
         int raw[] = new int[popSize];
-        double density[] = new double[popSize];
         double sigma;
-        Solution<T> solI;
-        int compare;
         double fitness;
 
-        for (i = 0; i < popSize; ++i) {
-            strength[i] = 0;
-            raw[i] = 0;
-            density[i] = 0;
+        DominanceMatrix relation;
+        if (dominance.getClass() == SolutionDominance.class) {
+            relation = DominanceMatrix.valueOf(solutions);
+        } else {
+            relation = DominanceMatrix.valueOf(solutions, dominance);
         }
 
         // Assigns strength
         for (i = 0; i < popSize; ++i) {
-            solI = solutions.get(i);
-            for (j = 0; j < popSize; ++j) {
-                if (i == j) {
-                    continue;
-                }
-                compare = dominance.compare(solI, solutions.get(j));
-                if (compare < 0) {
-                    strength[i]++;
-                }
-            }
+            strength[i] = relation.getNumberOfDominated(i);
         }
 
         // Assigns raw fitness
+        int words = relation.getNumberOfWords();
         for (i = 0; i < popSize; ++i) {
-            solI = solutions.get(i);
-            for (j = 0; j < popSize; ++j) {
-                if (i == j) {
-                    continue;
-                }
-                compare = dominance.compare(solI, solutions.get(j));
-                if (compare == 1 || compare == 2) {
-                    raw[i] += strength[j];
+            if (strength[i] == 0) {
+                continue;
+            }
+            for (int w = 0; w < words; ++w) {
+                long word = relation.getWord(i, w);
+                while (word != 0) {
+                    raw[(w << 6) + Long.numberOfTrailingZeros(word)] += strength[i];
+                    word &= word - 1;
                 }
             }
         }
 
         // Assigns density
+        int m = popSize == 0 ? 0 : solutions.get(0).getNumberOfObjectives();
+        KdTree index = KdTree.valueOf(solutions, m);
+        int[] neighbours = new int[K];
+        double[] distances = new double[K];
         for (i = 0; i < popSize; ++i) {
-            sigma = computeSigma(i, solutions);
-            density[i] = 1 / (sigma + 2);
-            fitness = raw[i] + density[i];
-            solutions.get(i).getProperties().put("fitness", fitness);
+            // K-th nearest neighbour (the solution itself excluded)
+            int count = index.nearest(i, K, neighbours, distances);
+            sigma = (count == 0) ? 0 : distances[count - 1];
+            fitness = raw[i] + 1 / (sigma + 2);
+            solutions.get(i).setDoubleAttribute(attributeFitness, fitness);
         }
     }
 
-    private double computeSigma(int i, Solutions<T> solutions) {
-        return computeSigmas(i, solutions).get(K);
-    }
-
     public double euclideanDistance(Solution<T> sol1, Solution<T> sol2) {
-        int nObjs = Math.min(sol1.getObjectives().size(), sol2.getObjectives().size());
+        int nObjs = Math.min(sol1.getNumberOfObjectives(), sol2.getNumberOfObjectives());
 
         double sum = 0;
         for (int i = 0; i < nObjs; i++) {
-            sum += ((sol1.getObjectives().get(i) - sol2.getObjectives().get(i)) * (sol1.getObjectives().get(i) - sol2.getObjectives().get(i)));
+            sum += ((sol1.getObjectiveValue(i) - sol2.getObjectiveValue(i)) * (sol1.getObjectiveValue(i) - sol2.getObjectiveValue(i)));
         }
         return Math.sqrt(sum);
     }
 
-    private ArrayList<Double> computeSigmas(int i, Solutions<T> solutions) {
-        int popSize = solutions.size();
-        int j;
-        double distance;
-        ArrayList<Double> distancesToI = new ArrayList<Double>();
-        Solution<T> solI = solutions.get(i);
-        for (j = 0; j < popSize; j++) {
-            distance = euclideanDistance(solI, solutions.get(j));
-            distancesToI.add(distance);
-        }
-        Collections.sort(distancesToI);
-        return distancesToI;
-    }
-
     public Solutions<T> reduceByFitness(Solutions<T> pop) {
         Solutions<T> result = new Solutions<T>();
         Solution<T> indI;
         for (int i = 0; i < pop.size(); ++i) {
             indI = pop.get(i);
-            if (indI.getProperties().get("fitness").doubleValue() < 1) {
+            if (indI.getDoubleAttribute(attributeFitness) < 1) {
                 result.add(indI);
             }
         }
@@ -209,10 +236,10 @@ public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
     public void expand(Solutions<T> pop, Solutions<T> all, int nElems) {
         int i = 0, count = 0, allSize = all.size();
         Solution<T> indI;
-        Collections.sort(all, new PropertyComparator<T>("fitness"));
+        Collections.sort(all, new PropertyComparator<T>(attributeFitness));
         for (i = 0; i < allSize; ++i) {
             indI = all.get(i);
-            if (indI.getProperties().get("fitness").doubleValue() >= 1) {
+            if (indI.getDoubleAttribute(attributeFitness) >= 1) {
                 pop.add(indI);
                 count++;
                 if (count == nElems) {
@@ -222,36 +249,36 @@ public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
         }
     }
 
+    /**
+     * SPEA2 archive truncation: iteratively removes the solution whose
+     * distances to the remaining ones, sorted increasingly, are
+     * lexicographically the smallest. Neighbour lists are obtained from a
+     * KD-tree, only as long as needed to break ties, and recomputed when one
+     * of their members is removed.
+     */
     public Solutions<T> reduce(Solutions<T> pop, int maxSize) {
-        int i, min;
-        ArrayList<ArrayList<Double>> allSigmas = new ArrayList<ArrayList<Double>>();
-        HashSet<Integer> erased = new HashSet<Integer>();
-        int toErase = pop.size() - maxSize;
-        ArrayDominance comparator = new ArrayDominance();
-
-        for (i = 0; i < pop.size(); i++) {
-            allSigmas.add(computeSigmas(i, pop));
-        }
-
-        while (erased.size() < toErase) {
-            min = 0;
-            while (erased.contains(min)) {
-                min++;
-            }
-            for (i = 0; i < pop.size(); i++) {
-                if (i == min || erased.contains(i)) {
+        int size = pop.size();
+        int toErase = size - maxSize;
+        KdTree index = KdTree.valueOf(pop, size == 0 ? 0 : pop.get(0).getNumberOfObjectives());
+        NeighbourLists lists = new NeighbourLists(index);
+
+        while (toErase-- > 0) {
+            lists.removals++;
+            int min = -1;
+            for (int i = 0; i < size; i++) {
+                if (index.isRemoved(i)) {
                     continue;
                 }
-                if (comparator.compare(allSigmas.get(i), allSigmas.get(min)) == -1) {
+                if (min < 0 || lists.compare(i, min) < 0) {
                     min = i;
                 }
             }
-            erased.add(min);
+            index.remove(min);
         }
 
         Solutions<T> result = new Solutions<T>();
-        for (i = 0; i < pop.size(); i++) {
-            if (!erased.contains(i)) {
+        for (int i = 0; i < size; i++) {
+            if (!index.isRemoved(i)) {
                 result.add(pop.get(i));
             }
         }
@@ -259,6 +286,72 @@ public class SPEA2<T extends Variable<?>> extends Algorithm<T> {
         return result;
     }
 
+    /**
+     * Prefixes of the sorted neighbour lists used by the truncation.
+     */
+    private static final class NeighbourLists {
+
+        private static final int INITIAL_LENGTH = 4;
+
+        private final KdTree index;
+        private final int[][] neighbours;
+        private final double[][] distances;
+        private final int[] lengths;
+        private final int[] checked;
+        private int removals = 0;
+
+        NeighbourLists(KdTree index) {
+            this.index = index;
+            int size = index.size();
+            neighbours = new int[size][];
+            distances = new double[size][];
+            lengths = new int[size];
+            checked = new int[size];
+        }
+
+        /**
+         * Lexicographic comparison of the sorted distances of i and j to the
+         * remaining solutions.
+         */
+        int compare(int i, int j) {
+            int length = index.getNumberOfAlive() - 1;
+            for (int l = 0; l < length; ++l) {
+                double distanceI = get(i, l);
+                double distanceJ = get(j, l);
+                if (distanceI < distanceJ) {
+                    return -1;
+                } else if (distanceI > distanceJ) {
+                    return 1;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return Distance from i to its l-th nearest remaining neighbour.
+         */
+        private double get(int i, int l) {
+            if (checked[i] != removals) {
+                checked[i] = removals;
+                for (int n = 0; n < lengths[i]; ++n) {
+                    if (index.isRemoved(neighbours[i][n])) {
+                        lengths[i] = 0;
+                        break;
+                    }
+                }
+            }
+            if (l >= lengths[i]) {
+                int k = Math.min(Math.max(INITIAL_LENGTH, 2 * (l + 1)), index.getNumberOfAlive() - 1);
+                if (neighbours[i] == null || neighbours[i].length < k) {
+                    neighbours[i] = new int[k];
+                    distances[i] = new double[k];
+                }
+                lengths[i] = index.nearest(i, k, neighbours[i], distances[i]);
+            }
+            return distances[i][l];
+        }
+    }
+
     public void setMutationOperator(MutationOperator<T> mutationOperator) {
         this.mutationOperator = mutationOperator;
     }
@@ -58,7 +58,7 @@ public abstract class AbstractProblemGE extends Problem<Variable<Integer>> {
 			evaluate(solution, phenotype);
 		else {
 			for(int i=0; i<super.numberOfObjectives; ++i) {
-				solution.getObjectives().set(i, Double.POSITIVE_INFINITY);
+				solution.setObjectiveValue(i, Double.POSITIVE_INFINITY);
 			}
 		}
 	}
@@ -0,0 +1,43 @@
+package jeco.algorithm.moge;
+
+import jeco.algorithm.moga.AsyncNSGAII;
+import jeco.operator.crossover.SinglePointCrossover;
+import jeco.operator.mutation.IntegerFlipMutation;
+import jeco.operator.selection.BinaryTournamentNSGAII;
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Variable;
+
+/**
+ * Multi-objective Grammatical Evolution Algorithm, asynchronous and
+ * steady-state (see <code>AsyncNSGAII</code>), with the operators of
+ * <code>GrammaticalEvolution</code>. Observers are notified every
+ * maxPopulationSize evaluations, with the number of evaluations divided by
+ * maxPopulationSize as generation.
+ *
+ * @author José L. Risco-Martín
+ *
+ */
+public class AsyncGrammaticalEvolution extends AsyncNSGAII<Variable<Integer>> {
+
+  public AsyncGrammaticalEvolution(Problem<Variable<Integer>> problem, int maxPopulationSize, int maxEvaluations, int numWorkers, double probMutation, double probCrossover) {
+    super(problem, maxPopulationSize, maxEvaluations, numWorkers,
+            new IntegerFlipMutation<Variable<Integer>>(problem, probMutation),
+            new SinglePointCrossover<Variable<Integer>>(problem, SinglePointCrossover.DEFAULT_FIXED_CROSSOVER_POINT, probCrossover, SinglePointCrossover.ALLOW_REPETITION),
+            new BinaryTournamentNSGAII<Variable<Integer>>());
+  }
+
+  public AsyncGrammaticalEvolution(Problem<Variable<Integer>> problem, int maxPopulationSize, int maxEvaluations, int numWorkers) {
+    this(problem, maxPopulationSize, maxEvaluations, numWorkers, 1.0 / problem.getNumberOfVariables(), SinglePointCrossover.DEFAULT_PROBABILITY);
+  }
+
+  @Override
+  protected synchronized void insert(Solution<Variable<Integer>> solution, long nanos) {
+    int previousGeneration = currentGeneration;
+    super.insert(solution, nanos);
+    if (currentGeneration != previousGeneration) {
+      this.setChanged();
+      this.notifyObservers(currentGeneration);
+    }
+  }
+}
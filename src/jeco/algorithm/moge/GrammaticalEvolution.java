@@ -38,6 +38,7 @@ public class GrammaticalEvolution extends Algorithm<Variable<Integer>> {
   protected Comparator<Solution<Variable<Integer>>> dominance;
   protected int currentGeneration;
   protected Solutions<Variable<Integer>> population;
+  protected CrowdingDistance<Variable<Integer>> crowdingDistance;
   public Solutions<Variable<Integer>> getPopulation() { return population; }
   protected MutationOperator<Variable<Integer>> mutationOperator;
   protected CrossoverOperator<Variable<Integer>> crossoverOperator;
@@ -58,13 +59,22 @@ public class GrammaticalEvolution extends Algorithm<Variable<Integer>> {
 
   @Override
   public void initialize() {
+      initializeBatches();
+  }
+
+  @Override
+  protected Solutions<Variable<Integer>> newInitialBatch() {
       dominance = new SolutionDominance<Variable<Integer>>();
       // Create the initial solutionSet
       population = problem.newRandomSetOfSolutions(maxPopulationSize);
-      problem.evaluate(population);
+      return population;
+  }
+
+  @Override
+  protected void initialBatchEvaluated(Solutions<Variable<Integer>> batch) {
       // Compute crowding distance
-      CrowdingDistance<Variable<Integer>> assigner = new CrowdingDistance<Variable<Integer>>(problem.getNumberOfObjectives());
-      assigner.execute(population);
+      crowdingDistance = new CrowdingDistance<Variable<Integer>>(problem.getNumberOfObjectives());
+      crowdingDistance.execute(population);
       currentGeneration = 0;
   }
 
@@ -80,7 +90,7 @@ public class GrammaticalEvolution extends Algorithm<Variable<Integer>> {
               // Print current population
               Solutions<Variable<Integer>> pop = this.getPopulation();
               for (Solution<Variable<Integer>> s : pop) {
-                  for (int i=0; i<s.getObjectives().size();i++) {
+                  for (int i=0; i<s.getNumberOfObjectives();i++) {
                       logger.fine(s.getObjective(i)+";");
                   }
               }
@@ -94,33 +104,46 @@ public class GrammaticalEvolution extends Algorithm<Variable<Integer>> {
       return this.getCurrentSolution();
   }
 
+  @Override
   public Solutions<Variable<Integer>> getCurrentSolution() {
       population.reduceToNonDominated(dominance);
       return population;
   }
 
   public void step() {
+      stepBatches();
+  } // step
+
+  @Override
+  protected Solutions<Variable<Integer>> newBatch() {
       currentGeneration++;
       // Create the offSpring solutionSet
+      Solutions<Variable<Integer>> childPop = new Solutions<Variable<Integer>>();
       if (population.size() < 2) {
           logger.severe("Generation: " + currentGeneration + ". Population size is less than 2.");
-          return;
+          return childPop;
       }
 
-      Solutions<Variable<Integer>> childPop = new Solutions<Variable<Integer>>();
-      Solution<Variable<Integer>> parent1, parent2;
-      for (int i = 0; i < (maxPopulationSize / 2); i++) {
-          //obtain parents
-          parent1 = selectionOperator.execute(population).get(0);
-          parent2 = selectionOperator.execute(population).get(0);
-          Solutions<Variable<Integer>> offSpring = crossoverOperator.execute(parent1, parent2);
-          for (Solution<Variable<Integer>> solution : offSpring) {
-              mutationOperator.execute(solution);
-              childPop.add(solution);
-          }
-      } // for
-      problem.evaluate(childPop);
+      return breed(maxPopulationSize / 2);
+  }
+
+  @Override
+  protected Solutions<Variable<Integer>> newOffspring() {
+      //obtain parents
+      Solution<Variable<Integer>> parent1 = selectionOperator.execute(population).get(0);
+      Solution<Variable<Integer>> parent2 = selectionOperator.execute(population).get(0);
+      Solutions<Variable<Integer>> offSpring = crossoverOperator.execute(parent1, parent2);
+      for (Solution<Variable<Integer>> solution : offSpring) {
+          mutationOperator.execute(solution);
+      }
+      return offSpring;
+  }
 
+  @Override
+  protected void batchEvaluated(Solutions<Variable<Integer>> childPop) {
+      if (childPop.isEmpty()) {
+          return;
+      }
       // Create the solutionSet union of solutionSet and offSpring
       Solutions<Variable<Integer>> mixedPop = new Solutions<Variable<Integer>>();
       mixedPop.addAll(population);
@@ -129,19 +152,18 @@ public class GrammaticalEvolution extends Algorithm<Variable<Integer>> {
       // Reducing the union
       population = reduce(mixedPop, maxPopulationSize);
       logger.fine("Generation " + currentGeneration + "/" + maxGenerations + "\n" + population.toString());
-  } // step
+  }
 
   public Solutions<Variable<Integer>> reduce(Solutions<Variable<Integer>> pop, int maxSize) {
       FrontsExtractor<Variable<Integer>> extractor = new FrontsExtractor<Variable<Integer>>(dominance);
       ArrayList<Solutions<Variable<Integer>>> fronts = extractor.execute(pop);
 
       Solutions<Variable<Integer>> reducedPop = new Solutions<Variable<Integer>>();
-      CrowdingDistance<Variable<Integer>> assigner = new CrowdingDistance<Variable<Integer>>(problem.getNumberOfObjectives());
       Solutions<Variable<Integer>> front;
       int i = 0;
       while (reducedPop.size() < maxSize && i < fronts.size()) {
           front = fronts.get(i);
-          assigner.execute(front);
+          crowdingDistance.execute(front);
           reducedPop.addAll(front);
           i++;
       }
@@ -55,8 +55,8 @@ public class GrammaticalEvolution_example extends AbstractProblemGE {
 			if(error>maxError)
 				maxError = error;
 		}
-		solution.getObjectives().set(0, maxError);
-		solution.getObjectives().set(1, totError);
+		solution.setObjectiveValue(0, maxError);
+		solution.setObjectiveValue(1, totError);
 	}	
 
   @Override
@@ -74,7 +74,7 @@ public class GrammaticalEvolution_example extends AbstractProblemGE {
 		algorithm.initialize();
 		Solutions<Variable<Integer>> solutions = algorithm.execute();
 		for (Solution<Variable<Integer>> solution : solutions) {
-			logger.info("Fitness = (" + solution.getObjectives().get(0) + ", " + solution.getObjectives().get(1) + ")");
+			logger.info("Fitness = (" + solution.getObjectiveValue(0) + ", " + solution.getObjectiveValue(1) + ")");
 			logger.info("Phenotype = (" + problem.generatePhenotype(solution).toString() + ")");
 		}
 	}		
@@ -0,0 +1,40 @@
+package jeco.algorithm.moge;
+
+import jeco.optimization.threads.CostPredictor;
+import jeco.problem.Solution;
+import jeco.problem.Variable;
+
+/**
+ * Cost predictor of grammatical evolution: the feature is the size of the
+ * phenotype (number of terminal symbols) instead of the genotype length,
+ * which is the same for every solution. Solutions that do not map to a
+ * complete phenotype are not evaluated, so their feature is 0. The
+ * problem must not be evaluating solutions in other threads (e.g. the
+ * master problem of <code>MasterWorkerThreads</code>, whose workers use
+ * clones).
+ *
+ * @author José L. Risco-Martín
+ */
+public class PhenotypeCostPredictor extends CostPredictor<Variable<Integer>> {
+
+	protected AbstractProblemGE problem;
+
+	public PhenotypeCostPredictor(AbstractProblemGE problem, double decay) {
+		super(decay);
+		this.problem = problem;
+	}
+
+	public PhenotypeCostPredictor(AbstractProblemGE problem) {
+		this(problem, DEFAULT_DECAY);
+	}
+
+	@Override
+	public double feature(Solution<Variable<Integer>> solution) {
+		Number hint = solution.getProperties().get(PROPERTY_COST_HINT);
+		if (hint != null) {
+			return hint.doubleValue();
+		}
+		Phenotype phenotype = problem.generatePhenotype(solution);
+		return problem.correctSol ? phenotype.size() : 0;
+	}
+}
@@ -10,6 +10,7 @@ import jeco.operator.assigner.CrowdingDistance;
 import jeco.operator.assigner.NicheCount;
 import jeco.operator.comparator.PropertyComparator;
 import jeco.operator.comparator.SolutionDominance;
+import jeco.problem.ParetoArchive;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
@@ -73,6 +74,8 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
     /** PSOList */
     protected Solutions<V> swarm;
     protected Solutions<V> leaders;
+    /** Non-dominated particles, leaders before truncation */
+    protected ParetoArchive<V> archive;
     /** Dominance operator */
     private SolutionDominance<V> dominance;
     private ArrayList<Solution<V>> personalBests;
@@ -81,6 +84,7 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
     protected boolean dynamicParameters = false;
     protected boolean dynamicVelocity = false;
     private double[] delta;
+    private CrowdingDistance<V> crowdingDistance;
 
     public NSPSO(Problem<V> problem, int numParticles, int maxIterations, double w, double c1, double c2, double chi, double topPartPercentage, String sortingMethod) {
         super(problem);
@@ -115,13 +119,15 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
 
     @Override
     public void initialize() {
+        crowdingDistance = new CrowdingDistance<V>(problem.getNumberOfObjectives());
         // Initialize the swarm
         swarm = problem.newRandomSetOfSolutions(swarmSize);
         problem.evaluate(swarm);
         leaders = new Solutions<V>();
+        archive = new ParetoArchive<V>();
         dominance = new SolutionDominance<V>();
         for (Solution<V> particle : swarm) {
-            leaders.add(particle.clone());
+            archive.addClone(particle);
         }
         reduceExternalArchive(2 * swarmSize);
 
@@ -179,13 +185,12 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
 
         // Add particles to the external archive
         for (int i = 0; i < swarmSize; i++) {
-            Solution<V> particle = swarm.get(i);
-            leaders.add(particle.clone());
+            archive.addClone(swarm.get(i));
         }
 
         // Add personal bests
         for (int i = 0; i < swarmSize; ++i) {
-            leaders.add(personalBests.get(i));
+            archive.add(personalBests.get(i));
         }
 
         reduceExternalArchive(2 * swarmSize);
@@ -198,16 +203,15 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
             return;
         }
         if (sortingMethod.indexOf("CROWDING_DISTANCE") == 0) {
-            CrowdingDistance<V> assigner = new CrowdingDistance<V>(problem.getNumberOfObjectives());
-            assigner.execute(leaders);
-            Collections.sort(leaders, new PropertyComparator<V>(CrowdingDistance.propertyCrowdingDistance));
+            crowdingDistance.execute(leaders);
+            Collections.sort(leaders, new PropertyComparator<V>(CrowdingDistance.attributeCrowdingDistance));
             if (dynamicParameters) {
-                assigner.execute(swarm);
+                crowdingDistance.execute(swarm);
             }
         } else if (sortingMethod.indexOf("NICHE_COUNT") == 0) {
             NicheCount<V> assigner = new NicheCount<V>(problem.getNumberOfObjectives());
             assigner.execute(leaders);
-            Collections.sort(leaders, new PropertyComparator<V>(NicheCount.propertyNicheCount));
+            Collections.sort(leaders, new PropertyComparator<V>(NicheCount.attributeNicheCount));
         } else {
             logger.severe("Sorting method not propertly defined: " + sortingMethod);
         }
@@ -232,7 +236,7 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
             r1 = RandomGenerator.nextDouble();
             r2 = RandomGenerator.nextDouble();
             if (dynamicParameters) {
-                cd = particle.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue();
+                cd = particle.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance);
                 if (cd > 1.0) {
                     cd = 1.0;
                 }
@@ -286,20 +290,19 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
     } // computeNewPositions
 
     public void reduceExternalArchive(int maxSize) {
-        leaders.reduceToNonDominated(dominance);
+        leaders = archive.getSolutions();
         if (leaders.size() <= maxSize) {
             return;
         }
 
         if (sortingMethod.indexOf("CROWDING_DISTANCE") == 0) {
-            CrowdingDistance<V> assigner = new CrowdingDistance<V>(problem.getNumberOfObjectives());
-            assigner.execute(leaders);
-            Collections.sort(leaders, new PropertyComparator<V>(CrowdingDistance.propertyCrowdingDistance));
+            crowdingDistance.execute(leaders);
+            Collections.sort(leaders, new PropertyComparator<V>(CrowdingDistance.attributeCrowdingDistance));
 
         } else if (sortingMethod.indexOf("NICHE_COUNT") == 0) {
             NicheCount<V> assigner = new NicheCount<V>(problem.getNumberOfObjectives());
             assigner.execute(leaders);
-            Collections.sort(leaders, new PropertyComparator<V>(NicheCount.propertyNicheCount));
+            Collections.sort(leaders, new PropertyComparator<V>(NicheCount.attributeNicheCount));
 
         } else {
             logger.severe("Sorting method not propertly defined: " + sortingMethod);
@@ -324,6 +327,8 @@ public class NSPSO<V extends Variable<Double>> extends Algorithm<V> {
             }
 
         }
+        archive.clear();
+        archive.addAll(leaders);
     }
 
     public void setMaxT(int maxT) {
@@ -1,6 +1,5 @@
 package jeco.algorithm.mopso;
 
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.logging.Logger;
 import javax.management.JMException;
@@ -10,6 +9,9 @@ import jeco.operator.comparator.PropertyComparator;
 import jeco.operator.comparator.SolutionDominance;
 import jeco.operator.mutation.NonUniformMutation;
 import jeco.operator.mutation.UniformMutation;
+import jeco.operator.reduction.CrowdingDistancePruning;
+import jeco.problem.EpsilonBoxArchive;
+import jeco.problem.ParetoArchive;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
@@ -36,15 +38,16 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
     protected Solutions<V> swarm;
     private Solutions<V> personalBests;
     protected Solutions<V> leaders;
-    //private Solutions externalArchive;
-    //private Comparator<Solution> epsilonComparator;
+    protected ParetoArchive<V> archive;
+    /** Epsilon-box archive of the particles, returned if epsilons are set */
+    protected EpsilonBoxArchive<V> externalArchive = null;
+    protected double[] epsilons = null;
     private double[][] speeds;
     private SolutionDominance<V> objectivesComparator;
     private Comparator<Solution<V>> crowdingDistanceComparator;
     private CrowdingDistance<V> crowdingDistanceAssigner;
     private UniformMutation<V> uniformMutation;
     private NonUniformMutation<V> nonUniformMutation;
-    //private double eta = 0.0075;
 
     // For testing purposes
     protected boolean dynamicVelocity = false;
@@ -66,6 +69,11 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
      */
     @Override
     public void initialize() {
+        initializeBatches();
+    } // initialize
+
+    @Override
+    protected Solutions<V> newInitialBatch() {
 
         swarm =  problem.newRandomSetOfSolutions(swarmSize);
         personalBests = new Solutions<V>();
@@ -73,10 +81,12 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
             personalBests.add(swarm.get(i).clone());
         }
         leaders = new Solutions<V>();
+        archive = new ParetoArchive<V>(swarmSize, new CrowdingDistancePruning<V>(problem.getNumberOfObjectives()));
+        externalArchive = epsilons != null ? new EpsilonBoxArchive<V>(epsilons) : null;
 
         // Create the dominator for equadless and dominance
         objectivesComparator = new SolutionDominance<V>();
-        crowdingDistanceComparator = new PropertyComparator<V>(CrowdingDistance.propertyCrowdingDistance);
+        crowdingDistanceComparator = new PropertyComparator<V>(CrowdingDistance.attributeCrowdingDistance);
         crowdingDistanceAssigner = new CrowdingDistance<V>(problem.getNumberOfObjectives());
 
         // Create the speed_ vector
@@ -94,8 +104,11 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
 
         t = 0;
         //->Step 1 (and 3) Evaluate initial population
-        problem.evaluate(swarm);
+        return swarm;
+    }
 
+    @Override
+    protected void initialBatchEvaluated(Solutions<V> batch) {
         //-> Step2. Initialize the speed_ of each particle to 0
         for (int i = 0; i < swarmSize; i++) {
             for (int j = 0; j < problem.getNumberOfVariables(); j++) {
@@ -106,12 +119,13 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
 
         // Step4 and 5
         for (Solution<V> particle : swarm) {
-            leaders.add(particle.clone());
-            //externalArchive.add(new Solution(particle));
+            archive.addClone(particle);
+            if (externalArchive != null) {
+                externalArchive.addClone(particle);
+            }
         }
 
         reduceLeaders();
-        //externalArchive.keepParetoNonDominated(epsilonComparator);
 
         //-> Step 6. Initialize the memory of each particle
         for (int i = 0; i < swarm.size(); ++i) {
@@ -121,18 +135,11 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
         //Crowding the leaders
         //crowdingDistanceAssigner.execute(leaders);
 
-    } // initialize
+    }
 
     public void reduceLeaders() {
-        leaders.reduceToNonDominated(objectivesComparator);
-        if (leaders.size() <= swarmSize) {
-            return;
-        }
-        crowdingDistanceAssigner.execute(leaders);
-        Collections.sort(leaders, crowdingDistanceComparator);
-        while (leaders.size() > swarmSize) {
-            leaders.remove(0);
-        }
+        archive.prune();
+        leaders = archive.getSolutions();
     }
 
     /**
@@ -253,12 +260,19 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
             }
         }
 
-        return leaders;
-        //return eArchive_;
+        return externalArchive != null ? externalArchive.getSolutions() : leaders;
     } // execute
 
     @Override
     public void step() {
+        stepBatches();
+    }
+
+    /**
+     * Moves and mutates the particles, which are evaluated in place.
+     */
+    @Override
+    protected Solutions<V> newBatch() {
         t++;
 
         //Compute the speed_
@@ -271,8 +285,11 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
         mopsoMutation(t);
 
         //Evaluate the new particles_ in new positions
-        problem.evaluate(swarm);
+        return swarm;
+    }
 
+    @Override
+    protected void batchEvaluated(Solutions<V> batch) {
         //Actualize the memory of this particle
         for (int i = 0; i < swarm.size(); i++) {
             int flag = objectivesComparator.compare(swarm.get(i), personalBests.get(i));
@@ -285,12 +302,12 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
 
         //Actualize the archive
         for (int i = 0; i < swarm.size(); i++) {
-            Solution<V> particle = swarm.get(i).clone();
-            leaders.add(particle);
-            //externalArchive.add(new Solution(particle));
+            archive.addClone(swarm.get(i));
+            if (externalArchive != null) {
+                externalArchive.addClone(swarm.get(i));
+            }
         }
         reduceLeaders();
-        //externalArchive.keepParetoNonDominated(epsilonComparator);
 
         //Crowding the leaders_
         //crowdingDistanceAssigner.execute(leaders);
@@ -304,4 +321,18 @@ public class OMOPSO<V extends Variable<Double>> extends Algorithm<V> {
     public void setMaxT(int maxT) {
         this.maxT = maxT;
     }
+
+    /**
+     * Keeps every particle in an epsilon-box archive, which execute() returns
+     * instead of the leaders. Must be set before initialize().
+     *
+     * @param epsilons Box size of each objective, or null to disable it
+     */
+    public void setEpsilons(double[] epsilons) {
+        this.epsilons = epsilons;
+    }
+
+    public EpsilonBoxArchive<V> getExternalArchive() {
+        return externalArchive;
+    }
 } // OMOPSO
@@ -30,7 +30,7 @@ public class SimulatedAnnealing_example {
         algorithm.initialize();
         Solutions<Variable<Double>> solutions = algorithm.execute();
         for (Solution<Variable<Double>> solution : solutions) {
-            logger.log(Level.INFO, "Fitness = " + solution.getObjectives().get(0));
+            logger.log(Level.INFO, "Fitness = " + solution.getObjectiveValue(0));
         }
     }
 }
@@ -1,66 +1,245 @@
 package jeco.operator.assigner;
 
-import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import jeco.operator.comparator.ObjectiveComparator;
+import jeco.problem.AttributeKey;
 import jeco.problem.Solutions;
 import jeco.problem.Variable;
 
+/**
+ * Crowding distance assigner. Objective values are copied once into one
+ * column per objective, solutions are sorted as index arrays and distances
+ * are accumulated in a primitive array, so assigning a front does not
+ * allocate once the buffers are big enough. Buffers are reused across calls,
+ * so an instance must not be shared between threads.
+ *
+ * If a pool is given, objectives of large fronts are processed in parallel.
+ * Sorting objective i by objectives i, i-1, ..., 0 gives the same order as
+ * sorting by objective 0, 1, ..., i one after the other with a stable sort,
+ * so parallel and sequential distances are identical.
+ */
 public class CrowdingDistance<V extends Variable<?>> {
 
+    /**
+     * Minimum front size to process the objectives in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 1000;
+
     protected int numberOfObjectives;
+    protected ForkJoinPool pool;
     public static final String propertyCrowdingDistance = "crowdingDistance";
+    public static final AttributeKey attributeCrowdingDistance = AttributeKey.CROWDING_DISTANCE;
 
-    public CrowdingDistance(int numberOfObjectives) {
+    // columns[i][j]: objective i of solution j
+    protected double[][] columns;
+    // orders[i]: solutions sorted by objective i (only orders[0] if sequential)
+    protected int[][] orders;
+    protected int[][] buffers;
+    // contributions[i][j]: distance added by objective i to solution j (parallel)
+    protected double[][] contributions;
+    protected double[] distances;
+
+    public CrowdingDistance(int numberOfObjectives, ForkJoinPool pool) {
         this.numberOfObjectives = numberOfObjectives;
+        this.pool = pool;
+        columns = new double[numberOfObjectives][0];
+        orders = new int[numberOfObjectives][0];
+        buffers = new int[numberOfObjectives][0];
+        contributions = new double[numberOfObjectives][0];
+        distances = new double[0];
     }
 
-    public Solutions<V> execute(Solutions<V> arg) {
-        Solutions<V> solutions = new Solutions<V>();
-        solutions.addAll(arg);
+    public CrowdingDistance(int numberOfObjectives) {
+        this(numberOfObjectives, null);
+    }
 
+    /**
+     * Assigns the crowding distance of every solution.
+     *
+     * @param solutions Front
+     * @return The same front, unchanged in order.
+     */
+    public Solutions<V> execute(Solutions<V> solutions) {
         int size = solutions.size();
         if (size == 0) {
             return solutions;
         }
 
-        if (size == 1) {
-            solutions.get(0).getProperties().put(propertyCrowdingDistance, Double.POSITIVE_INFINITY);
+        if (size <= 2) {
+            for (int j = 0; j < size; ++j) {
+                solutions.get(j).setDoubleAttribute(attributeCrowdingDistance, Double.POSITIVE_INFINITY);
+            }
             return solutions;
         } // if
 
-        if (size == 2) {
-            solutions.get(0).getProperties().put(propertyCrowdingDistance, Double.POSITIVE_INFINITY);
-            solutions.get(1).getProperties().put(propertyCrowdingDistance, Double.POSITIVE_INFINITY);
-            return solutions;
-        } // if
-
-        for (int i = 0; i < size; ++i) {
-            solutions.get(i).getProperties().put(propertyCrowdingDistance, 0.0);
+        boolean parallel = pool != null && numberOfObjectives > 1 && size >= PARALLEL_THRESHOLD;
+        ensureCapacity(size, parallel);
+        for (int j = 0; j < size; ++j) {
+            for (int i = 0; i < numberOfObjectives; ++i) {
+                columns[i][j] = solutions.get(j).getObjectiveValue(i);
+            }
+            distances[j] = 0.0;
         }
 
-        double objetiveMaxn;
-        double objetiveMinn;
-        double distance = 0.0;
-
-        for (int i = 0; i < numberOfObjectives; ++i) {
-            // Sort the population by objective i
-            Collections.sort(solutions, new ObjectiveComparator<V>(i));
-            objetiveMinn = solutions.get(0).getObjectives().get(i);
-            objetiveMaxn = solutions.get(size - 1).getObjectives().get(i);
+        if (parallel) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    RecursiveAction[] tasks = new RecursiveAction[numberOfObjectives];
+                    for (int i = 0; i < numberOfObjectives; ++i) {
+                        tasks[i] = new ObjectiveTask(i, size);
+                    }
+                    invokeAll(tasks);
+                }
+            });
+            // Merge in objective order: a boundary solution is reset to
+            // infinity, the rest accumulate.
+            for (int i = 0; i < numberOfObjectives; ++i) {
+                double[] contribution = contributions[i];
+                int first = orders[i][0];
+                int last = orders[i][size - 1];
+                for (int j = 0; j < size; ++j) {
+                    if (j == first || j == last) {
+                        distances[j] = Double.POSITIVE_INFINITY;
+                    } else {
+                        distances[j] += contribution[j];
+                    }
+                }
+            }
+        } else {
+            int[] order = orders[0];
+            for (int j = 0; j < size; ++j) {
+                order[j] = j;
+            }
+            for (int i = 0; i < numberOfObjectives; ++i) {
+                // Sort the population by objective i
+                sort(order, buffers[0], 0, size, i, i);
+                double[] column = columns[i];
+                double objetiveMinn = column[order[0]];
+                double objetiveMaxn = column[order[size - 1]];
 
-            //Set the crowding distance
-            solutions.get(0).getProperties().put(propertyCrowdingDistance, Double.POSITIVE_INFINITY);
-            solutions.get(size - 1).getProperties().put(propertyCrowdingDistance, Double.POSITIVE_INFINITY);
+                //Set the crowding distance
+                distances[order[0]] = Double.POSITIVE_INFINITY;
+                distances[order[size - 1]] = Double.POSITIVE_INFINITY;
 
-            for (int j = 1; j < size - 1; j++) {
-                distance = solutions.get(j + 1).getObjectives().get(i) - solutions.get(j - 1).getObjectives().get(i);
-                distance = distance / (objetiveMaxn - objetiveMinn);
-                distance += solutions.get(j).getProperties().get(propertyCrowdingDistance).doubleValue();
-                solutions.get(j).getProperties().put(propertyCrowdingDistance, distance);
+                for (int j = 1; j < size - 1; j++) {
+                    double distance = column[order[j + 1]] - column[order[j - 1]];
+                    distances[order[j]] += distance / (objetiveMaxn - objetiveMinn);
+                } // for
             } // for
-        } // for
+        }
 
+        for (int j = 0; j < size; ++j) {
+            solutions.get(j).setDoubleAttribute(attributeCrowdingDistance, distances[j]);
+        }
         return solutions;
     }
+
+    protected void ensureCapacity(int size, boolean parallel) {
+        if (distances.length < size) {
+            for (int i = 0; i < numberOfObjectives; ++i) {
+                columns[i] = new double[size];
+            }
+            distances = new double[size];
+            orders[0] = new int[size];
+            buffers[0] = new int[size];
+        }
+        if (parallel && contributions[0].length < size) {
+            for (int i = 0; i < numberOfObjectives; ++i) {
+                orders[i] = new int[size];
+                buffers[i] = new int[size];
+                contributions[i] = new double[size];
+            }
+        }
+    }
+
+    /**
+     * Stable merge sort of order[from..to-1] by objectives obj, obj-1, ...,
+     * lowest (lexicographically).
+     */
+    protected void sort(int[] order, int[] buffer, int from, int to, int obj, int lowest) {
+        if (to - from < 2) {
+            return;
+        }
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; ++i) {
+                int x = order[i];
+                int j = i - 1;
+                while (j >= from && compare(order[j], x, obj, lowest) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = x;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(order, buffer, from, mid, obj, lowest);
+        sort(order, buffer, mid, to, obj, lowest);
+        if (compare(order[mid - 1], order[mid], obj, lowest) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            if (compare(buffer[j], buffer[i], obj, lowest) < 0) {
+                order[k++] = buffer[j++];
+            } else {
+                order[k++] = buffer[i++];
+            }
+        }
+        while (i < mid) {
+            order[k++] = buffer[i++];
+        }
+        while (j < to) {
+            order[k++] = buffer[j++];
+        }
+    }
+
+    private int compare(int a, int b, int obj, int lowest) {
+        for (int i = obj; i >= lowest; --i) {
+            double valueA = columns[i][a];
+            double valueB = columns[i][b];
+            if (valueA < valueB) {
+                return -1;
+            } else if (valueA > valueB) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sorts the front by one objective and computes its contributions.
+     */
+    private final class ObjectiveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int obj;
+        private final int size;
+
+        ObjectiveTask(int obj, int size) {
+            this.obj = obj;
+            this.size = size;
+        }
+
+        @Override
+        protected void compute() {
+            int[] order = orders[obj];
+            for (int j = 0; j < size; ++j) {
+                order[j] = j;
+            }
+            sort(order, buffers[obj], 0, size, obj, 0);
+            double[] column = columns[obj];
+            double[] contribution = contributions[obj];
+            double objetiveMinn = column[order[0]];
+            double objetiveMaxn = column[order[size - 1]];
+            for (int j = 1; j < size - 1; j++) {
+                double distance = column[order[j + 1]] - column[order[j - 1]];
+                contribution[order[j]] = distance / (objetiveMaxn - objetiveMinn);
+            }
+        }
+    }
 }
@@ -0,0 +1,409 @@
+package jeco.operator.assigner;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.Maths;
+
+/**
+ * Divide-and-conquer non-dominated sorting, O(n log^(M-1) n). Points are split
+ * recursively by the median of the last objective; fronts are propagated
+ * from the lower half to the upper half with a helper procedure that works
+ * with one objective less, down to two-objective sweeps.
+ *
+ * M. T. Jensen. Reducing the run-time complexity of multiobjective EAs: The
+ * NSGA-II and other algorithms. IEEE Transactions on Evolutionary
+ * Computation, 7(5), 503-515, 2003.
+ *
+ * F.-A. Fortin, S. Grenier, M. Parizeau. Generalizing the improved run-time
+ * complexity algorithm for non-dominated sorting. GECCO 2013, 615-622.
+ *
+ * Only valid for Pareto dominance (<code>SolutionDominance</code>).
+ *
+ * A sorter keeps no state between calls (see Sorting), so it can be shared
+ * by several threads.
+ *
+ * When a pool is given, the two independent halves of every large helperB
+ * call run as fork/join tasks. Each task only raises the fronts of its own
+ * (disjoint) upper set, so the result is the same as the sequential one.
+ *
+ * @author José L. Risco-Martín
+ */
+public class DivideAndConquerNonDominatedSorting<V extends Variable<?>> extends NonDominatedSorting<V> {
+
+  /**
+   * Below this number of pairs, helperB compares every pair.
+   */
+  protected static final int BRUTE_FORCE_PAIRS = 64;
+  /**
+   * Minimum number of points (both sets) for helperB to fork.
+   */
+  public static final int PARALLEL_GRANULARITY = 1024;
+
+  protected ForkJoinPool pool;
+
+  public DivideAndConquerNonDominatedSorting(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  public DivideAndConquerNonDominatedSorting() {
+    this(null);
+  }
+
+  @Override
+  public int[] sort(Solutions<V> solutions) {
+    return sort(getObjectiveMatrix(solutions));
+  }
+
+  public int[] sort(double[][] points) {
+    int n = points.length;
+    int[] result = new int[n];
+    if (n == 0) {
+      return result;
+    }
+    int m = points[0].length;
+    int[] order = lexicographicOrder(points, m);
+
+    // Duplicated objective vectors share their front: sort only one copy.
+    int[] representative = new int[n];
+    int[] unique = new int[n];
+    int numberOfUnique = 0;
+    for (int o = 0; o < n; ++o) {
+      int idx = order[o];
+      if (numberOfUnique > 0 && compareLexicographically(points[unique[numberOfUnique - 1]], points[idx], m) == 0) {
+        representative[idx] = unique[numberOfUnique - 1];
+      } else {
+        representative[idx] = idx;
+        unique[numberOfUnique++] = idx;
+      }
+    }
+
+    final Sorting sorting = new Sorting(points, result);
+    final int[] s = copyOf(unique, numberOfUnique);
+    if (pool != null && numberOfUnique >= PARALLEL_GRANULARITY) {
+      pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          sorting.helperA(s, m - 1);
+        }
+      });
+    } else {
+      sorting.helperA(s, m - 1);
+    }
+    for (int i = 0; i < n; ++i) {
+      result[i] = result[representative[i]];
+    }
+    return result;
+  }
+
+  /**
+   * @return Number of values lower than or equal to key.
+   */
+  private static int upperBound(double[] values, double key) {
+    int lo = 0, hi = values.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (values[mid] <= key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static int[] concat(int[] a, int[] b) {
+    int[] result = new int[a.length + b.length];
+    System.arraycopy(a, 0, result, 0, a.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  private static int[] copyOf(int[] a, int length) {
+    int[] result = new int[length];
+    System.arraycopy(a, 0, result, 0, length);
+    return result;
+  }
+
+  /**
+   * State of one call to sort(): the points and their fronts. Every call
+   * has its own, so one sorter can be used by several threads at once.
+   */
+  protected class Sorting {
+
+    protected final double[][] points;
+    protected final int[] ranks;
+
+    protected Sorting(double[][] points, int[] ranks) {
+      this.points = points;
+      this.ranks = ranks;
+    }
+
+    /**
+     * Assigns fronts inside set s. All the points in s have the same values in
+     * objectives k+1..M-1, so only objectives 0..k are relevant.
+     */
+    protected void helperA(int[] s, int k) {
+      int n = s.length;
+      if (n < 2) {
+        return;
+      }
+      if (n == 2) {
+        if (weaklyDominates(points[s[0]], points[s[1]], k + 1)) {
+          update(s[0], s[1]);
+        } else if (weaklyDominates(points[s[1]], points[s[0]], k + 1)) {
+          update(s[1], s[0]);
+        }
+        return;
+      }
+      if (k == 0) {
+        sortLexicographically(s, points, 1);
+        for (int i = 1; i < n; ++i) {
+          update(s[i - 1], s[i]);
+        }
+        return;
+      }
+      if (k == 1) {
+        sweepA(s);
+        return;
+      }
+      double pivot = median(s, k);
+      int[][] parts = split(s, k, pivot);
+      int[] less = parts[0], equal = parts[1], greater = parts[2];
+      helperA(less, k);
+      helperB(less, equal, k - 1);
+      helperA(equal, k - 1);
+      helperB(concat(less, equal), greater, k - 1);
+      helperA(greater, k);
+    }
+
+    /**
+     * Propagates fronts from set l to set h. Every point in l is lower than or
+     * equal to every point in h in objectives k+1..M-1, so h is dominated by l
+     * where l is lower than or equal in objectives 0..k.
+     */
+    protected void helperB(int[] l, int[] h, int k) {
+      if (l.length == 0 || h.length == 0) {
+        return;
+      }
+      if ((long) l.length * h.length <= BRUTE_FORCE_PAIRS || l.length == 1 || h.length == 1) {
+        for (int j = 0; j < h.length; ++j) {
+          double[] pointH = points[h[j]];
+          for (int i = 0; i < l.length; ++i) {
+            if (weaklyDominates(points[l[i]], pointH, k + 1)) {
+              update(l[i], h[j]);
+            }
+          }
+        }
+        return;
+      }
+      if (k == 0) {
+        sweepB1(l, h);
+        return;
+      }
+      if (k == 1) {
+        sweepB2(l, h);
+        return;
+      }
+      double minL = Double.POSITIVE_INFINITY, maxL = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < l.length; ++i) {
+        double value = points[l[i]][k];
+        minL = Math.min(minL, value);
+        maxL = Math.max(maxL, value);
+      }
+      double minH = Double.POSITIVE_INFINITY, maxH = Double.NEGATIVE_INFINITY;
+      for (int j = 0; j < h.length; ++j) {
+        double value = points[h[j]][k];
+        minH = Math.min(minH, value);
+        maxH = Math.max(maxH, value);
+      }
+      if (minL > maxH) {
+        return;
+      }
+      if (maxL <= minH) {
+        helperB(l, h, k - 1);
+        return;
+      }
+      double pivot = median(concat(l, h), k);
+      int[][] partsL = split(l, k, pivot);
+      int[][] partsH = split(h, k, pivot);
+      int[] lowerL = concat(partsL[0], partsL[1]);
+      int[] upperH = concat(partsH[1], partsH[2]);
+      // The lower and upper halves write disjoint sets and can run at the same
+      // time; the cross call writes the upper half again, so it goes last.
+      if (pool != null && l.length + h.length >= PARALLEL_GRANULARITY) {
+        RecursiveAction.invokeAll(new HelperB(partsL[0], partsH[0], k), new HelperB(partsL[2], partsH[2], k));
+      } else {
+        helperB(partsL[0], partsH[0], k);
+        helperB(partsL[2], partsH[2], k);
+      }
+      helperB(lowerL, upperH, k - 1);
+    }
+
+    /**
+     * Two objectives inside one set: visit the points in lexicographic order
+     * and look for the highest front among the visited points with lower or
+     * equal second objective.
+     */
+    protected void sweepA(int[] s) {
+      sortLexicographically(s, points, 2);
+      double[] ys = sortedValues(s, 1);
+      MaxTree tree = new MaxTree(ys.length);
+      for (int i = 0; i < s.length; ++i) {
+        int idx = s[i];
+        int pos = upperBound(ys, points[idx][1]);
+        int best = tree.query(pos);
+        if (best >= 0 && best + 1 > ranks[idx]) {
+          ranks[idx] = best + 1;
+        }
+        tree.update(pos - 1, ranks[idx]);
+      }
+    }
+
+    /**
+     * One objective between two sets.
+     */
+    protected void sweepB1(int[] l, int[] h) {
+      sortLexicographically(l, points, 1);
+      sortLexicographically(h, points, 1);
+      int best = -1;
+      int i = 0;
+      for (int j = 0; j < h.length; ++j) {
+        double value = points[h[j]][0];
+        while (i < l.length && points[l[i]][0] <= value) {
+          best = Math.max(best, ranks[l[i]]);
+          i++;
+        }
+        if (best >= 0 && best + 1 > ranks[h[j]]) {
+          ranks[h[j]] = best + 1;
+        }
+      }
+    }
+
+    /**
+     * Two objectives between two sets.
+     */
+    protected void sweepB2(int[] l, int[] h) {
+      sortLexicographically(l, points, 2);
+      sortLexicographically(h, points, 2);
+      double[] ys = sortedValues(l, 1);
+      MaxTree tree = new MaxTree(ys.length);
+      int i = 0;
+      for (int j = 0; j < h.length; ++j) {
+        double[] pointH = points[h[j]];
+        while (i < l.length && points[l[i]][0] <= pointH[0]) {
+          tree.update(upperBound(ys, points[l[i]][1]) - 1, ranks[l[i]]);
+          i++;
+        }
+        int best = tree.query(upperBound(ys, pointH[1]));
+        if (best >= 0 && best + 1 > ranks[h[j]]) {
+          ranks[h[j]] = best + 1;
+        }
+      }
+    }
+
+    private void update(int dominating, int dominated) {
+      if (ranks[dominating] + 1 > ranks[dominated]) {
+        ranks[dominated] = ranks[dominating] + 1;
+      }
+    }
+
+    private double median(int[] s, int k) {
+      double[] values = new double[s.length];
+      for (int i = 0; i < s.length; ++i) {
+        values[i] = points[s[i]][k];
+      }
+      return Maths.select(values, s.length / 2);
+    }
+
+    private int[][] split(int[] s, int k, double pivot) {
+      int numberOfLess = 0, numberOfEqual = 0;
+      for (int i = 0; i < s.length; ++i) {
+        double value = points[s[i]][k];
+        if (value < pivot) {
+          numberOfLess++;
+        } else if (value == pivot) {
+          numberOfEqual++;
+        }
+      }
+      int[] less = new int[numberOfLess];
+      int[] equal = new int[numberOfEqual];
+      int[] greater = new int[s.length - numberOfLess - numberOfEqual];
+      int a = 0, b = 0, c = 0;
+      for (int i = 0; i < s.length; ++i) {
+        double value = points[s[i]][k];
+        if (value < pivot) {
+          less[a++] = s[i];
+        } else if (value == pivot) {
+          equal[b++] = s[i];
+        } else {
+          greater[c++] = s[i];
+        }
+      }
+      return new int[][]{less, equal, greater};
+    }
+
+    private double[] sortedValues(int[] s, int k) {
+      double[] values = new double[s.length];
+      for (int i = 0; i < s.length; ++i) {
+        values[i] = points[s[i]][k];
+      }
+      Arrays.sort(values);
+      return values;
+    }
+
+    private final class HelperB extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final int[] l, h;
+      private final int k;
+
+      HelperB(int[] l, int[] h, int k) {
+        this.l = l;
+        this.h = h;
+        this.k = k;
+      }
+
+      @Override
+      protected void compute() {
+        helperB(l, h, k);
+      }
+    }
+  }
+
+  /**
+   * Fenwick tree of prefix maxima. Positions are 0-based; query(count)
+   * returns the maximum over positions 0..count-1, or -1 if none.
+   */
+  private static final class MaxTree {
+
+    private final int[] tree;
+
+    MaxTree(int size) {
+      tree = new int[size + 1];
+      Arrays.fill(tree, -1);
+    }
+
+    void update(int pos, int value) {
+      for (int i = pos + 1; i < tree.length; i += i & (-i)) {
+        if (tree[i] < value) {
+          tree[i] = value;
+        }
+      }
+    }
+
+    int query(int count) {
+      int result = -1;
+      for (int i = count; i > 0; i -= i & (-i)) {
+        if (tree[i] > result) {
+          result = tree[i];
+        }
+      }
+      return result;
+    }
+  }
+}
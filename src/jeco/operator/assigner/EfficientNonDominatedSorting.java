@@ -0,0 +1,118 @@
+package jeco.operator.assigner;
+
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Efficient Non-dominated Sort (ENS). Solutions are visited in lexicographic
+ * order, so a solution can only be dominated by solutions already assigned to
+ * a front, and it is compared only against the members of the fronts it is
+ * checked against. The front is located with a sequential (ENS-SS) or a
+ * binary (ENS-BS) search.
+ *
+ * X. Zhang, Y. Tian, R. Cheng, Y. Jin. An efficient approach to nondominated
+ * sorting for evolutionary multiobjective optimization. IEEE Transactions on
+ * Evolutionary Computation, 19(2), 201-213, 2015.
+ *
+ * Only valid for Pareto dominance (<code>SolutionDominance</code>).
+ *
+ * @author José L. Risco-Martín
+ */
+public class EfficientNonDominatedSorting<V extends Variable<?>> extends NonDominatedSorting<V> {
+
+  public static final int SEQUENTIAL_SEARCH = 0;
+  public static final int BINARY_SEARCH = 1;
+
+  protected int strategy;
+
+  public EfficientNonDominatedSorting(int strategy) {
+    this.strategy = strategy;
+  }
+
+  public EfficientNonDominatedSorting() {
+    this(SEQUENTIAL_SEARCH);
+  }
+
+  @Override
+  public int[] sort(Solutions<V> solutions) {
+    return sort(getObjectiveMatrix(solutions));
+  }
+
+  public int[] sort(double[][] points) {
+    int n = points.length;
+    int[] ranks = new int[n];
+    if (n == 0) {
+      return ranks;
+    }
+    int m = points[0].length;
+    int[] order = lexicographicOrder(points, m);
+
+    int[][] fronts = new int[8][];
+    int[] frontSizes = new int[8];
+    int numberOfFronts = 0;
+
+    int previous = -1;
+    for (int o = 0; o < n; ++o) {
+      int idx = order[o];
+      double[] point = points[idx];
+      int front;
+      if (previous >= 0 && compareLexicographically(points[previous], point, m) == 0) {
+        // Duplicated objective vector: same front as its copy
+        front = ranks[previous];
+      } else if (strategy == BINARY_SEARCH) {
+        int lo = 0, hi = numberOfFronts;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          if (isDominatedByFront(fronts[mid], frontSizes[mid], points, point, m)) {
+            lo = mid + 1;
+          } else {
+            hi = mid;
+          }
+        }
+        front = lo;
+      } else {
+        front = 0;
+        while (front < numberOfFronts && isDominatedByFront(fronts[front], frontSizes[front], points, point, m)) {
+          front++;
+        }
+      }
+
+      if (front == numberOfFronts) {
+        if (numberOfFronts == fronts.length) {
+          int[][] auxFronts = new int[numberOfFronts * 2][];
+          System.arraycopy(fronts, 0, auxFronts, 0, numberOfFronts);
+          fronts = auxFronts;
+          int[] auxSizes = new int[numberOfFronts * 2];
+          System.arraycopy(frontSizes, 0, auxSizes, 0, numberOfFronts);
+          frontSizes = auxSizes;
+        }
+        fronts[numberOfFronts] = new int[4];
+        numberOfFronts++;
+      }
+      int[] members = fronts[front];
+      if (frontSizes[front] == members.length) {
+        int[] aux = new int[members.length * 2];
+        System.arraycopy(members, 0, aux, 0, members.length);
+        members = aux;
+        fronts[front] = members;
+      }
+      members[frontSizes[front]++] = idx;
+      ranks[idx] = front;
+      previous = idx;
+    }
+    return ranks;
+  }
+
+  /**
+   * Members are checked from the last one added: it is the closest in
+   * lexicographic order and therefore the most likely to dominate.
+   */
+  private static boolean isDominatedByFront(int[] members, int size, double[][] points, double[] point, int m) {
+    for (int i = size - 1; i >= 0; --i) {
+      if (dominates(points[members[i]], point, m)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,221 @@
+package jeco.operator.assigner;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jeco.problem.DominanceMatrix;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Deb's fast non-dominated sorting: every pair is compared once, and fronts
+ * are peeled using domination counters. O(M n^2) time. It works with any
+ * dominance comparator, so it is the engine used for comparators other than
+ * plain Pareto dominance.
+ *
+ * K. Deb, A. Pratap, S. Agarwal, T. Meyarivan. A fast and elitist
+ * multiobjective genetic algorithm: NSGA-II. IEEE Transactions on
+ * Evolutionary Computation, 6(2), 182-197, 2002.
+ *
+ * When a pool is given, the pairwise comparisons are split by rows among
+ * fork/join tasks and merged afterwards in row order, so the result is the
+ * same as the sequential one. The comparator must be thread-safe.
+ *
+ * @author José L. Risco-Martín
+ */
+public class FastNonDominatedSorting<V extends Variable<?>> extends NonDominatedSorting<V> {
+
+  /**
+   * Rows compared by each parallel task.
+   */
+  public static final int PARALLEL_GRANULARITY = 32;
+
+  protected Comparator<Solution<V>> comparator;
+  protected ForkJoinPool pool;
+
+  public FastNonDominatedSorting(Comparator<Solution<V>> comparator, ForkJoinPool pool) {
+    this.comparator = comparator;
+    this.pool = pool;
+  }
+
+  public FastNonDominatedSorting(Comparator<Solution<V>> comparator) {
+    this(comparator, null);
+  }
+
+  @Override
+  public int[] sort(Solutions<V> solutions) {
+    int n = solutions.size();
+    int[] dominationCount = new int[n];
+    // dominated[i][0..dominatedSize[i]-1]: solutions dominated by i
+    int[][] dominated = new int[n][];
+    int[] dominatedSize = new int[n];
+
+    if (pool != null && n > PARALLEL_GRANULARITY) {
+      // better[i]: j > i dominated by i; worse[i]: j > i that dominate i.
+      int[][] better = new int[n][];
+      int[] betterSize = new int[n];
+      int[][] worse = new int[n][];
+      int[] worseSize = new int[n];
+      pool.invoke(new CompareRows(solutions, 0, n, better, betterSize, worse, worseSize));
+      for (int i = 0; i < n; ++i) {
+        int b = 0, w = 0;
+        // Merge both lists by j, the order of the sequential loop
+        while (b < betterSize[i] || w < worseSize[i]) {
+          if (w == worseSize[i] || (b < betterSize[i] && better[i][b] < worse[i][w])) {
+            int j = better[i][b++];
+            add(dominated, dominatedSize, i, j);
+            dominationCount[j]++;
+          } else {
+            int j = worse[i][w++];
+            add(dominated, dominatedSize, j, i);
+            dominationCount[i]++;
+          }
+        }
+        better[i] = null;
+        worse[i] = null;
+      }
+    } else {
+      for (int i = 0; i < n - 1; ++i) {
+        Solution<V> solI = solutions.get(i);
+        for (int j = i + 1; j < n; ++j) {
+          int compare = comparator.compare(solI, solutions.get(j));
+          if (compare < 0) {
+            add(dominated, dominatedSize, i, j);
+            dominationCount[j]++;
+          } else if (compare > 0) {
+            add(dominated, dominatedSize, j, i);
+            dominationCount[i]++;
+          }
+        }
+      }
+    }
+
+    return peel(dominationCount, dominated, dominatedSize);
+  }
+
+  /**
+   * Computes the fronts from a precomputed Pareto dominance relation.
+   *
+   * @param relation Dominance relation of the solutions to sort
+   * @return For each solution, the index of its front.
+   */
+  public static int[] sort(DominanceMatrix relation) {
+    int n = relation.size();
+    int[] dominationCount = new int[n];
+    int[][] dominated = new int[n][];
+    int[] dominatedSize = new int[n];
+    for (int i = 0; i < n; ++i) {
+      dominationCount[i] = relation.getNumberOfDominators(i);
+      dominated[i] = relation.getDominated(i);
+      dominatedSize[i] = dominated[i].length;
+    }
+    return peel(dominationCount, dominated, dominatedSize);
+  }
+
+  /**
+   * Peels fronts from the domination counters. Consumes the counters.
+   */
+  protected static int[] peel(int[] dominationCount, int[][] dominated, int[] dominatedSize) {
+    int n = dominationCount.length;
+    int[] ranks = new int[n];
+    Arrays.fill(ranks, -1);
+    int[] current = new int[n];
+    int[] next = new int[n];
+    int currentSize = 0;
+    for (int i = 0; i < n; ++i) {
+      if (dominationCount[i] == 0) {
+        current[currentSize++] = i;
+      }
+    }
+    int rank = 0;
+    while (currentSize > 0) {
+      int nextSize = 0;
+      for (int c = 0; c < currentSize; ++c) {
+        int i = current[c];
+        ranks[i] = rank;
+        int[] dominatedByI = dominated[i];
+        for (int d = 0; d < dominatedSize[i]; ++d) {
+          int j = dominatedByI[d];
+          if (--dominationCount[j] == 0) {
+            next[nextSize++] = j;
+          }
+        }
+      }
+      int[] swap = current;
+      current = next;
+      next = swap;
+      currentSize = nextSize;
+      rank++;
+    }
+    // Comparators that are not transitive may leave cycles: close them in a
+    // last front.
+    for (int i = 0; i < n; ++i) {
+      if (ranks[i] < 0) {
+        ranks[i] = rank;
+      }
+    }
+    return ranks;
+  }
+
+  private static void add(int[][] lists, int[] sizes, int i, int value) {
+    int[] list = lists[i];
+    if (list == null) {
+      list = new int[4];
+      lists[i] = list;
+    } else if (sizes[i] == list.length) {
+      int[] aux = new int[list.length * 2];
+      System.arraycopy(list, 0, aux, 0, list.length);
+      list = aux;
+      lists[i] = list;
+    }
+    list[sizes[i]++] = value;
+  }
+
+  /**
+   * Compares rows from..to-1 against every later solution.
+   */
+  private final class CompareRows extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Solutions<V> solutions;
+    private final int from, to;
+    private final int[][] better, worse;
+    private final int[] betterSize, worseSize;
+
+    CompareRows(Solutions<V> solutions, int from, int to, int[][] better, int[] betterSize, int[][] worse, int[] worseSize) {
+      this.solutions = solutions;
+      this.from = from;
+      this.to = to;
+      this.better = better;
+      this.betterSize = betterSize;
+      this.worse = worse;
+      this.worseSize = worseSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > PARALLEL_GRANULARITY) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new CompareRows(solutions, from, mid, better, betterSize, worse, worseSize),
+                new CompareRows(solutions, mid, to, better, betterSize, worse, worseSize));
+        return;
+      }
+      int n = solutions.size();
+      for (int i = from; i < to; ++i) {
+        Solution<V> solI = solutions.get(i);
+        for (int j = i + 1; j < n; ++j) {
+          int compare = comparator.compare(solI, solutions.get(j));
+          if (compare < 0) {
+            add(better, betterSize, i, j);
+          } else if (compare > 0) {
+            add(worse, worseSize, i, j);
+          }
+        }
+      }
+    }
+  }
+}
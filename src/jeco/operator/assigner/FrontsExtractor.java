@@ -1,41 +1,223 @@
 package jeco.operator.assigner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+import jeco.operator.comparator.SolutionDominance;
+import jeco.problem.AttributeKey;
+import jeco.problem.DominanceMatrix;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
 import jeco.problem.Variable;
 
+/**
+ * Splits a set of solutions into non-dominated fronts and stores the rank
+ * (1 for the first front) of every solution. Duplicated solutions are kept
+ * only once, as <code>Solutions.reduceToNonDominated()</code> does.
+ *
+ * The sorting engine can be given explicitly. Otherwise it is selected by
+ * population size and number of objectives: divide-and-conquer for two
+ * objectives or large populations, ENS for the rest, and Deb's fast
+ * non-dominated sorting when the comparator is not plain Pareto dominance.
+ * From a configurable population size on, fronts are ranked in parallel on a
+ * fork/join pool (the common pool by default), with divide-and-conquer or,
+ * for other comparators, Deb's algorithm. Parallel ranks are identical
+ * to the sequential ones.
+ */
 public class FrontsExtractor<V extends Variable<?>> {
 
+  /**
+   * Population size from which divide-and-conquer is selected (up to
+   * DIVIDE_AND_CONQUER_MAX_OBJECTIVES objectives).
+   */
+  public static final int DIVIDE_AND_CONQUER_THRESHOLD = 1000;
+  public static final int DIVIDE_AND_CONQUER_MAX_OBJECTIVES = 5;
+  /**
+   * Up to this number of objectives, ENS uses binary search; above it,
+   * sequential search (there are usually few fronts).
+   */
+  public static final int ENS_BINARY_SEARCH_MAX_OBJECTIVES = 4;
+  /**
+   * Default population size from which fronts are ranked in parallel.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 5000;
+
   protected Comparator<Solution<V>> comparator;
+  protected NonDominatedSorting<V> sorting;
+  protected ForkJoinPool pool = ForkJoinPool.commonPool();
+  protected int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
   public static final String propertyN = "n";
   public static final String propertyRank = "rank";
   public static final String propertyIndexS = "indexS";
+  public static final AttributeKey attributeRank = AttributeKey.RANK;
 
-  public FrontsExtractor(Comparator<Solution<V>> comparator) {
+  public FrontsExtractor(Comparator<Solution<V>> comparator, NonDominatedSorting<V> sorting) {
     this.comparator = comparator;
+    this.sorting = sorting;
+  }
+
+  public FrontsExtractor(Comparator<Solution<V>> comparator) {
+    this(comparator, null);
   }
 
   public ArrayList<Solutions<V>> execute(Solutions<V> arg) {
-    Solutions<V> solutions = new Solutions<V>();
-    solutions.addAll(arg);
     ArrayList<Solutions<V>> fronts = new ArrayList<Solutions<V>>();
-    Solutions<V> rest = solutions.reduceToNonDominated(comparator);
-    fronts.add(solutions);
-    while (rest.size() > 0) {
-      solutions = rest;
-      rest = solutions.reduceToNonDominated(comparator);
-      fronts.add(solutions);
+    int n = arg.size();
+    if (n == 0) {
+      fronts.add(new Solutions<V>());
+      return fronts;
+    }
+    return buildFronts(arg, getSorting(arg).sort(arg));
+  }
+
+  /**
+   * Splits the solutions using a precomputed dominance relation of arg (for
+   * instance, one shared with other operators in the same generation). The
+   * comparator is not used.
+   *
+   * @param arg Solutions to split
+   * @param relation Dominance relation of arg, in the same order
+   * @return Fronts, the first one non-dominated
+   */
+  public ArrayList<Solutions<V>> execute(Solutions<V> arg, DominanceMatrix relation) {
+    if (arg.isEmpty()) {
+      ArrayList<Solutions<V>> fronts = new ArrayList<Solutions<V>>();
+      fronts.add(new Solutions<V>());
+      return fronts;
+    }
+    return buildFronts(arg, FastNonDominatedSorting.sort(relation));
+  }
+
+  protected ArrayList<Solutions<V>> buildFronts(Solutions<V> arg, int[] ranks) {
+    ArrayList<Solutions<V>> fronts = new ArrayList<Solutions<V>>();
+    int n = arg.size();
+    int numberOfFronts = 0;
+    for (int i = 0; i < n; ++i) {
+      numberOfFronts = Math.max(numberOfFronts, ranks[i] + 1);
+    }
+    for (int i = 0; i < numberOfFronts; ++i) {
+      fronts.add(new Solutions<V>());
+    }
+    for (int i = 0; i < n; ++i) {
+      fronts.get(ranks[i]).add(arg.get(i));
     }
     int rank = 1;
     for (int i = 0; i < fronts.size(); ++i) {
-      Solutions<V> front = fronts.get(i);
+      Solutions<V> front = removeDuplicates(fronts.get(i));
+      fronts.set(i, front);
       for (int j = 0; j < front.size(); ++j) {
-        front.get(j).getProperties().put(propertyRank, rank);
+        front.get(j).setIntAttribute(attributeRank, rank);
       }
       rank++;
     }
     return fronts;
   }
+
+  /**
+   * @param parallelThreshold Population size from which fronts are ranked in
+   * parallel. Integer.MAX_VALUE disables parallel ranking.
+   */
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * @param pool Pool used for parallel ranking. If null, ranking is always
+   * sequential.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * @return The engine given in the constructor or, if none, the one that
+   * fits best the size and number of objectives of the solutions.
+   */
+  protected NonDominatedSorting<V> getSorting(Solutions<V> solutions) {
+    if (sorting != null) {
+      return sorting;
+    }
+    int n = solutions.size();
+    boolean parallel = pool != null && pool.getParallelism() > 1 && n >= parallelThreshold;
+    if (comparator == null || comparator.getClass() != SolutionDominance.class) {
+      return new FastNonDominatedSorting<V>(comparator, parallel ? pool : null);
+    }
+    int m = solutions.get(0).getNumberOfObjectives();
+    if (parallel) {
+      return new DivideAndConquerNonDominatedSorting<V>(pool);
+    }
+    if (m <= 2 || (n >= DIVIDE_AND_CONQUER_THRESHOLD && m <= DIVIDE_AND_CONQUER_MAX_OBJECTIVES)) {
+      return new DivideAndConquerNonDominatedSorting<V>();
+    }
+    if (m <= ENS_BINARY_SEARCH_MAX_OBJECTIVES) {
+      return new EfficientNonDominatedSorting<V>(EfficientNonDominatedSorting.BINARY_SEARCH);
+    }
+    return new EfficientNonDominatedSorting<V>(EfficientNonDominatedSorting.SEQUENTIAL_SEARCH);
+  }
+
+  /**
+   * Keeps the first copy of every group of equal solutions. Candidates are
+   * grouped by a hash of their objectives, so equals() is only called on
+   * solutions with the same objective values.
+   */
+  protected Solutions<V> removeDuplicates(Solutions<V> front) {
+    int size = front.size();
+    if (size < 2) {
+      return front;
+    }
+    long[] keys = new long[size];
+    for (int i = 0; i < size; ++i) {
+      keys[i] = ((long) hashObjectives(front.get(i)) << 32) | i;
+    }
+    Arrays.sort(keys);
+    boolean[] removed = null;
+    int start = 0;
+    while (start < size) {
+      int end = start + 1;
+      while (end < size && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+        end++;
+      }
+      for (int a = start; a < end - 1; ++a) {
+        int i = (int) keys[a];
+        if (removed != null && removed[i]) {
+          continue;
+        }
+        for (int b = a + 1; b < end; ++b) {
+          int j = (int) keys[b];
+          if ((removed == null || !removed[j]) && front.get(i).equals(front.get(j))) {
+            if (removed == null) {
+              removed = new boolean[size];
+            }
+            removed[j] = true;
+          }
+        }
+      }
+      start = end;
+    }
+    if (removed == null) {
+      return front;
+    }
+    Solutions<V> result = new Solutions<V>();
+    for (int i = 0; i < size; ++i) {
+      if (!removed[i]) {
+        result.add(front.get(i));
+      }
+    }
+    return result;
+  }
+
+  private static int hashObjectives(Solution<?> solution) {
+    int hash = 1;
+    for (int k = 0; k < solution.getNumberOfObjectives(); ++k) {
+      long bits = Double.doubleToLongBits(solution.getObjectiveValue(k));
+      hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+    }
+    return hash;
+  }
 }
@@ -0,0 +1,582 @@
+package jeco.operator.assigner;
+
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * KD-tree over objective vectors, with k-nearest-neighbour and radius
+ * queries and incremental deletion. Used by SPEA2 (density and archive
+ * truncation), NicheCount and QualityIndicators.
+ *
+ * The tree is balanced once, splitting by the median of the widest
+ * dimension. Removed points stay in their leaves, but every node keeps its
+ * number of alive points so that empty subtrees are skipped. Distances are
+ * Euclidean and computed as in <code>SPEA2.euclideanDistance()</code>, so
+ * they are bit-identical to the ones obtained by brute force.
+ *
+ * k-nearest-neighbour queries reuse internal buffers. The queries by point
+ * (nearestDistance(), nearestDominanceDistance() and
+ * nearestAdditiveEpsilon()) do not, so they may run concurrently as long as
+ * no point is removed.
+ *
+ * @author José L. Risco-Martín
+ */
+public class KdTree {
+
+  /**
+   * Maximum number of points in a leaf.
+   */
+  public static final int LEAF_SIZE = 8;
+
+  protected int size;
+  protected int dimension;
+  // Row-major points (size x dimension)
+  protected double[] points;
+  // Point indexes, grouped by node ranges
+  protected int[] order;
+  // position[i]: position of point i in order
+  protected int[] position;
+  protected boolean[] removed;
+  protected int numberOfAlive;
+
+  protected int numberOfNodes;
+  protected int[] nodeFrom;
+  protected int[] nodeTo;
+  protected int[] nodeLeft;
+  protected int[] nodeRight;
+  protected int[] nodeParent;
+  protected int[] nodeAlive;
+  // Bounding boxes, node * dimension + k
+  protected double[] nodeLower;
+  protected double[] nodeUpper;
+  protected int[] leafOf;
+
+  // k-NN query state: max-heap by (distance, index)
+  private double[] heapDistances;
+  private int[] heapIndexes;
+  private int heapSize;
+
+  /**
+   * @param points Row-major points (size x dimension). Not copied.
+   * @param size Number of points
+   * @param dimension Number of coordinates of each point
+   */
+  public KdTree(double[] points, int size, int dimension) {
+    this.size = size;
+    this.dimension = dimension;
+    this.points = points;
+    this.order = new int[size];
+    this.position = new int[size];
+    this.removed = new boolean[size];
+    this.numberOfAlive = size;
+    this.leafOf = new int[size];
+    for (int i = 0; i < size; ++i) {
+      order[i] = i;
+    }
+    int maxNodes = countNodes(size);
+    nodeFrom = new int[maxNodes];
+    nodeTo = new int[maxNodes];
+    nodeLeft = new int[maxNodes];
+    nodeRight = new int[maxNodes];
+    nodeParent = new int[maxNodes];
+    nodeAlive = new int[maxNodes];
+    nodeLower = new double[maxNodes * dimension];
+    nodeUpper = new double[maxNodes * dimension];
+    if (size > 0) {
+      build(0, size, -1);
+    }
+    for (int p = 0; p < size; ++p) {
+      position[order[p]] = p;
+    }
+  }
+
+  /**
+   * Builds a tree over the first numberOfObjectives objectives of every
+   * solution.
+   */
+  public static <V extends Variable<?>> KdTree valueOf(Solutions<V> solutions, int numberOfObjectives) {
+    int size = solutions.size();
+    double[] points = new double[size * numberOfObjectives];
+    for (int i = 0; i < size; ++i) {
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        points[i * numberOfObjectives + k] = solutions.get(i).getObjectiveValue(k);
+      }
+    }
+    return new KdTree(points, size, numberOfObjectives);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return Number of points not removed.
+   */
+  public int getNumberOfAlive() {
+    return numberOfAlive;
+  }
+
+  public boolean isRemoved(int i) {
+    return removed[i];
+  }
+
+  /**
+   * Removes point i from the following queries.
+   */
+  public void remove(int i) {
+    if (removed[i]) {
+      return;
+    }
+    removed[i] = true;
+    numberOfAlive--;
+    for (int node = leafOf[i]; node >= 0; node = nodeParent[node]) {
+      nodeAlive[node]--;
+    }
+  }
+
+  /**
+   * @return Euclidean distance between points i and j.
+   */
+  public double distance(int i, int j) {
+    return Math.sqrt(squaredDistance(i * dimension, j * dimension));
+  }
+
+  /**
+   * Finds the k alive points nearest to point i (i excluded), closest first.
+   * Ties are broken by index.
+   *
+   * @param i Query point
+   * @param k Number of neighbours
+   * @param neighbours Output: indexes of the neighbours (length >= k)
+   * @param distances Output: distances to the neighbours (length >= k)
+   * @return Number of neighbours found, lower than k if there are not
+   * enough alive points.
+   */
+  public int nearest(int i, int k, int[] neighbours, double[] distances) {
+    if (k <= 0 || numberOfNodes == 0) {
+      return 0;
+    }
+    if (heapDistances == null || heapDistances.length < k) {
+      heapDistances = new double[k];
+      heapIndexes = new int[k];
+    }
+    heapSize = 0;
+    search(0, i * dimension, i, k);
+    int count = heapSize;
+    // Heap sort: the farthest goes last
+    while (heapSize > 0) {
+      int last = heapSize - 1;
+      distances[last] = Math.sqrt(heapDistances[0]);
+      neighbours[last] = heapIndexes[0];
+      heapDistances[0] = heapDistances[last];
+      heapIndexes[0] = heapIndexes[last];
+      heapSize--;
+      siftDown(0);
+    }
+    return count;
+  }
+
+  /**
+   * @return Number of alive points (i excluded) whose distance to point i is
+   * lower than radius.
+   */
+  public int countWithin(int i, double radius) {
+    if (numberOfNodes == 0) {
+      return 0;
+    }
+    return count(0, i * dimension, i, radius);
+  }
+
+  /**
+   * @return Euclidean distance from point to the nearest alive point, or
+   * infinity if there are none.
+   */
+  public double nearestDistance(double[] point) {
+    return nearestDistance(point, null);
+  }
+
+  /**
+   * @param nearest If not null, nearest[0] is a hint (an alive point
+   * expected to be close, or -1) and receives the index of the nearest
+   * point. Queries with close points run faster if each one passes the
+   * result of the previous one.
+   */
+  public double nearestDistance(double[] point, int[] nearest) {
+    return Math.sqrt(nearest(point, EUCLIDEAN, nearest));
+  }
+
+  /**
+   * IGD+ distance: minimum over the alive points a of the distance from
+   * point to the region a dominates, sqrt(sum(max(a[k] - point[k], 0)^2)).
+   */
+  public double nearestDominanceDistance(double[] point) {
+    return nearestDominanceDistance(point, null);
+  }
+
+  /**
+   * @see #nearestDistance(double[], int[])
+   */
+  public double nearestDominanceDistance(double[] point, int[] nearest) {
+    return Math.sqrt(nearest(point, DOMINANCE, nearest));
+  }
+
+  /**
+   * Additive epsilon: minimum over the alive points a of the largest
+   * a[k] - point[k], i.e. the smallest shift that makes some point weakly
+   * dominate point.
+   */
+  public double nearestAdditiveEpsilon(double[] point) {
+    return nearestAdditiveEpsilon(point, null);
+  }
+
+  /**
+   * @see #nearestDistance(double[], int[])
+   */
+  public double nearestAdditiveEpsilon(double[] point, int[] nearest) {
+    return nearest(point, EPSILON, nearest);
+  }
+
+  /**
+   * @return Indexes of all the points grouped by leaves, so that consecutive
+   * points are close to each other.
+   */
+  public int[] getLeafOrder() {
+    return order.clone();
+  }
+
+  private static final int EUCLIDEAN = 0;
+  private static final int DOMINANCE = 1;
+  private static final int EPSILON = 2;
+
+  private double nearest(double[] point, int measure, int[] nearest) {
+    if (numberOfNodes == 0 || numberOfAlive == 0) {
+      if (nearest != null) {
+        nearest[0] = -1;
+      }
+      return Double.POSITIVE_INFINITY;
+    }
+    int[] result = nearest != null ? nearest : new int[]{-1};
+    double best = Double.POSITIVE_INFINITY;
+    int hint = result[0];
+    if (hint >= 0 && hint < size && !removed[hint]) {
+      best = measure(hint, point, measure);
+    } else {
+      result[0] = -1;
+    }
+    return nearest(0, point, measure, best, result);
+  }
+
+  /**
+   * Branch and bound: subtrees are visited best bound first, and only if
+   * their bound beats the best value so far.
+   */
+  private double nearest(int node, double[] point, int measure, double best, int[] nearest) {
+    if (nodeAlive[node] == 0) {
+      return best;
+    }
+    if (nodeLeft[node] < 0) {
+      for (int p = nodeFrom[node]; p < nodeTo[node]; ++p) {
+        int j = order[p];
+        if (removed[j]) {
+          continue;
+        }
+        double value = measure(j, point, measure);
+        if (value < best || nearest[0] < 0) {
+          best = value;
+          nearest[0] = j;
+        }
+      }
+      return best;
+    }
+    int left = nodeLeft[node], right = nodeRight[node];
+    double boundLeft = bound(left, point, measure), boundRight = bound(right, point, measure);
+    if (boundLeft > boundRight) {
+      int aux = left;
+      left = right;
+      right = aux;
+      double auxBound = boundLeft;
+      boundLeft = boundRight;
+      boundRight = auxBound;
+    }
+    if (boundLeft < best || nearest[0] < 0) {
+      best = nearest(left, point, measure, best, nearest);
+    }
+    if (boundRight < best) {
+      best = nearest(right, point, measure, best, nearest);
+    }
+    return best;
+  }
+
+  /**
+   * Squared for EUCLIDEAN and DOMINANCE.
+   */
+  private double measure(int j, double[] point, int measure) {
+    int offset = j * dimension;
+    if (measure == EPSILON) {
+      double max = Double.NEGATIVE_INFINITY;
+      for (int k = 0; k < dimension; ++k) {
+        max = Math.max(max, points[offset + k] - point[k]);
+      }
+      return max;
+    }
+    double sum = 0;
+    for (int k = 0; k < dimension; ++k) {
+      double diff = points[offset + k] - point[k];
+      if (measure == DOMINANCE && diff < 0) {
+        continue;
+      }
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  /**
+   * Lower bound of measure() over the points in the box of a node. For
+   * DOMINANCE and EPSILON, no point of the box is better than its lower
+   * corner.
+   */
+  private double bound(int node, double[] point, int measure) {
+    int offset = node * dimension;
+    if (measure == EPSILON) {
+      double max = Double.NEGATIVE_INFINITY;
+      for (int k = 0; k < dimension; ++k) {
+        max = Math.max(max, nodeLower[offset + k] - point[k]);
+      }
+      return max;
+    }
+    double sum = 0;
+    for (int k = 0; k < dimension; ++k) {
+      double value = point[k];
+      double gap = 0;
+      if (value < nodeLower[offset + k]) {
+        gap = nodeLower[offset + k] - value;
+      } else if (measure == EUCLIDEAN && value > nodeUpper[offset + k]) {
+        gap = value - nodeUpper[offset + k];
+      }
+      sum += gap * gap;
+    }
+    return sum;
+  }
+
+  private void search(int node, int query, int exclude, int k) {
+    if (nodeAlive[node] == 0) {
+      return;
+    }
+    if (heapSize == k && lowerBound(node, query) > heapDistances[0]) {
+      return;
+    }
+    if (nodeLeft[node] < 0) {
+      for (int p = nodeFrom[node]; p < nodeTo[node]; ++p) {
+        int j = order[p];
+        if (removed[j] || j == exclude) {
+          continue;
+        }
+        offer(squaredDistance(query, j * dimension), j, k);
+      }
+      return;
+    }
+    int left = nodeLeft[node], right = nodeRight[node];
+    if (lowerBound(left, query) <= lowerBound(right, query)) {
+      search(left, query, exclude, k);
+      search(right, query, exclude, k);
+    } else {
+      search(right, query, exclude, k);
+      search(left, query, exclude, k);
+    }
+  }
+
+  private void offer(double distance, int j, int k) {
+    if (heapSize < k) {
+      int child = heapSize++;
+      while (child > 0) {
+        int parent = (child - 1) >>> 1;
+        if (!greater(distance, j, heapDistances[parent], heapIndexes[parent])) {
+          break;
+        }
+        heapDistances[child] = heapDistances[parent];
+        heapIndexes[child] = heapIndexes[parent];
+        child = parent;
+      }
+      heapDistances[child] = distance;
+      heapIndexes[child] = j;
+    } else if (greater(heapDistances[0], heapIndexes[0], distance, j)) {
+      heapDistances[0] = distance;
+      heapIndexes[0] = j;
+      siftDown(0);
+    }
+  }
+
+  private void siftDown(int parent) {
+    double distance = heapDistances[parent];
+    int j = heapIndexes[parent];
+    while (true) {
+      int child = 2 * parent + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && greater(heapDistances[child + 1], heapIndexes[child + 1], heapDistances[child], heapIndexes[child])) {
+        child++;
+      }
+      if (!greater(heapDistances[child], heapIndexes[child], distance, j)) {
+        break;
+      }
+      heapDistances[parent] = heapDistances[child];
+      heapIndexes[parent] = heapIndexes[child];
+      parent = child;
+    }
+    heapDistances[parent] = distance;
+    heapIndexes[parent] = j;
+  }
+
+  private static boolean greater(double d1, int i1, double d2, int i2) {
+    return d1 > d2 || (d1 == d2 && i1 > i2);
+  }
+
+  private int count(int node, int query, int exclude, double radius) {
+    if (nodeAlive[node] == 0 || Math.sqrt(lowerBound(node, query)) >= radius) {
+      return 0;
+    }
+    if (Math.sqrt(upperBound(node, query)) < radius) {
+      int p = position[exclude];
+      boolean inside = !removed[exclude] && p >= nodeFrom[node] && p < nodeTo[node];
+      return inside ? nodeAlive[node] - 1 : nodeAlive[node];
+    }
+    if (nodeLeft[node] < 0) {
+      int result = 0;
+      for (int p = nodeFrom[node]; p < nodeTo[node]; ++p) {
+        int j = order[p];
+        if (removed[j] || j == exclude) {
+          continue;
+        }
+        if (Math.sqrt(squaredDistance(query, j * dimension)) < radius) {
+          result++;
+        }
+      }
+      return result;
+    }
+    return count(nodeLeft[node], query, exclude, radius) + count(nodeRight[node], query, exclude, radius);
+  }
+
+  /**
+   * Squared distance, summed in the same order as the brute-force distance,
+   * so that it is never greater than the distance to any point of the box.
+   */
+  private double lowerBound(int node, int query) {
+    double sum = 0;
+    int offset = node * dimension;
+    for (int k = 0; k < dimension; ++k) {
+      double value = points[query + k];
+      double gap = 0;
+      if (value < nodeLower[offset + k]) {
+        gap = value - nodeLower[offset + k];
+      } else if (value > nodeUpper[offset + k]) {
+        gap = value - nodeUpper[offset + k];
+      }
+      sum += gap * gap;
+    }
+    return sum;
+  }
+
+  private double upperBound(int node, int query) {
+    double sum = 0;
+    int offset = node * dimension;
+    for (int k = 0; k < dimension; ++k) {
+      double value = points[query + k];
+      double gap = Math.max(Math.abs(value - nodeLower[offset + k]), Math.abs(value - nodeUpper[offset + k]));
+      sum += gap * gap;
+    }
+    return sum;
+  }
+
+  private double squaredDistance(int a, int b) {
+    double sum = 0;
+    for (int k = 0; k < dimension; ++k) {
+      double diff = points[a + k] - points[b + k];
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  private int build(int from, int to, int parent) {
+    int node = numberOfNodes++;
+    nodeFrom[node] = from;
+    nodeTo[node] = to;
+    nodeParent[node] = parent;
+    nodeAlive[node] = to - from;
+    int offset = node * dimension;
+    for (int k = 0; k < dimension; ++k) {
+      nodeLower[offset + k] = Double.POSITIVE_INFINITY;
+      nodeUpper[offset + k] = Double.NEGATIVE_INFINITY;
+    }
+    for (int p = from; p < to; ++p) {
+      int point = order[p] * dimension;
+      for (int k = 0; k < dimension; ++k) {
+        nodeLower[offset + k] = Math.min(nodeLower[offset + k], points[point + k]);
+        nodeUpper[offset + k] = Math.max(nodeUpper[offset + k], points[point + k]);
+      }
+    }
+    if (to - from <= LEAF_SIZE) {
+      nodeLeft[node] = -1;
+      nodeRight[node] = -1;
+      for (int p = from; p < to; ++p) {
+        leafOf[order[p]] = node;
+      }
+      return node;
+    }
+    int splitDimension = 0;
+    double widest = -1;
+    for (int k = 0; k < dimension; ++k) {
+      double width = nodeUpper[offset + k] - nodeLower[offset + k];
+      if (width > widest) {
+        widest = width;
+        splitDimension = k;
+      }
+    }
+    int mid = (from + to) >>> 1;
+    select(from, to - 1, mid, splitDimension);
+    nodeLeft[node] = build(from, mid, node);
+    nodeRight[node] = build(mid, to, node);
+    return node;
+  }
+
+  /**
+   * Reorders order[lo..hi] so that order[nth] holds the point that would be
+   * there if sorted by coordinate k.
+   */
+  private void select(int lo, int hi, int nth, int k) {
+    while (lo < hi) {
+      double pivot = points[order[(lo + hi) >>> 1] * dimension + k];
+      int i = lo, j = hi;
+      while (i <= j) {
+        while (points[order[i] * dimension + k] < pivot) {
+          i++;
+        }
+        while (points[order[j] * dimension + k] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          int aux = order[i];
+          order[i] = order[j];
+          order[j] = aux;
+          i++;
+          j--;
+        }
+      }
+      if (nth <= j) {
+        hi = j;
+      } else if (nth >= i) {
+        lo = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private static int countNodes(int size) {
+    if (size <= LEAF_SIZE) {
+      return 1;
+    }
+    int half = size >>> 1;
+    return 1 + countNodes(half) + countNodes(size - half);
+  }
+}
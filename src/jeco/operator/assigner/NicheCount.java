@@ -3,7 +3,7 @@ package jeco.operator.assigner;
 import java.util.Collections;
 
 import jeco.operator.comparator.ObjectiveComparator;
-import jeco.problem.Solution;
+import jeco.problem.AttributeKey;
 import jeco.problem.Solutions;
 import jeco.problem.Variable;
 
@@ -11,6 +11,7 @@ public class NicheCount<V extends Variable<?>> {
 
 	protected int numberOfObjectives;
 	public static final String propertyNicheCount = "nicheCount";
+	public static final AttributeKey attributeNicheCount = AttributeKey.NICHE_COUNT;
 
 	public NicheCount(int numberOfObjectives) {
 		this.numberOfObjectives = numberOfObjectives;
@@ -24,14 +25,10 @@ public class NicheCount<V extends Variable<?>> {
 		}
 
 		if (size == 1) {
-			solutions.get(0).getProperties().put(propertyNicheCount, 0);
+			solutions.get(0).setIntAttribute(attributeNicheCount, 0);
 			return solutions;
 		} // if
 
-		for (int i = 0; i < size; ++i) {
-			solutions.get(i).getProperties().put(propertyNicheCount, 0);
-		}
-
 		double maxObjective;
 		double minObjective;
 		// TODO: Investigate how to compute sigmaShare in 3-objectives and more.
@@ -40,29 +37,16 @@ public class NicheCount<V extends Variable<?>> {
 		for (int i = 0; i < numberOfObjectives; ++i) {
 			// Sort the population by objective i
 			Collections.sort(solutions, new ObjectiveComparator<V>(i));
-			minObjective = solutions.get(0).getObjectives().get(i);
-			maxObjective = solutions.get(size - 1).getObjectives().get(i);
+			minObjective = solutions.get(0).getObjectiveValue(i);
+			maxObjective = solutions.get(size - 1).getObjectiveValue(i);
 			sigmaShare += (maxObjective - minObjective);
 		}
 		sigmaShare /= (size - 1);
 
-		double distanceIJ;
+		// Neighbours closer than sigmaShare
+		KdTree index = KdTree.valueOf(solutions, numberOfObjectives);
 		for (int i = 0; i < size; ++i) {
-			Solution<V> solI = solutions.get(i);
-			for (int j = 0; j < size; ++j) {
-				if (i == j) {
-					continue;
-				}
-				Solution<V> solJ = solutions.get(j);
-				distanceIJ = 0;
-				for(int m = 0; m<numberOfObjectives; ++m) {
-					distanceIJ += Math.pow(solI.getObjectives().get(m) - solJ.getObjectives().get(m), 2);
-				}
-				distanceIJ = Math.sqrt(distanceIJ);
-				if (distanceIJ < sigmaShare) {
-					solI.getProperties().put(propertyNicheCount, solI.getProperties().get(propertyNicheCount).intValue() + 1);
-				}
-			}
+			solutions.get(i).setIntAttribute(attributeNicheCount, index.countWithin(i, sigmaShare));
 		}
 
 		return solutions;
@@ -0,0 +1,142 @@
+package jeco.operator.assigner;
+
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Engine that assigns every solution to a non-dominated front. Used by
+ * <code>FrontsExtractor</code>.
+ *
+ * @author José L. Risco-Martín
+ */
+public abstract class NonDominatedSorting<V extends Variable<?>> {
+
+  /**
+   * Computes the front of every solution.
+   *
+   * @param solutions Solutions to sort
+   * @return For each solution (same order), the index of its front; 0 is the
+   * non-dominated front.
+   */
+  public abstract int[] sort(Solutions<V> solutions);
+
+  /**
+   * Copies the objective values into a primitive matrix, one row per solution.
+   */
+  protected static <V extends Variable<?>> double[][] getObjectiveMatrix(Solutions<V> solutions) {
+    int n = solutions.size();
+    double[][] points = new double[n][];
+    for (int i = 0; i < n; ++i) {
+      int m = solutions.get(i).getNumberOfObjectives();
+      double[] point = new double[m];
+      for (int k = 0; k < m; ++k) {
+        point[k] = solutions.get(i).getObjectiveValue(k);
+      }
+      points[i] = point;
+    }
+    return points;
+  }
+
+  /**
+   * Sorts indexes lexicographically by objective values (ties broken by
+   * index), using objectives 0..m-1.
+   */
+  protected static int[] lexicographicOrder(final double[][] points, int m) {
+    int n = points.length;
+    int[] order = new int[n];
+    for (int i = 0; i < n; ++i) {
+      order[i] = i;
+    }
+    sortLexicographically(order, points, m);
+    return order;
+  }
+
+  /**
+   * Stable in-place sort of a set of indexes, lexicographically by objectives
+   * 0..m-1.
+   */
+  protected static void sortLexicographically(int[] idx, double[][] points, int m) {
+    int[] buffer = new int[idx.length];
+    mergeSort(idx, buffer, 0, idx.length, points, m);
+  }
+
+  private static void mergeSort(int[] idx, int[] buffer, int from, int to, double[][] points, int m) {
+    if (to - from < 2) {
+      return;
+    }
+    if (to - from <= 16) {
+      for (int i = from + 1; i < to; ++i) {
+        int x = idx[i];
+        int j = i - 1;
+        while (j >= from && compareLexicographically(points[idx[j]], points[x], m) > 0) {
+          idx[j + 1] = idx[j];
+          j--;
+        }
+        idx[j + 1] = x;
+      }
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    mergeSort(idx, buffer, from, mid, points, m);
+    mergeSort(idx, buffer, mid, to, points, m);
+    if (compareLexicographically(points[idx[mid - 1]], points[idx[mid]], m) <= 0) {
+      return;
+    }
+    System.arraycopy(idx, from, buffer, from, to - from);
+    int i = from, j = mid, k = from;
+    while (i < mid && j < to) {
+      if (compareLexicographically(points[buffer[j]], points[buffer[i]], m) < 0) {
+        idx[k++] = buffer[j++];
+      } else {
+        idx[k++] = buffer[i++];
+      }
+    }
+    while (i < mid) {
+      idx[k++] = buffer[i++];
+    }
+    while (j < to) {
+      idx[k++] = buffer[j++];
+    }
+  }
+
+  protected static int compareLexicographically(double[] a, double[] b, int m) {
+    for (int k = 0; k < m; ++k) {
+      if (a[k] < b[k]) {
+        return -1;
+      }
+      if (a[k] > b[k]) {
+        return 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return true if a is lower than or equal to b in every objective.
+   */
+  protected static boolean weaklyDominates(double[] a, double[] b, int m) {
+    for (int k = 0; k < m; ++k) {
+      if (a[k] > b[k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if a Pareto-dominates b (minimization) in the first m
+   * objectives.
+   */
+  protected static boolean dominates(double[] a, double[] b, int m) {
+    boolean smaller = false;
+    for (int k = 0; k < m; ++k) {
+      if (a[k] > b[k]) {
+        return false;
+      }
+      if (a[k] < b[k]) {
+        smaller = true;
+      }
+    }
+    return smaller;
+  }
+}
@@ -13,16 +13,16 @@ public class ComparatorNSGAII<V extends Variable<?>> implements Comparator<Solut
 	}
 
 	public int compare(Solution<V> left, Solution<V> right) {
-		Integer rankLeft = left.getProperties().get(FrontsExtractor.propertyRank).intValue();
-		Integer rankRight = right.getProperties().get(FrontsExtractor.propertyRank).intValue();
+		int rankLeft = left.getIntAttribute(FrontsExtractor.attributeRank);
+		int rankRight = right.getIntAttribute(FrontsExtractor.attributeRank);
 
-		int comp = rankLeft.compareTo(rankRight);
+		int comp = Integer.compare(rankLeft, rankRight);
 		if (comp == -1) {
 			return -1;
 		} else if (comp == 0) {
-			Double crowdedDistanceLeft = left.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue();
-			Double crowdedDistanceRight = right.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue();
-			comp = crowdedDistanceLeft.compareTo(crowdedDistanceRight);
+			double crowdedDistanceLeft = left.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance);
+			double crowdedDistanceRight = right.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance);
+			comp = Double.compare(crowdedDistanceLeft, crowdedDistanceRight);
 			if (comp == 1) {
 				return -1;
 			} else if (comp == 0) {
@@ -14,9 +14,11 @@ public class ObjectiveComparator<V extends Variable<?>> implements Comparator<So
 	}
 
 	public int compare(Solution<V> left, Solution<V> right) {
-		if (left.getObjectives().get(obj) < right.getObjectives().get(obj)) {
+		double valueLeft = left.getObjectiveValue(obj);
+		double valueRight = right.getObjectiveValue(obj);
+		if (valueLeft < valueRight) {
 			return -1;
-		} else if (left.getObjectives().get(obj) > right.getObjectives().get(obj)) {
+		} else if (valueLeft > valueRight) {
 			return 1;
 		} else {
 			return 0;
@@ -2,24 +2,52 @@ package jeco.operator.comparator;
 
 import java.util.Comparator;
 
+import jeco.problem.AttributeKey;
 import jeco.problem.Solution;
 import jeco.problem.Variable;
 
 public class PropertyComparator<V extends Variable<?>> implements Comparator<Solution<V>> {
 
-	protected String propertyName;
+	protected final String propertyName;
+	protected final AttributeKey key;
 
+	public PropertyComparator(AttributeKey key) {
+		this.propertyName = key.getName();
+		this.key = key;
+	}
+
+	/**
+	 * Compares by the attribute registered with this name, when it is set in
+	 * the solution, or else by the free-form property stored in
+	 * getProperties(), so a property named like an attribute (e.g. "rank")
+	 * is still found. The key is resolved here, so the comparator can be
+	 * shared between threads.
+	 */
 	public PropertyComparator(String propertyName) {
 		this.propertyName = propertyName;
+		this.key = AttributeKey.forName(propertyName);
 	}
 
 	public int compare(Solution<V> left, Solution<V> right) {
-		if (left.getProperties().get(propertyName).doubleValue() < right.getProperties().get(propertyName).doubleValue()) {
+		double valueLeft = value(left);
+		double valueRight = value(right);
+		if (valueLeft < valueRight) {
 			return -1;
-		} else if (left.getProperties().get(propertyName).doubleValue() > right.getProperties().get(propertyName).doubleValue()) {
+		} else if (valueLeft > valueRight) {
 			return 1;
 		} else {
 			return 0;
 		}
 	}
+
+	protected double value(Solution<V> solution) {
+		if (key != null && (solution.hasAttribute(key) || !solution.getProperties().containsKey(propertyName))) {
+			return solution.getAttributeValue(key);
+		}
+		Number value = solution.getProperties().get(propertyName);
+		if (value == null) {
+			throw new IllegalArgumentException("Solution has no attribute or property " + propertyName + ".");
+		}
+		return value.doubleValue();
+	}
 }
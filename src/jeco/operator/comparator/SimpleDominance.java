@@ -8,8 +8,8 @@ public class SimpleDominance<T extends Variable<?>> implements Comparator<Soluti
 
     @Override
     public int compare(Solution<T> s1, Solution<T> s2) {
-        Double fLeft = s1.getObjectives().get(0);
-        Double fRight = s2.getObjectives().get(0);
+        double fLeft = s1.getObjectiveValue(0);
+        double fRight = s2.getObjectiveValue(0);
 
         if (fLeft < fRight) {
             return -1;
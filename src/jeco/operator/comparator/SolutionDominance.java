@@ -1,6 +1,5 @@
 package jeco.operator.comparator;
 
-import java.util.ArrayList;
 import java.util.Comparator;
 import jeco.problem.Solution;
 import jeco.problem.Variable;
@@ -12,18 +11,19 @@ public class SolutionDominance<T extends Variable<?>> implements Comparator<Solu
     if (s2 == null) {
       return -1;
     }
-    int n = Math.min(s1.getObjectives().size(), s2.getObjectives().size());
-    ArrayList<Double> z1 = s1.getObjectives();
-    ArrayList<Double> z2 = s2.getObjectives();
+    int n = Math.min(s1.getNumberOfObjectives(), s2.getNumberOfObjectives());
 
     boolean bigger = false;
     boolean smaller = false;
     boolean indiff = false;
+    double z1, z2;
     for (int i = 0; !(indiff) && i < n; i++) {
-      if (z1.get(i) > z2.get(i)) {
+      z1 = s1.getObjectiveValue(i);
+      z2 = s2.getObjectiveValue(i);
+      if (z1 > z2) {
         bigger = true;
       }
-      if (z1.get(i) < z2.get(i)) {
+      if (z1 < z2) {
         smaller = true;
       }
       indiff = (bigger && smaller);
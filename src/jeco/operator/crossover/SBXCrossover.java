@@ -1,5 +1,6 @@
 package jeco.operator.crossover;
 
+import jeco.problem.PopulationMatrix;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
@@ -35,87 +36,113 @@ public class SBXCrossover<V extends Variable<Double>>  extends CrossoverOperator
         offSpring.add(parent1.clone());
         offSpring.add(parent2.clone());
 
-        int i;
+        double[] children = new double[2];
+        if (RandomGenerator.nextDouble() <= probability) {
+            for (int i = 0; i < parent1.getVariables().size(); i++) {
+                crossover(i, parent1.getVariables().get(i).getValue(), parent2.getVariables().get(i).getValue(), children);
+                offSpring.get(0).getVariables().get(i).setValue(children[0]);
+                offSpring.get(1).getVariables().get(i).setValue(children[1]);
+            } // for
+        } // if
+        return offSpring;
+    } // doCrossover
+
+    /**
+     * Applies the crossover between two rows of a population matrix, storing
+     * the children in two rows of another (or the same) matrix. When both
+     * matrices are the same object, children rows must not overlap the
+     * parent rows.
+     */
+    public void execute(PopulationMatrix parents, int parent1, int parent2, PopulationMatrix offSpring, int child1, int child2) {
+        offSpring.copyRow(parents, parent1, child1);
+        offSpring.copyRow(parents, parent2, child2);
+
+        double[] children = new double[2];
+        if (RandomGenerator.nextDouble() <= probability) {
+            for (int i = 0; i < parents.getNumberOfVariables(); i++) {
+                crossover(i, parents.getVariableValue(parent1, i), parents.getVariableValue(parent2, i), children);
+                offSpring.setVariableValue(child1, i, children[0]);
+                offSpring.setVariableValue(child2, i, children[1]);
+            } // for
+        } // if
+    } // execute
+
+    /**
+     * Computes the values of variable i for both children.
+     */
+    protected void crossover(int i, double valueX1, double valueX2, double[] children) {
         double rand;
         double y1, y2, yL, yU;
         double c1, c2;
         double alpha, beta, betaq;
-        double valueX1, valueX2;
-        if (RandomGenerator.nextDouble() <= probability) {
-            for (i = 0; i < parent1.getVariables().size(); i++) {
-                valueX1 = parent1.getVariables().get(i).getValue();
-                valueX2 = parent2.getVariables().get(i).getValue();
-                if (RandomGenerator.nextDouble() <= 0.5) {
+        if (RandomGenerator.nextDouble() <= 0.5) {
+
+            if (java.lang.Math.abs(valueX1 - valueX2) > EPS) {
+
+                if (valueX1 < valueX2) {
+                    y1 = valueX1;
+                    y2 = valueX2;
+                } else {
+                    y1 = valueX2;
+                    y2 = valueX1;
+                } // if
+
+                yL = problem.getLowerBound(i);
+                yU = problem.getUpperBound(i);
+                rand = RandomGenerator.nextDouble();
+                beta = 1.0 + (2.0 * (y1 - yL) / (y2 - y1));
+                alpha = 2.0 - java.lang.Math.pow(beta, -(eta_c + 1.0));
+
+                if (rand <= (1.0 / alpha)) {
+                    betaq = java.lang.Math.pow((rand * alpha), (1.0 / (eta_c + 1.0)));
+                } else {
+                    betaq = java.lang.Math.pow((1.0 / (2.0 - rand * alpha)), (1.0 / (eta_c + 1.0)));
+                } // if
+
+                c1 = 0.5 * ((y1 + y2) - betaq * (y2 - y1));
+                beta = 1.0 + (2.0 * (yU - y2) / (y2 - y1));
+                alpha = 2.0 - java.lang.Math.pow(beta, -(eta_c + 1.0));
+
+                if (rand <= (1.0 / alpha)) {
+                    betaq = java.lang.Math.pow((rand * alpha), (1.0 / (eta_c + 1.0)));
+                } else {
+                    betaq = java.lang.Math.pow((1.0 / (2.0 - rand * alpha)), (1.0 / (eta_c + 1.0)));
+                } // if
+
+                c2 = 0.5 * ((y1 + y2) + betaq * (y2 - y1));
+
+                if (c1 < yL) {
+                    c1 = yL;
+                }
+
+                if (c2 < yL) {
+                    c2 = yL;
+                }
+
+                if (c1 > yU) {
+                    c1 = yU;
+                }
 
-                    if (java.lang.Math.abs(valueX1 - valueX2) > EPS) {
-
-                        if (valueX1 < valueX2) {
-                            y1 = valueX1;
-                            y2 = valueX2;
-                        } else {
-                            y1 = valueX2;
-                            y2 = valueX1;
-                        } // if
-
-                        yL = problem.getLowerBound(i);
-                        yU = problem.getUpperBound(i);
-                        rand = RandomGenerator.nextDouble();
-                        beta = 1.0 + (2.0 * (y1 - yL) / (y2 - y1));
-                        alpha = 2.0 - java.lang.Math.pow(beta, -(eta_c + 1.0));
-
-                        if (rand <= (1.0 / alpha)) {
-                            betaq = java.lang.Math.pow((rand * alpha), (1.0 / (eta_c + 1.0)));
-                        } else {
-                            betaq = java.lang.Math.pow((1.0 / (2.0 - rand * alpha)), (1.0 / (eta_c + 1.0)));
-                        } // if
-
-                        c1 = 0.5 * ((y1 + y2) - betaq * (y2 - y1));
-                        beta = 1.0 + (2.0 * (yU - y2) / (y2 - y1));
-                        alpha = 2.0 - java.lang.Math.pow(beta, -(eta_c + 1.0));
-
-                        if (rand <= (1.0 / alpha)) {
-                            betaq = java.lang.Math.pow((rand * alpha), (1.0 / (eta_c + 1.0)));
-                        } else {
-                            betaq = java.lang.Math.pow((1.0 / (2.0 - rand * alpha)), (1.0 / (eta_c + 1.0)));
-                        } // if
-
-                        c2 = 0.5 * ((y1 + y2) + betaq * (y2 - y1));
-
-                        if (c1 < yL) {
-                            c1 = yL;
-                        }
-
-                        if (c2 < yL) {
-                            c2 = yL;
-                        }
-
-                        if (c1 > yU) {
-                            c1 = yU;
-                        }
-
-                        if (c2 > yU) {
-                            c2 = yU;
-                        }
-
-                        if (RandomGenerator.nextDouble() <= 0.5) {
-                            offSpring.get(0).getVariables().get(i).setValue(c2);
-                            offSpring.get(1).getVariables().get(i).setValue(c1);
-                        } else {
-                            offSpring.get(0).getVariables().get(i).setValue(c1);
-                            offSpring.get(1).getVariables().get(i).setValue(c2);
-                        } // if
-                    } else {
-                        offSpring.get(0).getVariables().get(i).setValue(valueX1);
-                        offSpring.get(1).getVariables().get(i).setValue(valueX2);
-                    } // if
+                if (c2 > yU) {
+                    c2 = yU;
+                }
+
+                if (RandomGenerator.nextDouble() <= 0.5) {
+                    children[0] = c2;
+                    children[1] = c1;
                 } else {
-                    offSpring.get(0).getVariables().get(i).setValue(valueX2);
-                    offSpring.get(1).getVariables().get(i).setValue(valueX1);
+                    children[0] = c1;
+                    children[1] = c2;
                 } // if
+            } else {
+                children[0] = valueX1;
+                children[1] = valueX2;
             } // if
+        } else {
+            children[0] = valueX2;
+            children[1] = valueX1;
         } // if
-        return offSpring;
-    } // doCrossover
+    } // crossover
 
     /**
      * Executes the operation
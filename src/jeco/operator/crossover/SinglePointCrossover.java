@@ -72,7 +72,7 @@ public class SinglePointCrossover<T extends Variable<?>> extends CrossoverOperat
         else if (repetition == AVOID_REPETITION_IN_FRONT) {
             boolean equals = true;
             for (int i = 0; i < problem.getNumberOfObjectives() && equals; ++i) {
-                equals = equals && (sol1.getObjective(i).equals(sol2.getObjective(i)));
+                equals = equals && (Double.compare(sol1.getObjectiveValue(i), sol2.getObjectiveValue(i)) == 0);
             }
             if (equals) {
                 Solution<T> tmp2 = problem.newRandomSetOfSolutions(1).get(0);
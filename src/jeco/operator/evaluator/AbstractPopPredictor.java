@@ -13,9 +13,16 @@ public abstract class AbstractPopPredictor {
     public abstract double[][] computeNewX(int idx, double[][] xx);
 
     public static String generateClassHeader(Integer threadId) {
+        return generateClassHeader(String.valueOf(threadId));
+    }
+
+    /**
+     * @param classId Suffix of the class name (PopPredictor + classId)
+     */
+    public static String generateClassHeader(String classId) {
         StringBuilder currentJavaFile = new StringBuilder();
         currentJavaFile.append("import java.util.ArrayList;\n\n");
-        currentJavaFile.append("public class PopPredictor").append(threadId).append(" extends algorithm.AbstractPopPredictor {\n");
+        currentJavaFile.append("public class PopPredictor").append(classId).append(" extends algorithm.AbstractPopPredictor {\n");
         return currentJavaFile.toString();
     }
 
@@ -101,8 +108,12 @@ public abstract class AbstractPopPredictor {
     }
 
     public static String generateClassCode(Integer threadId, ArrayList<String> phenotypes) {
+        return generateClassCode(String.valueOf(threadId), phenotypes);
+    }
+
+    public static String generateClassCode(String classId, ArrayList<String> phenotypes) {
         StringBuilder javaCode = new StringBuilder();
-        javaCode.append(generateClassHeader(threadId));
+        javaCode.append(generateClassHeader(classId));
         javaCode.append(generateComputeYp(phenotypes));
         javaCode.append(generateComputeNewX(phenotypes));
         javaCode.append(generateClassFooter());
@@ -2,6 +2,7 @@ package jeco.operator.mutation;
 
 import java.util.ArrayList;
 
+import jeco.problem.PopulationMatrix;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Variable;
@@ -37,40 +38,53 @@ public class PolynomialMutation<T extends Variable<Double>> extends MutationOper
 	} // PolynomialMutation
 
 	public Solution<T> execute(Solution<T> solution) {
-		double rnd, delta1, delta2, mut_pow, deltaq;
-		double y, yl, yu, val, xy;
-
 		ArrayList<T> variables = solution.getVariables();
 		for (int i = 0; i < variables.size(); ++i) {
 			T variable = variables.get(i);
 			if (RandomGenerator.nextDouble() <= probability) {
-				y = variable.getValue();
-				yl = problem.getLowerBound(i);
-				yu = problem.getUpperBound(i);
-				delta1 = (y - yl) / (yu - yl);
-				delta2 = (yu - y) / (yu - yl);
-				rnd = RandomGenerator.nextDouble();
-				mut_pow = 1.0 / (eta_m + 1.0);
-				if (rnd <= 0.5) {
-					xy = 1.0 - delta1;
-					val = 2.0 * rnd + (1.0 - 2.0 * rnd) * (Math.pow(xy, (eta_m + 1.0)));
-					deltaq = java.lang.Math.pow(val, mut_pow) - 1.0;
-				} else {
-					xy = 1.0 - delta2;
-					val = 2.0 * (1.0 - rnd) + 2.0 * (rnd - 0.5) * (java.lang.Math.pow(xy, (eta_m + 1.0)));
-					deltaq = 1.0 - (java.lang.Math.pow(val, mut_pow));
-				}
-				y = y + deltaq * (yu - yl);
-				if (y < yl) {
-					y = yl;
-				}
-				if (y > yu) {
-					y = yu;
-				}
-				variable.setValue(y);
+				variable.setValue(mutate(i, variable.getValue()));
 			}
 		}
 		return solution;
 	} // execute
+
+	/**
+	 * Mutates one row of a population matrix in place.
+	 */
+	public void execute(PopulationMatrix population, int row) {
+		for (int i = 0; i < population.getNumberOfVariables(); ++i) {
+			if (RandomGenerator.nextDouble() <= probability) {
+				population.setVariableValue(row, i, mutate(i, population.getVariableValue(row, i)));
+			}
+		}
+	} // execute
+
+	protected double mutate(int i, double y) {
+		double rnd, delta1, delta2, mut_pow, deltaq;
+		double yl, yu, val, xy;
+		yl = problem.getLowerBound(i);
+		yu = problem.getUpperBound(i);
+		delta1 = (y - yl) / (yu - yl);
+		delta2 = (yu - y) / (yu - yl);
+		rnd = RandomGenerator.nextDouble();
+		mut_pow = 1.0 / (eta_m + 1.0);
+		if (rnd <= 0.5) {
+			xy = 1.0 - delta1;
+			val = 2.0 * rnd + (1.0 - 2.0 * rnd) * (Math.pow(xy, (eta_m + 1.0)));
+			deltaq = java.lang.Math.pow(val, mut_pow) - 1.0;
+		} else {
+			xy = 1.0 - delta2;
+			val = 2.0 * (1.0 - rnd) + 2.0 * (rnd - 0.5) * (java.lang.Math.pow(xy, (eta_m + 1.0)));
+			deltaq = 1.0 - (java.lang.Math.pow(val, mut_pow));
+		}
+		y = y + deltaq * (yu - yl);
+		if (y < yl) {
+			y = yl;
+		}
+		if (y > yu) {
+			y = yu;
+		}
+		return y;
+	} // mutate
 } // PolynomialMutation
 
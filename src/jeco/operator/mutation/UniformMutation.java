@@ -2,6 +2,7 @@ package jeco.operator.mutation;
 
 import java.util.ArrayList;
 
+import jeco.problem.PopulationMatrix;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Variable;
@@ -37,22 +38,36 @@ public class UniformMutation<T extends Variable<Double>> extends MutationOperato
 		for (int i = 0; i < variables.size(); ++i) {
 			T variable = variables.get(i);
 			if (RandomGenerator.nextDouble() < probability) {
-				double rand = RandomGenerator.nextDouble();
-				double tmp = (rand - 0.5) * perturbationIndex;
-
-				tmp += variable.getValue();
-
-				if (tmp < problem.getLowerBound(i)) {
-					tmp = problem.getLowerBound(i);
-				} else if (tmp > problem.getUpperBound(i)) {
-					tmp = problem.getUpperBound(i);
-				}
-
-				variable.setValue(tmp);
+				variable.setValue(mutate(i, variable.getValue()));
 			}
 		}
 
 		return solution;
 	} // execute
+
+	/**
+	 * Mutates one row of a population matrix in place.
+	 */
+	public void execute(PopulationMatrix population, int row) {
+		for (int i = 0; i < population.getNumberOfVariables(); ++i) {
+			if (RandomGenerator.nextDouble() < probability) {
+				population.setVariableValue(row, i, mutate(i, population.getVariableValue(row, i)));
+			}
+		}
+	} // execute
+
+	protected double mutate(int i, double value) {
+		double rand = RandomGenerator.nextDouble();
+		double tmp = (rand - 0.5) * perturbationIndex;
+
+		tmp += value;
+
+		if (tmp < problem.getLowerBound(i)) {
+			tmp = problem.getLowerBound(i);
+		} else if (tmp > problem.getUpperBound(i)) {
+			tmp = problem.getUpperBound(i);
+		}
+		return tmp;
+	} // mutate
 } // UniformMutation
 
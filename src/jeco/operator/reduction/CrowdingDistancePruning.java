@@ -0,0 +1,38 @@
+package jeco.operator.reduction;
+
+import java.util.Collections;
+
+import jeco.operator.assigner.CrowdingDistance;
+import jeco.operator.comparator.PropertyComparator;
+import jeco.problem.ArchivePruning;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Keeps the members with the largest crowding distance. Members are sorted
+ * once by crowding distance (stable, ascending) and the first ones are
+ * dropped, as OMOPSO did with its leaders.
+ *
+ * @author José L. Risco-Martín
+ */
+public class CrowdingDistancePruning<V extends Variable<?>> extends ArchivePruning<V> {
+
+	protected CrowdingDistance<V> crowdingDistance;
+	protected PropertyComparator<V> comparator;
+
+	public CrowdingDistancePruning(int numberOfObjectives) {
+		this.crowdingDistance = new CrowdingDistance<V>(numberOfObjectives);
+		this.comparator = new PropertyComparator<V>(CrowdingDistance.attributeCrowdingDistance);
+	}
+
+	@Override
+	public Solutions<V> execute(Solutions<V> members, int capacity) {
+		if (members.size() <= capacity) {
+			return members;
+		}
+		crowdingDistance.execute(members);
+		Collections.sort(members, comparator);
+		members.subList(0, members.size() - capacity).clear();
+		return members;
+	}
+}
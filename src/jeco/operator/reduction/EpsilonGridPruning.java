@@ -0,0 +1,164 @@
+package jeco.operator.reduction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jeco.problem.ArchivePruning;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Thins the most crowded cells of an epsilon grid. Each objective is divided
+ * in boxes of size epsilon (fixed, or the range of the members divided by a
+ * number of divisions), starting at the ideal point of the members. While
+ * the archive is too big, the member farthest from the lower corner of the
+ * most crowded box is removed. When every box holds one member, epsilon is
+ * doubled.
+ *
+ * @author José L. Risco-Martín
+ */
+public class EpsilonGridPruning<V extends Variable<?>> extends ArchivePruning<V> {
+
+	protected double[] epsilons;
+	protected int divisions;
+
+	/**
+	 * Fixed box sizes.
+	 *
+	 * @param epsilons Box size of each objective
+	 */
+	public EpsilonGridPruning(double[] epsilons) {
+		this.epsilons = epsilons;
+		this.divisions = -1;
+	}
+
+	/**
+	 * Box sizes adapted to the range of the members.
+	 *
+	 * @param divisions Number of boxes per objective
+	 */
+	public EpsilonGridPruning(int divisions) {
+		this.epsilons = null;
+		this.divisions = divisions;
+	}
+
+	@Override
+	public Solutions<V> execute(Solutions<V> members, int capacity) {
+		int size = members.size();
+		if (size <= capacity) {
+			return members;
+		}
+		if (capacity <= 0) {
+			return new Solutions<V>();
+		}
+		int m = members.get(0).getNumberOfObjectives();
+		double[] lower = new double[m];
+		double[] eps = new double[m];
+		for (int k = 0; k < m; ++k) {
+			double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			for (Solution<V> member : members) {
+				min = Math.min(min, member.getObjectiveValue(k));
+				max = Math.max(max, member.getObjectiveValue(k));
+			}
+			lower[k] = min;
+			if (epsilons != null) {
+				eps[k] = epsilons[k];
+			} else {
+				eps[k] = max > min ? (max - min) / divisions : 1.0;
+			}
+		}
+
+		boolean[] removed = new boolean[size];
+		int alive = size;
+		while (alive > capacity) {
+			// Boxes in archive order of their first member
+			LinkedHashMap<Box, ArrayList<Integer>> boxes = new LinkedHashMap<Box, ArrayList<Integer>>();
+			for (int i = 0; i < size; ++i) {
+				if (removed[i]) {
+					continue;
+				}
+				Box box = new Box(members.get(i), lower, eps);
+				ArrayList<Integer> list = boxes.get(box);
+				if (list == null) {
+					list = new ArrayList<Integer>();
+					boxes.put(box, list);
+				}
+				list.add(i);
+			}
+			int crowded = 0;
+			for (ArrayList<Integer> list : boxes.values()) {
+				crowded = Math.max(crowded, list.size());
+			}
+			if (crowded == 1) {
+				for (int k = 0; k < m; ++k) {
+					eps[k] *= 2;
+				}
+				continue;
+			}
+			// Thin the most crowded boxes down to one member, or until the archive
+			// fits
+			for (Map.Entry<Box, ArrayList<Integer>> entry : boxes.entrySet()) {
+				ArrayList<Integer> list = entry.getValue();
+				if (list.size() < crowded) {
+					continue;
+				}
+				while (list.size() > 1 && alive > capacity) {
+					int worst = -1;
+					double worstDistance = -1;
+					for (int i : list) {
+						double distance = entry.getKey().distanceToCorner(members.get(i), lower, eps);
+						if (distance >= worstDistance) {
+							worst = i;
+							worstDistance = distance;
+						}
+					}
+					removed[worst] = true;
+					alive--;
+					list.remove(Integer.valueOf(worst));
+				}
+			}
+		}
+
+		Solutions<V> kept = new Solutions<V>();
+		for (int i = 0; i < size; ++i) {
+			if (!removed[i]) {
+				kept.add(members.get(i));
+			}
+		}
+		return kept;
+	}
+
+	private static class Box {
+
+		private final long[] coordinates;
+
+		private Box(Solution<?> solution, double[] lower, double[] eps) {
+			coordinates = new long[lower.length];
+			for (int k = 0; k < lower.length; ++k) {
+				coordinates[k] = (long) Math.floor((solution.getObjectiveValue(k) - lower[k]) / eps[k]);
+			}
+		}
+
+		private double distanceToCorner(Solution<?> solution, double[] lower, double[] eps) {
+			double sum = 0;
+			for (int k = 0; k < lower.length; ++k) {
+				double diff = (solution.getObjectiveValue(k) - lower[k]) / eps[k] - coordinates[k];
+				sum += diff * diff;
+			}
+			return sum;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Box && Arrays.equals(coordinates, ((Box) object).coordinates);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(coordinates);
+		}
+	}
+}
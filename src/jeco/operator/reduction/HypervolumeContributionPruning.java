@@ -0,0 +1,149 @@
+package jeco.operator.reduction;
+
+import jeco.problem.ArchivePruning;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.indicator.Hypervolume;
+import jeco.util.indicator.HypervolumeContributions;
+
+/**
+ * Removes, one at a time, the member with the lowest exclusive hypervolume
+ * contribution. When the members are mutually non-dominated, distinct and
+ * inside the reference box (the usual case for an archive), contributions
+ * are kept in a <code>HypervolumeContributions</code> and only updated after
+ * every removal; otherwise they are recomputed with
+ * <code>Hypervolume.contributions()</code>. Ties are broken by the lowest
+ * member index in the second case, and by the internal order of
+ * <code>HypervolumeContributions</code> in the first one.
+ *
+ * If no reference point is given, the nadir point of the members plus 10%
+ * of their range (or 1 if the range is 0) is used.
+ *
+ * @author José L. Risco-Martín
+ */
+public class HypervolumeContributionPruning<V extends Variable<?>> extends ArchivePruning<V> {
+
+	protected double[] referencePoint;
+
+	public HypervolumeContributionPruning(double[] referencePoint) {
+		this.referencePoint = referencePoint;
+	}
+
+	public HypervolumeContributionPruning() {
+		this(null);
+	}
+
+	@Override
+	public Solutions<V> execute(Solutions<V> members, int capacity) {
+		int size = members.size();
+		if (size <= capacity) {
+			return members;
+		}
+		if (capacity <= 0) {
+			return new Solutions<V>();
+		}
+		int m = members.get(0).getNumberOfObjectives();
+		double[][] points = new double[size][m];
+		for (int i = 0; i < size; ++i) {
+			for (int k = 0; k < m; ++k) {
+				points[i][k] = members.get(i).getObjectiveValue(k);
+			}
+		}
+		double[] reference = referencePoint != null ? referencePoint : defaultReferencePoint(points, m);
+
+		boolean[] removed = new boolean[size];
+		if (incremental(points, reference)) {
+			HypervolumeContributions contributions = new HypervolumeContributions(reference);
+			contributions.addAll(points);
+			// Member at every index of contributions
+			int[] ids = new int[size];
+			for (int i = 0; i < size; ++i) {
+				ids[i] = i;
+			}
+			while (contributions.size() > capacity) {
+				int worst = contributions.getLeastContributor();
+				removed[ids[worst]] = true;
+				ids[worst] = ids[contributions.size() - 1];
+				contributions.remove(worst);
+			}
+			return kept(members, removed);
+		}
+		int alive = size;
+		while (alive > capacity) {
+			int[] indexes = new int[alive];
+			for (int i = 0, count = 0; i < size; ++i) {
+				if (!removed[i]) {
+					indexes[count++] = i;
+				}
+			}
+			double[][] front = new double[alive][];
+			for (int c = 0; c < alive; ++c) {
+				front[c] = points[indexes[c]];
+			}
+			double[] contributions = Hypervolume.contributions(front, reference);
+			int worst = 0;
+			for (int c = 1; c < alive; ++c) {
+				if (contributions[c] < contributions[worst]) {
+					worst = c;
+				}
+			}
+			removed[indexes[worst]] = true;
+			alive--;
+		}
+
+		return kept(members, removed);
+	}
+
+	private Solutions<V> kept(Solutions<V> members, boolean[] removed) {
+		Solutions<V> kept = new Solutions<V>();
+		for (int i = 0; i < removed.length; ++i) {
+			if (!removed[i]) {
+				kept.add(members.get(i));
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * @return true if no point weakly dominates another one and all of them
+	 * are strictly inside the reference box.
+	 */
+	private static boolean incremental(double[][] points, double[] reference) {
+		int m = reference.length;
+		for (double[] p : points) {
+			for (int k = 0; k < m; ++k) {
+				if (!(p[k] < reference[k])) {
+					return false;
+				}
+			}
+		}
+		for (int i = 0; i < points.length; ++i) {
+			for (int j = 0; j < points.length; ++j) {
+				if (i == j) {
+					continue;
+				}
+				boolean weaklyDominates = true;
+				for (int k = 0; k < m && weaklyDominates; ++k) {
+					weaklyDominates = points[i][k] <= points[j][k];
+				}
+				if (weaklyDominates) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static double[] defaultReferencePoint(double[][] points, int m) {
+		double[] reference = new double[m];
+		for (int k = 0; k < m; ++k) {
+			double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			for (double[] point : points) {
+				min = Math.min(min, point[k]);
+				max = Math.max(max, point[k]);
+			}
+			reference[k] = max > min ? max + 0.1 * (max - min) : max + 1.0;
+		}
+		return reference;
+	}
+}
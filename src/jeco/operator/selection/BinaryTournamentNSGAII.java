@@ -52,9 +52,9 @@ public class BinaryTournamentNSGAII<T extends Variable<?>> extends SelectionOper
             result.add(solution1);
         } else if (flag > 0) {
             result.add(solution2);
-        } else if (solution1.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue() > solution2.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue()) {
+        } else if (solution1.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance) > solution2.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance)) {
             result.add(solution1);
-        } else if (solution2.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue() > solution1.getProperties().get(CrowdingDistance.propertyCrowdingDistance).doubleValue()) {
+        } else if (solution2.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance) > solution1.getDoubleAttribute(CrowdingDistance.attributeCrowdingDistance)) {
             result.add(solution2);
         } else if (RandomGenerator.nextDouble() < 0.5) {
             result.add(solution1);
@@ -0,0 +1,317 @@
+package jeco.optimization.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Socket between a <code>SocketEvaluator</code> and a
+ * <code>SocketWorker</code>, over TCP ("host:port") or a Unix-domain socket
+ * ("unix:path"), with the messages of both sides. One thread may read while
+ * another one writes.
+ *
+ * Messages start with their type. The worker sends HELLO (magic number and
+ * version) when it connects, and then RESULT (id and objectives), ERROR (id
+ * and message) and HEARTBEAT. The coordinator sends EVALUATE (a batch of
+ * ids and variable values) and SHUTDOWN.
+ *
+ * @author José L. Risco-Martín
+ */
+public class Connection implements Closeable {
+
+    public static final int MAGIC = 0x4A45434F;
+    public static final int VERSION = 1;
+    public static final byte HELLO = 1;
+    public static final byte EVALUATE = 2;
+    public static final byte RESULT = 3;
+    public static final byte ERROR = 4;
+    public static final byte HEARTBEAT = 5;
+    public static final byte SHUTDOWN = 6;
+    // Types of variable values
+    protected static final byte TYPE_DOUBLE = 'D';
+    protected static final byte TYPE_INTEGER = 'I';
+    protected static final byte TYPE_LONG = 'J';
+    protected static final byte TYPE_BOOLEAN = 'Z';
+    protected static final byte TYPE_STRING = 'S';
+    protected static final byte TYPE_OBJECT = 'O';
+    protected static final int BUFFER_SIZE = 1 << 16;
+
+    protected SocketChannel channel;
+    protected DataInputStream in;
+    protected DataOutputStream out;
+
+    public Connection(final SocketChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.getRemoteAddress() instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        in = new DataInputStream(new BufferedInputStream(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return channel.read(ByteBuffer.wrap(b, off, len));
+            }
+        }, BUFFER_SIZE));
+        out = new DataOutputStream(new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }, BUFFER_SIZE));
+    }
+
+    /**
+     * @param address "host:port" or "unix:path"
+     */
+    public static Connection connect(String address) throws IOException {
+        SocketAddress socketAddress = parse(address);
+        SocketChannel channel = SocketChannel.open(socketAddress instanceof UnixDomainSocketAddress ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET);
+        channel.connect(socketAddress);
+        return new Connection(channel);
+    }
+
+    /**
+     * Listens on the given address. A stale Unix-domain socket file is
+     * replaced. Port 0 selects a free port.
+     */
+    public static ServerSocketChannel bind(String address) throws IOException {
+        SocketAddress socketAddress = parse(address);
+        ServerSocketChannel server;
+        if (socketAddress instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) socketAddress).getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+        }
+        server.bind(socketAddress);
+        return server;
+    }
+
+    public static SocketAddress parse(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring(5));
+        }
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Address must be host:port or unix:path: " + address);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * @return The address as given to parse().
+     */
+    public static String format(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress) {
+            return "unix:" + ((UnixDomainSocketAddress) address).getPath();
+        }
+        InetSocketAddress inet = (InetSocketAddress) address;
+        return inet.getAddress().getHostAddress() + ":" + inet.getPort();
+    }
+
+    /**
+     * Removes the file of a Unix-domain socket.
+     */
+    public static void unlink(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress) {
+            Path path = ((UnixDomainSocketAddress) address).getPath();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // Nothing to do
+            }
+        }
+    }
+
+    public void writeHello() throws IOException {
+        synchronized (out) {
+            out.writeByte(HELLO);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.flush();
+        }
+    }
+
+    public void readHello() throws IOException {
+        if (in.readByte() != HELLO || in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown protocol.");
+        }
+    }
+
+    /**
+     * Writes the variables of a batch of solutions (not flushed).
+     */
+    public <V extends Variable<?>> void writeEvaluate(long[] ids, Solutions<V> solutions) throws IOException {
+        synchronized (out) {
+            out.writeByte(EVALUATE);
+            out.writeInt(solutions.size());
+            for (int i = 0; i < solutions.size(); ++i) {
+                out.writeLong(ids[i]);
+                writeVariables(solutions.get(i));
+            }
+        }
+    }
+
+    public void writeResult(long id, Solution<?> solution) throws IOException {
+        synchronized (out) {
+            out.writeByte(RESULT);
+            out.writeLong(id);
+            int m = solution.getNumberOfObjectives();
+            out.writeInt(m);
+            for (int i = 0; i < m; ++i) {
+                out.writeDouble(solution.getObjectiveValue(i));
+            }
+        }
+    }
+
+    public void writeError(long id, String message) throws IOException {
+        synchronized (out) {
+            out.writeByte(ERROR);
+            out.writeLong(id);
+            out.writeUTF(message == null ? "" : message);
+        }
+    }
+
+    public void writeHeartbeat() throws IOException {
+        synchronized (out) {
+            out.writeByte(HEARTBEAT);
+            out.flush();
+        }
+    }
+
+    public void writeShutdown() throws IOException {
+        synchronized (out) {
+            out.writeByte(SHUTDOWN);
+            out.flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        synchronized (out) {
+            out.flush();
+        }
+    }
+
+    public DataInputStream getInput() {
+        return in;
+    }
+
+    protected void writeVariables(Solution<?> solution) throws IOException {
+        int n = solution.getVariables().size();
+        out.writeInt(n);
+        for (int i = 0; i < n; ++i) {
+            Object value = solution.getVariable(i).getValue();
+            if (value instanceof Double) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(TYPE_INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof String) {
+                out.writeByte(TYPE_STRING);
+                out.writeUTF((String) value);
+            } else if (value instanceof Serializable) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(value);
+                }
+                out.writeByte(TYPE_OBJECT);
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            } else {
+                throw new IOException("Variable " + i + " cannot be serialized: " + value);
+            }
+        }
+    }
+
+    /**
+     * @return Values of the variables written by writeVariables().
+     */
+    public Object[] readVariables() throws IOException {
+        Object[] values = new Object[in.readInt()];
+        for (int i = 0; i < values.length; ++i) {
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_DOUBLE:
+                    values[i] = in.readDouble();
+                    break;
+                case TYPE_INTEGER:
+                    values[i] = in.readInt();
+                    break;
+                case TYPE_LONG:
+                    values[i] = in.readLong();
+                    break;
+                case TYPE_BOOLEAN:
+                    values[i] = in.readBoolean();
+                    break;
+                case TYPE_STRING:
+                    values[i] = in.readUTF();
+                    break;
+                case TYPE_OBJECT:
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                        values[i] = objects.readObject();
+                    } catch (ClassNotFoundException e) {
+                        throw new IOException(e);
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown variable type: " + type);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package jeco.optimization.distributed;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import jeco.algorithm.Algorithm;
+import jeco.algorithm.moga.NSGAII;
+import jeco.operator.crossover.SBXCrossover;
+import jeco.operator.mutation.PolynomialMutation;
+import jeco.operator.selection.BinaryTournamentNSGAII;
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.problems.zdt.ZDT1;
+import jeco.util.logger.JecoLogger;
+
+/**
+ * Distributed version of <code>MasterWorkerThreads</code>: solutions are
+ * evaluated by <code>SocketWorker</code> processes, each one with its own
+ * problem instance, which connect to this coordinator over TCP or a
+ * Unix-domain socket. Workers can connect at any time, even during an
+ * evaluation.
+ *
+ * Solutions are sent in batches of up to batchSize, and each worker keeps up
+ * to window solutions in flight, so it always has the next batch while it
+ * evaluates. A worker that closes its connection or misses its heartbeats
+ * for heartbeatTimeout milliseconds is dropped, and its solutions are sent
+ * to the other workers. Evaluation errors reported by a worker are not
+ * retried: evaluate() throws a RuntimeException.
+ *
+ * Only variable values go to the workers and only objectives come back.
+ *
+ * @author José L. Risco-Martín
+ */
+public class SocketEvaluator<V extends Variable<?>> extends Problem<V> {
+
+    private static final Logger logger = Logger.getLogger(SocketEvaluator.class.getName());
+    public static final int DEFAULT_BATCH_SIZE = 8;
+    public static final int DEFAULT_WINDOW = 32;
+    public static final long DEFAULT_HEARTBEAT_TIMEOUT = 10000;
+    // Time between warnings while an evaluation waits with no workers
+    protected static final long WAITING_REPORT = 10000;
+
+    protected Algorithm<V> algorithm = null;
+    protected Problem<V> problem = null;
+    protected String address;
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+    protected int window = DEFAULT_WINDOW;
+    protected long heartbeatTimeout = DEFAULT_HEARTBEAT_TIMEOUT;
+    protected ServerSocketChannel server = null;
+    protected SocketAddress boundAddress = null;
+    protected Thread acceptor;
+    protected Thread monitor;
+    protected boolean closed = false;
+    // Solutions waiting for a worker, and workers connected
+    protected ArrayDeque<Job<V>> queue = new ArrayDeque<>();
+    protected ArrayList<Remote> remotes = new ArrayList<>();
+    protected ArrayList<Process> processes = new ArrayList<>();
+    protected long nextId = 0;
+    protected int numberOfRedispatched = 0;
+    protected int numberOfLostWorkers = 0;
+    protected int numberOfConnections = 0;
+
+    /**
+     * @param algorithm Algorithm run by execute(), or null
+     * @param problem Problem, used by the coordinator to create solutions
+     * @param address Address to listen on: "host:port" (port 0 for any free
+     * port) or "unix:path"
+     */
+    public SocketEvaluator(Algorithm<V> algorithm, Problem<V> problem, String address) {
+        super(problem.getNumberOfVariables(), problem.getNumberOfObjectives());
+        for (int i = 0; i < numberOfVariables; ++i) {
+            super.lowerBound[i] = problem.getLowerBound(i);
+            super.upperBound[i] = problem.getUpperBound(i);
+        }
+        this.algorithm = algorithm;
+        this.problem = problem;
+        this.address = address;
+    }
+
+    public SocketEvaluator(Problem<V> problem, String address) {
+        this(null, problem, address);
+    }
+
+    /**
+     * Starts listening for workers, if it was not.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        closed = false;
+        server = Connection.bind(address);
+        boundAddress = server.getLocalAddress();
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, SocketEvaluator.class.getSimpleName() + "-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        monitor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                monitor();
+            }
+        }, SocketEvaluator.class.getSimpleName() + "-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+        logger.info("Waiting for workers at " + getAddress());
+    }
+
+    /**
+     * @return Address the workers must connect to (with the actual port if 0
+     * was given), or null if not started.
+     */
+    public synchronized String getAddress() {
+        return boundAddress == null ? null : Connection.format(boundAddress);
+    }
+
+    /**
+     * Starts worker processes on this machine, with the class path of this
+     * JVM. They are destroyed by shutdown().
+     *
+     * @param n Number of workers
+     * @param problemClass Problem class, with a constructor that takes args
+     * @param args String arguments of the constructor
+     */
+    public List<Process> spawnWorkers(int n, String problemClass, String... args) throws IOException {
+        start();
+        ArrayList<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SocketWorker.class.getName());
+        command.add(getAddress());
+        command.add(problemClass);
+        command.addAll(Arrays.asList(args));
+        ArrayList<Process> spawned = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.inheritIO();
+            spawned.add(builder.start());
+        }
+        synchronized (this) {
+            processes.addAll(spawned);
+        }
+        return spawned;
+    }
+
+    /**
+     * Sends the solutions to the workers and waits for their objectives.
+     *
+     * @throws RuntimeException If the coordinator cannot listen, or a worker
+     * reports an evaluation error.
+     */
+    @Override
+    public void evaluate(Solutions<V> solutions) {
+        try {
+            start();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot listen on " + address + ": " + e.getLocalizedMessage(), e);
+        }
+        Batch batch = new Batch(solutions.size());
+        boolean interrupted = false;
+        synchronized (this) {
+            for (Solution<V> solution : solutions) {
+                queue.add(new Job<>(nextId++, solution, batch));
+            }
+            notifyAll();
+            long lastReport = System.currentTimeMillis();
+            while (batch.remaining > 0 && batch.failure == null) {
+                try {
+                    wait(WAITING_REPORT);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                if (remotes.isEmpty() && System.currentTimeMillis() - lastReport >= WAITING_REPORT) {
+                    logger.warning(batch.remaining + " solutions waiting for workers at " + getAddress());
+                    lastReport = System.currentTimeMillis();
+                }
+            }
+            if (batch.failure != null) {
+                // Solutions of this batch not sent yet are dropped
+                Iterator<Job<V>> iterator = queue.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().batch == batch) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (batch.failure != null) {
+            throw new RuntimeException("Evaluation failed: " + batch.failure);
+        }
+    }
+
+    @Override
+    public void evaluate(Solution<V> solution) {
+        Solutions<V> solutions = new Solutions<>();
+        solutions.add(solution);
+        evaluate(solutions);
+    }
+
+    @Override
+    public Solutions<V> newRandomSetOfSolutions(int size) {
+        return problem.newRandomSetOfSolutions(size);
+    }
+
+    public Solutions<V> execute() {
+        algorithm.setProblem(this);
+        try {
+            algorithm.initialize();
+            return algorithm.execute();
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops listening, tells the workers to finish and destroys the spawned
+     * processes that are still alive.
+     */
+    public void shutdown() {
+        ArrayList<Remote> remaining;
+        ArrayList<Process> spawned;
+        synchronized (this) {
+            if (server == null) {
+                return;
+            }
+            closed = true;
+            try {
+                server.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            Connection.unlink(boundAddress);
+            server = null;
+            remaining = new ArrayList<>(remotes);
+            spawned = new ArrayList<>(processes);
+            processes.clear();
+            notifyAll();
+        }
+        for (Remote remote : remaining) {
+            try {
+                remote.connection.writeShutdown();
+            } catch (IOException e) {
+                // It is leaving anyway
+            }
+            remote.die(null);
+        }
+        for (Process process : spawned) {
+            try {
+                if (!process.waitFor(heartbeatTimeout, TimeUnit.MILLISECONDS)) {
+                    process.destroy();
+                }
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public synchronized int getNumberOfWorkers() {
+        return remotes.size();
+    }
+
+    /**
+     * @return Solutions sent again because their worker was lost.
+     */
+    public synchronized int getNumberOfRedispatched() {
+        return numberOfRedispatched;
+    }
+
+    public synchronized int getNumberOfLostWorkers() {
+        return numberOfLostWorkers;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public void setHeartbeatTimeout(long heartbeatTimeout) {
+        this.heartbeatTimeout = heartbeatTimeout;
+    }
+
+    @Override
+    public Problem<V> clone() {
+        logger.severe("This evaluator cannot be cloned.");
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        JecoLogger.setup();
+        long begin = System.currentTimeMillis();
+        ZDT1 problem = new ZDT1();
+        NSGAII<Variable<Double>> algorithm = new NSGAII<Variable<Double>>(problem, 100, 250, new PolynomialMutation<Variable<Double>>(problem), new SBXCrossover<Variable<Double>>(problem), new BinaryTournamentNSGAII<Variable<Double>>());
+        // Coordinator on any free port, and four worker processes
+        SocketEvaluator<Variable<Double>> evaluator = new SocketEvaluator<Variable<Double>>(algorithm, problem, "127.0.0.1:0");
+        evaluator.spawnWorkers(4, ZDT1.class.getName());
+        Solutions<Variable<Double>> solutions = evaluator.execute();
+        for (Solution<Variable<Double>> solution : solutions) {
+            logger.fine("Fitness = (" + solution.getObjectiveValue(0) + ", " + solution.getObjectiveValue(1) + ")");
+        }
+        long end = System.currentTimeMillis();
+        logger.info(solutions.size() + " solutions. Time: " + ((end - begin) / 1000.0) + " seconds");
+    }
+
+    protected void accept() {
+        ServerSocketChannel current;
+        synchronized (this) {
+            current = server;
+        }
+        while (current != null && current.isOpen()) {
+            try {
+                SocketChannel channel = current.accept();
+                new Remote(new Connection(channel)).start();
+            } catch (IOException e) {
+                if (current.isOpen()) {
+                    logger.warning("Error accepting a worker: " + e.getLocalizedMessage());
+                }
+            }
+        }
+    }
+
+    protected void monitor() {
+        while (true) {
+            ArrayList<Remote> lost = new ArrayList<>();
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                for (Remote remote : remotes) {
+                    if (now - remote.lastSeen > heartbeatTimeout) {
+                        lost.add(remote);
+                    }
+                }
+            }
+            for (Remote remote : lost) {
+                remote.die("no heartbeat for " + heartbeatTimeout + " ms");
+            }
+            try {
+                Thread.sleep(Math.max(1, heartbeatTimeout / 4));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Solutions of one call to evaluate().
+     */
+    protected static class Batch {
+
+        protected int remaining;
+        protected String failure = null;
+
+        public Batch(int remaining) {
+            this.remaining = remaining;
+        }
+    }
+
+    protected static class Job<V extends Variable<?>> {
+
+        protected long id;
+        protected Solution<V> solution;
+        protected Batch batch;
+
+        public Job(long id, Solution<V> solution, Batch batch) {
+            this.id = id;
+            this.solution = solution;
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Connection to one worker: a thread that reads its messages and another
+     * one that sends it batches. All the state is guarded by the evaluator.
+     */
+    protected class Remote {
+
+        protected Connection connection;
+        protected String name;
+        protected LinkedHashMap<Long, Job<V>> inFlight = new LinkedHashMap<>();
+        protected long lastSeen;
+        protected boolean dead = false;
+
+        public Remote(Connection connection) {
+            this.connection = connection;
+        }
+
+        public void start() {
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    read();
+                }
+            }, SocketEvaluator.class.getSimpleName() + "-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        protected void read() {
+            DataInputStream in = connection.getInput();
+            try {
+                connection.readHello();
+                synchronized (SocketEvaluator.this) {
+                    if (closed) {
+                        connection.close();
+                        return;
+                    }
+                    lastSeen = System.currentTimeMillis();
+                    name = "Worker-" + (numberOfConnections++);
+                    remotes.add(this);
+                    SocketEvaluator.this.notifyAll();
+                }
+                logger.info(name + " connected.");
+                Thread writer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        write();
+                    }
+                }, SocketEvaluator.class.getSimpleName() + "-writer");
+                writer.setDaemon(true);
+                writer.start();
+                double[] objectives = new double[0];
+                while (true) {
+                    byte type = in.readByte();
+                    long id;
+                    switch (type) {
+                        case Connection.RESULT:
+                            id = in.readLong();
+                            int m = in.readInt();
+                            if (objectives.length != m) {
+                                objectives = new double[m];
+                            }
+                            for (int i = 0; i < m; ++i) {
+                                objectives[i] = in.readDouble();
+                            }
+                            synchronized (SocketEvaluator.this) {
+                                lastSeen = System.currentTimeMillis();
+                                Job<V> job = inFlight.remove(id);
+                                if (job != null) {
+                                    for (int i = 0; i < m; ++i) {
+                                        job.solution.setObjectiveValue(i, objectives[i]);
+                                    }
+                                    job.batch.remaining--;
+                                    SocketEvaluator.this.notifyAll();
+                                }
+                            }
+                            break;
+                        case Connection.ERROR:
+                            id = in.readLong();
+                            String message = in.readUTF();
+                            synchronized (SocketEvaluator.this) {
+                                lastSeen = System.currentTimeMillis();
+                                Job<V> job = inFlight.remove(id);
+                                if (job != null) {
+                                    job.batch.remaining--;
+                                    if (job.batch.failure == null) {
+                                        job.batch.failure = name + ": " + message;
+                                    }
+                                    SocketEvaluator.this.notifyAll();
+                                }
+                            }
+                            break;
+                        case Connection.HEARTBEAT:
+                            synchronized (SocketEvaluator.this) {
+                                lastSeen = System.currentTimeMillis();
+                            }
+                            break;
+                        default:
+                            throw new IOException("Unknown message: " + type);
+                    }
+                }
+            } catch (IOException e) {
+                die(e.getLocalizedMessage());
+            }
+        }
+
+        protected void write() {
+            long[] ids = new long[batchSize];
+            Solutions<V> solutions = new Solutions<V>();
+            try {
+                while (true) {
+                    int size = 0;
+                    synchronized (SocketEvaluator.this) {
+                        while (!dead && !closed && (inFlight.size() >= window || queue.isEmpty())) {
+                            SocketEvaluator.this.wait();
+                        }
+                        if (dead || closed) {
+                            return;
+                        }
+                        int free = Math.min(batchSize, window - inFlight.size());
+                        while (size < free && !queue.isEmpty()) {
+                            Job<V> job = queue.poll();
+                            if (job.batch.failure != null) {
+                                continue;
+                            }
+                            inFlight.put(job.id, job);
+                            ids[size++] = job.id;
+                            solutions.add(job.solution);
+                        }
+                    }
+                    if (size > 0) {
+                        connection.writeEvaluate(ids, solutions);
+                        connection.flush();
+                    }
+                    solutions.clear();
+                }
+            } catch (IOException e) {
+                die(e.getLocalizedMessage());
+            } catch (InterruptedException e) {
+                die("interrupted");
+            }
+        }
+
+        /**
+         * Drops the worker and queues its solutions again, first.
+         *
+         * @param reason Why it is lost, or null if it was shut down
+         */
+        protected void die(String reason) {
+            synchronized (SocketEvaluator.this) {
+                if (dead) {
+                    return;
+                }
+                dead = true;
+                boolean registered = remotes.remove(this);
+                ArrayList<Job<V>> jobs = new ArrayList<>(inFlight.values());
+                for (int i = jobs.size() - 1; i >= 0; --i) {
+                    queue.addFirst(jobs.get(i));
+                }
+                inFlight.clear();
+                if (reason != null && registered) {
+                    numberOfLostWorkers++;
+                    numberOfRedispatched += jobs.size();
+                    logger.warning(name + " lost (" + reason + "). " + jobs.size() + " solutions sent again.");
+                }
+                SocketEvaluator.this.notifyAll();
+            }
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package jeco.optimization.distributed;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Logger;
+
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Worker process of a <code>SocketEvaluator</code>: connects to it, evaluates
+ * the solutions it sends with its own problem and sends back their
+ * objectives. Batches are read while the previous ones are evaluated, and a
+ * heartbeat is sent every HEARTBEAT_INTERVAL milliseconds, even during long
+ * evaluations.
+ *
+ * Every batch is evaluated as one set through evaluate(Solutions), so
+ * problems that only evaluate in batches (GramEvalTemporalModel, the
+ * Parkinson classifiers) can be workers too.
+ *
+ * Usage: java jeco.optimization.distributed.SocketWorker address
+ * problemClass [args ...], where problemClass has a public constructor with
+ * as many parameters as args. Parameters may be strings, numbers, booleans,
+ * or Properties, loaded from the file named by the argument; for instance,
+ * GramEvalTemporalModel file.properties 2.
+ *
+ * @author José L. Risco-Martín
+ */
+public class SocketWorker<V extends Variable<?>> {
+
+    private static final Logger logger = Logger.getLogger(SocketWorker.class.getName());
+    public static final long HEARTBEAT_INTERVAL = 1000;
+
+    protected Problem<V> problem;
+    protected String address;
+    protected Connection connection;
+    protected Solution<V> template = null;
+    protected LinkedBlockingQueue<Request[]> requests = new LinkedBlockingQueue<>();
+    protected volatile boolean finished = false;
+    protected int numberOfEvaluations = 0;
+
+    public SocketWorker(Problem<V> problem, String address) {
+        this.problem = problem;
+        this.address = address;
+    }
+
+    /**
+     * Evaluates until the coordinator sends SHUTDOWN or closes the
+     * connection.
+     */
+    public void run() throws IOException {
+        connection = Connection.connect(address);
+        connection.writeHello();
+        Thread evaluator = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                evaluate();
+            }
+        }, SocketWorker.class.getSimpleName() + "-evaluator");
+        evaluator.start();
+        Thread heartbeat = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                beat();
+            }
+        }, SocketWorker.class.getSimpleName() + "-heartbeat");
+        heartbeat.setDaemon(true);
+        heartbeat.start();
+        DataInputStream in = connection.getInput();
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == Connection.SHUTDOWN) {
+                    break;
+                }
+                if (type != Connection.EVALUATE) {
+                    throw new IOException("Unknown message: " + type);
+                }
+                Request[] batch = new Request[in.readInt()];
+                for (int i = 0; i < batch.length; ++i) {
+                    long id = in.readLong();
+                    batch[i] = new Request(id, connection.readVariables());
+                }
+                requests.add(batch);
+            }
+        } catch (IOException e) {
+            if (!finished) {
+                logger.info("Connection closed: " + e.getLocalizedMessage());
+            }
+        } finally {
+            finished = true;
+            requests.add(new Request[0]);
+            try {
+                evaluator.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            connection.close();
+        }
+    }
+
+    public int getNumberOfEvaluations() {
+        return numberOfEvaluations;
+    }
+
+    /**
+     * Evaluates the batches until the reader sends an empty one. If it ends
+     * any other way, the connection is closed so that the coordinator drops
+     * this worker and sends its solutions to the others.
+     */
+    protected void evaluate() {
+        boolean ended = false;
+        try {
+            while (true) {
+                Request[] batch = requests.take();
+                if (batch.length == 0) {
+                    ended = true;
+                    return;
+                }
+                Solutions<V> solutions = new Solutions<V>();
+                Throwable failure = null;
+                try {
+                    for (Request request : batch) {
+                        solutions.add(newSolution(request.values));
+                    }
+                    problem.evaluate(solutions);
+                } catch (Throwable t) {
+                    logger.severe("Evaluation error: " + t.getLocalizedMessage());
+                    failure = t;
+                }
+                for (int i = 0; i < batch.length; ++i) {
+                    if (failure == null) {
+                        connection.writeResult(batch[i].id, solutions.get(i));
+                    } else {
+                        connection.writeError(batch[i].id, failure.toString());
+                    }
+                }
+                numberOfEvaluations += batch.length;
+                connection.flush();
+            }
+        } catch (IOException e) {
+            // The coordinator is gone
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.severe("Evaluator stopped: " + e.toString());
+        } finally {
+            if (!ended) {
+                finished = true;
+                connection.close();
+            }
+        }
+    }
+
+    protected void beat() {
+        while (!finished) {
+            try {
+                connection.writeHeartbeat();
+                Thread.sleep(HEARTBEAT_INTERVAL);
+            } catch (IOException e) {
+                return;
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return A solution of the problem with the given variable values.
+     */
+    @SuppressWarnings("unchecked")
+    protected Solution<V> newSolution(Object[] values) {
+        if (template == null) {
+            template = problem.newRandomSetOfSolutions(1).get(0);
+        }
+        Solution<V> solution = template.clone();
+        ArrayList<V> variables = solution.getVariables();
+        while (variables.size() > values.length) {
+            variables.remove(variables.size() - 1);
+        }
+        while (variables.size() < values.length) {
+            variables.add((V) variables.get(variables.size() - 1).clone());
+        }
+        for (int i = 0; i < values.length; ++i) {
+            ((Variable<Object>) variables.get(i)).setValue(values[i]);
+        }
+        return solution;
+    }
+
+    protected static class Request {
+
+        protected long id;
+        protected Object[] values;
+
+        public Request(long id, Object[] values) {
+            this.id = id;
+            this.values = values;
+        }
+    }
+
+    /**
+     * @param className Problem class
+     * @param args Arguments of a public constructor with as many parameters.
+     * Each one is converted to the type of its parameter: String, a
+     * primitive number or boolean (or its wrapper), or Properties (the
+     * argument is the path of the file to load). Constructors with more
+     * String parameters are tried first.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V extends Variable<?>> Problem<V> newProblem(String className, String... args) throws ReflectiveOperationException, IOException {
+        Class<?> type = Class.forName(className);
+        ArrayList<Constructor<?>> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : type.getConstructors()) {
+            if (constructor.getParameterTypes().length == args.length) {
+                constructors.add(constructor);
+            }
+        }
+        Collections.sort(constructors, new Comparator<Constructor<?>>() {
+            @Override
+            public int compare(Constructor<?> c1, Constructor<?> c2) {
+                return Integer.compare(numberOfStrings(c2), numberOfStrings(c1));
+            }
+        });
+        for (Constructor<?> constructor : constructors) {
+            Class<?>[] parameters = constructor.getParameterTypes();
+            Object[] values = new Object[args.length];
+            boolean converted = true;
+            for (int i = 0; i < args.length && converted; ++i) {
+                values[i] = convert(args[i], parameters[i]);
+                converted = values[i] != null;
+            }
+            if (converted) {
+                return (Problem<V>) constructor.newInstance(values);
+            }
+        }
+        throw new NoSuchMethodException(className + " has no constructor with " + args.length + " parameters that match " + Arrays.toString(args) + ".");
+    }
+
+    /**
+     * @return The argument as a value of the given type, or null if it cannot
+     * be converted.
+     */
+    protected static Object convert(String arg, Class<?> type) throws IOException {
+        try {
+            if (type == String.class) {
+                return arg;
+            } else if (type == int.class || type == Integer.class) {
+                return Integer.valueOf(arg);
+            } else if (type == long.class || type == Long.class) {
+                return Long.valueOf(arg);
+            } else if (type == double.class || type == Double.class) {
+                return Double.valueOf(arg);
+            } else if (type == boolean.class || type == Boolean.class) {
+                return arg.equalsIgnoreCase("true") || arg.equalsIgnoreCase("false") ? Boolean.valueOf(arg) : null;
+            } else if (type == Properties.class) {
+                Properties properties = new Properties();
+                try (Reader reader = new BufferedReader(new FileReader(arg))) {
+                    properties.load(reader);
+                }
+                return properties;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static int numberOfStrings(Constructor<?> constructor) {
+        int count = 0;
+        for (Class<?> parameter : constructor.getParameterTypes()) {
+            count += parameter == String.class ? 1 : 0;
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: " + SocketWorker.class.getName() + " address problemClass [args ...]");
+            System.exit(1);
+        }
+        Problem<Variable<?>> problem = newProblem(args[1], Arrays.copyOfRange(args, 2, args.length));
+        SocketWorker<Variable<?>> worker = new SocketWorker<>(problem, args[0]);
+        worker.run();
+        logger.info(worker.getNumberOfEvaluations() + " evaluations.");
+    }
+}
@@ -0,0 +1,230 @@
+package jeco.optimization.islands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import jeco.algorithm.Algorithm;
+import jeco.operator.assigner.DivideAndConquerNonDominatedSorting;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.random.RandomGenerator;
+
+/**
+ * Thread of an <code>IslandModel</code>: runs one algorithm, generation by
+ * generation, with its own random generator, and exchanges solutions with
+ * the neighbouring islands every migration interval.
+ *
+ * Emigrants are sent at the end of migration epoch e and taken in at the end
+ * of epoch e + 1, so an island rarely waits for its neighbours. Each island
+ * waits for the emigrants of every neighbour of the previous epoch, and takes
+ * them in the order of the neighbours, so the run does not depend on the
+ * timing of the threads.
+ *
+ * @author José L. Risco-Martín
+ */
+public class Island<V extends Variable<?>> extends Thread {
+
+    protected IslandModel<V> model;
+    protected int index;
+    protected Algorithm<V> algorithm;
+    protected long seed;
+    protected ConcurrentLinkedQueue<Packet<V>> inbox = new ConcurrentLinkedQueue<>();
+    protected ArrayList<Packet<V>> received = new ArrayList<>();
+    protected Solutions<V> result = null;
+    protected int numberOfImmigrants = 0;
+    protected long waitingNanos = 0;
+
+    public Island(IslandModel<V> model, int index, Algorithm<V> algorithm, long seed) {
+        super(Island.class.getSimpleName() + "-" + index);
+        this.model = model;
+        this.index = index;
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    @Override
+    public void run() {
+        RandomGenerator.setThreadGenerator(new Random(seed));
+        try {
+            algorithm.initialize();
+            int generations = model.getNumberOfGenerations();
+            int interval = model.getMigrationInterval();
+            int generation = 0;
+            while (generation < generations && !model.isStopped()) {
+                algorithm.step();
+                generation++;
+                if (interval > 0 && generation % interval == 0 && generation < generations) {
+                    migrate(generation / interval);
+                }
+            }
+            if (model.isStopped()) {
+                result = new Solutions<>();
+                if (algorithm.getPopulation() != null) {
+                    result.addAll(algorithm.getPopulation());
+                }
+            } else {
+                // Not execute(), which would go on up to the maximum of the
+                // algorithm itself, without migrations
+                result = algorithm.getCurrentSolution();
+            }
+        } catch (Throwable t) {
+            model.fail(this, t);
+        } finally {
+            RandomGenerator.setThreadGenerator(null);
+        }
+    }
+
+    public Algorithm<V> getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return Solutions returned by the algorithm at the end of the run.
+     */
+    public Solutions<V> getResult() {
+        return result;
+    }
+
+    public int getNumberOfImmigrants() {
+        return numberOfImmigrants;
+    }
+
+    /**
+     * @return Time spent waiting for the emigrants of the neighbours.
+     */
+    public long getWaitingNanos() {
+        return waitingNanos;
+    }
+
+    protected void migrate(int epoch) {
+        Solutions<V> population = algorithm.getPopulation();
+        if (population == null) {
+            throw new UnsupportedOperationException(algorithm.getClass().getSimpleName() + " has no population to migrate.");
+        }
+        int migrationSize = Math.min(model.getMigrationSize(), population.size());
+        int[] order = order(population);
+        for (int neighbour : model.getOutNeighbours(index)) {
+            Solutions<V> emigrants = new Solutions<>();
+            for (int i = 0; i < migrationSize; ++i) {
+                emigrants.add(population.get(order[i]).clone());
+            }
+            model.getIsland(neighbour).receive(new Packet<>(index, epoch, emigrants));
+        }
+        if (epoch < 2) {
+            return;
+        }
+        Solutions<V> immigrants = collect(epoch - 1);
+        if (immigrants == null) {
+            return;
+        }
+        int count = Math.min(immigrants.size(), population.size());
+        int[] positions;
+        if (model.getReplacement() == IslandModel.REPLACEMENT_RANDOM) {
+            positions = new int[population.size()];
+            for (int i = 0; i < positions.length; ++i) {
+                positions[i] = i;
+            }
+            for (int i = 0; i < count; ++i) {
+                int j = RandomGenerator.nextInt(i, positions.length);
+                int aux = positions[i];
+                positions[i] = positions[j];
+                positions[j] = aux;
+            }
+        } else {
+            positions = new int[count];
+            for (int i = 0; i < count; ++i) {
+                positions[i] = order[order.length - 1 - i];
+            }
+        }
+        for (int i = 0; i < count; ++i) {
+            population.set(positions[i], immigrants.get(i));
+        }
+        numberOfImmigrants += count;
+    }
+
+    protected void receive(Packet<V> packet) {
+        inbox.offer(packet);
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Waits for the emigrants of every neighbour in the given epoch.
+     *
+     * @return Immigrants, in the order of the neighbours, or null if the
+     * model was stopped.
+     */
+    protected Solutions<V> collect(int epoch) {
+        int[] neighbours = model.getInNeighbours(index);
+        long start = System.nanoTime();
+        while (true) {
+            Packet<V> packet;
+            while ((packet = inbox.poll()) != null) {
+                received.add(packet);
+            }
+            int found = 0;
+            for (Packet<V> candidate : received) {
+                if (candidate.epoch == epoch) {
+                    found++;
+                }
+            }
+            if (found == neighbours.length) {
+                break;
+            }
+            if (model.isStopped()) {
+                return null;
+            }
+            LockSupport.park(this);
+        }
+        waitingNanos += System.nanoTime() - start;
+        Solutions<V> immigrants = new Solutions<>();
+        for (int neighbour : neighbours) {
+            for (int i = 0; i < received.size(); ++i) {
+                Packet<V> candidate = received.get(i);
+                if (candidate.epoch == epoch && candidate.source == neighbour) {
+                    immigrants.addAll(candidate.solutions);
+                    received.remove(i);
+                    break;
+                }
+            }
+        }
+        return immigrants;
+    }
+
+    /**
+     * @return Indexes of the population, best first: by non-dominated front
+     * and, within a front, by position.
+     */
+    protected int[] order(Solutions<V> population) {
+        int size = population.size();
+        int[] ranks = new DivideAndConquerNonDominatedSorting<V>().sort(population);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = ((long) ranks[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; ++i) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Emigrants of one island in one migration epoch.
+     */
+    protected static class Packet<V extends Variable<?>> {
+
+        protected int source;
+        protected int epoch;
+        protected Solutions<V> solutions;
+
+        public Packet(int source, int epoch, Solutions<V> solutions) {
+            this.source = source;
+            this.epoch = epoch;
+            this.solutions = solutions;
+        }
+    }
+}
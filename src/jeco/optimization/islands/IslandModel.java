@@ -0,0 +1,282 @@
+package jeco.optimization.islands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import jeco.algorithm.Algorithm;
+import jeco.algorithm.moga.NSGAII;
+import jeco.operator.comparator.SolutionDominance;
+import jeco.operator.crossover.SBXCrossover;
+import jeco.operator.mutation.PolynomialMutation;
+import jeco.operator.selection.BinaryTournamentNSGAII;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.problems.zdt.ZDT1;
+import jeco.util.logger.JecoLogger;
+
+/**
+ * Island model: runs several independent algorithms (NSGAII,
+ * SimpleGeneticAlgorithm, GrammaticalEvolution, DifferentialEvolution ...),
+ * each one in its own thread, which exchange their best solutions every
+ * migration interval. Unlike <code>MasterWorkerThreads</code>, islands only
+ * synchronize when they migrate, so it also scales with cheap problems.
+ *
+ * Every island must have its own problem instance (unless the problem is
+ * thread-safe), and is stepped exactly numberOfGenerations times, whatever
+ * the maximum number of generations of its algorithm; the result of each
+ * island is then the getCurrentSolution() of its algorithm. Every
+ * migration, the migrationSize best solutions of each island (by
+ * non-dominated front) are copied to its neighbours in the topology, where
+ * they replace the worst solutions or random ones. Each island draws from
+ * its own random generator, seeded from the seed of the model, so runs are
+ * reproducible.
+ *
+ * @author José L. Risco-Martín
+ */
+public class IslandModel<V extends Variable<?>> {
+
+    private static final Logger logger = Logger.getLogger(IslandModel.class.getName());
+
+    /**
+     * Island i sends to island i + 1 (the last one to the first one).
+     */
+    public static final int TOPOLOGY_RING = 0;
+    /**
+     * Islands on a grid as square as possible, wrapped around; each island
+     * sends to its four neighbours.
+     */
+    public static final int TOPOLOGY_TORUS = 1;
+    /**
+     * Each island sends to all the others.
+     */
+    public static final int TOPOLOGY_FULLY_CONNECTED = 2;
+
+    public static final int REPLACEMENT_WORST = 0;
+    public static final int REPLACEMENT_RANDOM = 1;
+
+    public static final int DEFAULT_MIGRATION_INTERVAL = 10;
+    public static final int DEFAULT_MIGRATION_SIZE = 2;
+
+    protected ArrayList<Island<V>> islands = new ArrayList<>();
+    protected int numberOfGenerations;
+    protected int migrationInterval;
+    protected int migrationSize;
+    protected int replacement;
+    protected int[][] outNeighbours;
+    protected int[][] inNeighbours;
+    protected volatile boolean stopped = false;
+    protected Throwable failure = null;
+
+    /**
+     * @param algorithms One algorithm per island
+     * @param numberOfGenerations Generations run by every island
+     * @param topology TOPOLOGY_RING, TOPOLOGY_TORUS or TOPOLOGY_FULLY_CONNECTED
+     * @param migrationInterval Generations between migrations (0: no
+     * migration)
+     * @param migrationSize Solutions sent to each neighbour
+     * @param replacement REPLACEMENT_WORST or REPLACEMENT_RANDOM
+     * @param seed Seed of the random generators of the islands
+     */
+    public IslandModel(List<? extends Algorithm<V>> algorithms, int numberOfGenerations, int topology, int migrationInterval, int migrationSize, int replacement, long seed) {
+        this(algorithms, numberOfGenerations, topology(topology, algorithms.size()), migrationInterval, migrationSize, replacement, seed);
+    }
+
+    /**
+     * @param outNeighbours Islands that each island sends its emigrants to
+     */
+    public IslandModel(List<? extends Algorithm<V>> algorithms, int numberOfGenerations, int[][] outNeighbours, int migrationInterval, int migrationSize, int replacement, long seed) {
+        this.numberOfGenerations = numberOfGenerations;
+        this.migrationInterval = migrationInterval;
+        this.migrationSize = migrationSize;
+        this.replacement = replacement;
+        this.outNeighbours = outNeighbours;
+        int n = algorithms.size();
+        int[] degrees = new int[n];
+        for (int[] neighbours : outNeighbours) {
+            for (int neighbour : neighbours) {
+                degrees[neighbour]++;
+            }
+        }
+        inNeighbours = new int[n][];
+        for (int i = 0; i < n; ++i) {
+            inNeighbours[i] = new int[degrees[i]];
+            degrees[i] = 0;
+        }
+        for (int i = 0; i < n; ++i) {
+            for (int neighbour : outNeighbours[i]) {
+                inNeighbours[neighbour][degrees[neighbour]++] = i;
+            }
+        }
+        Random seeds = new Random(seed);
+        for (int i = 0; i < n; ++i) {
+            islands.add(new Island<>(this, i, algorithms.get(i), seeds.nextLong()));
+        }
+    }
+
+    /**
+     * Ring topology, migrating DEFAULT_MIGRATION_SIZE solutions every
+     * DEFAULT_MIGRATION_INTERVAL generations, which replace the worst ones.
+     */
+    public IslandModel(List<? extends Algorithm<V>> algorithms, int numberOfGenerations, long seed) {
+        this(algorithms, numberOfGenerations, TOPOLOGY_RING, DEFAULT_MIGRATION_INTERVAL, DEFAULT_MIGRATION_SIZE, REPLACEMENT_WORST, seed);
+    }
+
+    /**
+     * Runs all the islands and waits for them.
+     *
+     * @return Non-dominated solutions of all the islands.
+     * @throws RuntimeException If an island fails (the first failure is the
+     * cause).
+     */
+    public Solutions<V> execute() {
+        for (Island<V> island : islands) {
+            island.start();
+        }
+        boolean interrupted = false;
+        for (Island<V> island : islands) {
+            while (island.isAlive()) {
+                try {
+                    island.join();
+                } catch (InterruptedException e) {
+                    logger.severe("Interrupted while waiting for " + island.getName() + ". Stopping ...");
+                    stopExecution();
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw new RuntimeException("Island failed: " + failure.getLocalizedMessage(), failure);
+            }
+        }
+        Solutions<V> solutions = new Solutions<>();
+        for (Island<V> island : islands) {
+            solutions.addAll(island.getResult());
+        }
+        solutions.reduceToNonDominated(new SolutionDominance<V>());
+        return solutions;
+    }
+
+    /**
+     * Stops every island after its current generation.
+     */
+    public void stopExecution() {
+        stopped = true;
+        for (Island<V> island : islands) {
+            LockSupport.unpark(island);
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    protected synchronized void fail(Island<V> island, Throwable t) {
+        logger.severe(island.getName() + ": " + t.getLocalizedMessage());
+        if (failure == null) {
+            failure = t;
+        }
+        stopExecution();
+    }
+
+    /**
+     * @param topology TOPOLOGY_RING, TOPOLOGY_TORUS or TOPOLOGY_FULLY_CONNECTED
+     * @param n Number of islands
+     * @return Islands that each island sends its emigrants to.
+     */
+    public static int[][] topology(int topology, int n) {
+        int[][] neighbours = new int[n][];
+        for (int i = 0; i < n; ++i) {
+            ArrayList<Integer> list = new ArrayList<>();
+            if (topology == TOPOLOGY_RING) {
+                list.add((i + 1) % n);
+            } else if (topology == TOPOLOGY_TORUS) {
+                int rows = (int) Math.sqrt(n);
+                while (n % rows != 0) {
+                    rows--;
+                }
+                int columns = n / rows;
+                int row = i / columns, column = i % columns;
+                list.add(row * columns + (column + 1) % columns);
+                list.add(row * columns + (column + columns - 1) % columns);
+                list.add(((row + 1) % rows) * columns + column);
+                list.add(((row + rows - 1) % rows) * columns + column);
+            } else if (topology == TOPOLOGY_FULLY_CONNECTED) {
+                for (int j = 0; j < n; ++j) {
+                    list.add(j);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown topology: " + topology);
+            }
+            // Neither the island itself nor repetitions (small grids)
+            ArrayList<Integer> distinct = new ArrayList<>();
+            for (Integer j : list) {
+                if (j != i && !distinct.contains(j)) {
+                    distinct.add(j);
+                }
+            }
+            neighbours[i] = new int[distinct.size()];
+            for (int j = 0; j < neighbours[i].length; ++j) {
+                neighbours[i][j] = distinct.get(j);
+            }
+        }
+        return neighbours;
+    }
+
+    public List<Island<V>> getIslands() {
+        return islands;
+    }
+
+    public Island<V> getIsland(int index) {
+        return islands.get(index);
+    }
+
+    public int[] getOutNeighbours(int index) {
+        return outNeighbours[index];
+    }
+
+    public int[] getInNeighbours(int index) {
+        return inNeighbours[index];
+    }
+
+    public int getNumberOfGenerations() {
+        return numberOfGenerations;
+    }
+
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    public int getMigrationSize() {
+        return migrationSize;
+    }
+
+    public int getReplacement() {
+        return replacement;
+    }
+
+    public static void main(String[] args) {
+        JecoLogger.setup();
+        long begin = System.currentTimeMillis();
+        int numberOfIslands = Runtime.getRuntime().availableProcessors();
+        ArrayList<NSGAII<Variable<Double>>> algorithms = new ArrayList<>();
+        for (int i = 0; i < numberOfIslands; ++i) {
+            ZDT1 problem = new ZDT1();
+            algorithms.add(new NSGAII<Variable<Double>>(problem, 100, 250, new PolynomialMutation<Variable<Double>>(problem), new SBXCrossover<Variable<Double>>(problem), new BinaryTournamentNSGAII<Variable<Double>>()));
+        }
+        IslandModel<Variable<Double>> model = new IslandModel<>(algorithms, 250, TOPOLOGY_RING, 10, 5, REPLACEMENT_WORST, 1);
+        Solutions<Variable<Double>> solutions = model.execute();
+        for (Solution<Variable<Double>> solution : solutions) {
+            logger.fine("Fitness = (" + solution.getObjectiveValue(0) + ", " + solution.getObjectiveValue(1) + ")");
+        }
+        long end = System.currentTimeMillis();
+        logger.info(numberOfIslands + " islands, " + solutions.size() + " solutions. Time: " + ((end - begin) / 1000.0) + " seconds");
+    }
+}
@@ -0,0 +1,229 @@
+package jeco.optimization.threads;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jeco.algorithm.Algorithm;
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Evaluation mode for problems whose evaluations mostly wait: external
+ * simulators called through files or pipes, or code that is written and
+ * compiled as in GramEvalTemporalModel. Every solution is evaluated in its
+ * own task, with up to maxConcurrency tasks in flight, and each task borrows
+ * a problem instance from a <code>ProblemPool</code> of maxInstances clones.
+ * The instance is given a one-solution set through evaluate(Solutions), so
+ * problems that only evaluate in batches (GramEvalTemporalModel,
+ * GramEvalStaticModel) work too, at the cost of one compilation per
+ * solution.
+ *
+ * Tasks run on virtual threads when the JVM provides them (Java 21 or
+ * later, detected at run time), so thousands of blocking evaluations can be
+ * in flight with a few OS threads. On older JVMs they run on a pool of at
+ * most maxConcurrency platform threads, created on demand.
+ *
+ * Like <code>MasterWorkerThreads</code>, it can drive an algorithm with
+ * execute(), or be given to an algorithm as its problem.
+ *
+ * @author José L. Risco-Martín
+ */
+public class BlockingEvaluator<V extends Variable<?>> extends Problem<V> {
+
+    private static final Logger logger = Logger.getLogger(BlockingEvaluator.class.getName());
+    protected Algorithm<V> algorithm = null;
+    protected Problem<V> problem = null;
+    protected int maxConcurrency;
+    protected ProblemPool<V> instances;
+    protected Semaphore permits;
+    protected ExecutorService executor = null;
+    protected boolean virtual = false;
+
+    /**
+     * @param algorithm Algorithm run by execute(), or null
+     * @param problem Problem to evaluate
+     * @param maxConcurrency Maximum number of evaluations in flight
+     * @param maxInstances Maximum number of clones of problem
+     */
+    public BlockingEvaluator(Algorithm<V> algorithm, Problem<V> problem, int maxConcurrency, int maxInstances) {
+        super(problem.getNumberOfVariables(), problem.getNumberOfObjectives());
+        for (int i = 0; i < numberOfVariables; ++i) {
+            super.lowerBound[i] = problem.getLowerBound(i);
+            super.upperBound[i] = problem.getUpperBound(i);
+        }
+        this.algorithm = algorithm;
+        this.problem = problem;
+        this.maxConcurrency = maxConcurrency;
+        this.instances = new ProblemPool<>(problem, maxInstances);
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * One problem instance per evaluation in flight.
+     */
+    public BlockingEvaluator(Problem<V> problem, int maxConcurrency) {
+        this(null, problem, maxConcurrency, maxConcurrency);
+    }
+
+    /**
+     * Evaluates every solution and waits for all of them.
+     *
+     * @throws RuntimeException If an evaluation fails (the first failure is
+     * the cause). Evaluations already in flight are waited for, and no more
+     * are started.
+     */
+    @Override
+    public void evaluate(Solutions<V> solutions) {
+        if (executor == null) {
+            executor = newExecutor();
+        }
+        final CountDownLatch done = new CountDownLatch(solutions.size());
+        final Throwable[] failure = new Throwable[1];
+        for (final Solution<V> solution : solutions) {
+            permits.acquireUninterruptibly();
+            synchronized (failure) {
+                if (failure[0] != null) {
+                    permits.release();
+                    done.countDown();
+                    continue;
+                }
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        evaluateWithInstance(solution);
+                    } catch (Throwable t) {
+                        synchronized (failure) {
+                            if (failure[0] == null) {
+                                failure[0] = t;
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        boolean interrupted = false;
+        while (done.getCount() > 0) {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (failure) {
+            if (failure[0] != null) {
+                throw new RuntimeException("Evaluation failed: " + failure[0].getLocalizedMessage(), failure[0]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates one solution in the calling thread, with a borrowed instance.
+     */
+    @Override
+    public void evaluate(Solution<V> solution) {
+        permits.acquireUninterruptibly();
+        try {
+            evaluateWithInstance(solution);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a problem instance.", e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public Solutions<V> newRandomSetOfSolutions(int size) {
+        return problem.newRandomSetOfSolutions(size);
+    }
+
+    public Solutions<V> execute() {
+        algorithm.setProblem(this);
+        try {
+            algorithm.initialize();
+            return algorithm.execute();
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Releases the threads. The next evaluation creates them again.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * @return true if evaluations run on virtual threads.
+     */
+    public boolean isVirtual() {
+        if (executor == null) {
+            executor = newExecutor();
+        }
+        return virtual;
+    }
+
+    @Override
+    public Problem<V> clone() {
+        logger.severe("This evaluator cannot be cloned.");
+        return null;
+    }
+
+    private void evaluateWithInstance(Solution<V> solution) throws InterruptedException {
+        Problem<V> instance = instances.borrow();
+        try {
+            Solutions<V> single = new Solutions<V>();
+            single.add(solution);
+            instance.evaluate(single);
+        } finally {
+            instances.release(instance);
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            virtual = true;
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.log(Level.FINE, "Virtual threads are not available, using platform threads.");
+        }
+        virtual = false;
+        // Up to maxConcurrency threads, which end after one idle minute
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private int count = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, BlockingEvaluator.class.getSimpleName() + "-" + (count++));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,80 @@
+package jeco.optimization.threads;
+
+import jeco.problem.Solution;
+import jeco.problem.Variable;
+
+/**
+ * Predicts evaluation times from a feature of each solution, with a linear
+ * fit of the measured times that weights recent evaluations more (every new
+ * measure multiplies the weight of the previous ones by decay).
+ *
+ * The feature is the cost hint of the solution (property PROPERTY_COST_HINT),
+ * if the algorithm or the problem set it, or the genotype length otherwise.
+ * Subclasses may use other features (see PhenotypeCostPredictor). Until
+ * there are measures, the prediction is the feature itself, so solutions are
+ * still ordered by it.
+ *
+ * @author José L. Risco-Martín
+ */
+public class CostPredictor<V extends Variable<?>> {
+
+    public static final String PROPERTY_COST_HINT = "costHint";
+    public static final double DEFAULT_DECAY = 0.999;
+
+    protected double decay;
+    // Weighted sums of the measures
+    protected double w = 0, wx = 0, wy = 0, wxx = 0, wxy = 0;
+    protected long numberOfObservations = 0;
+
+    /**
+     * @param decay Weight kept by the previous measures at every new one, in
+     * (0, 1]
+     */
+    public CostPredictor(double decay) {
+        this.decay = decay;
+    }
+
+    public CostPredictor() {
+        this(DEFAULT_DECAY);
+    }
+
+    /**
+     * Called before the solution is evaluated, in the thread that calls
+     * evaluate().
+     */
+    public double feature(Solution<V> solution) {
+        Number hint = solution.getProperties().get(PROPERTY_COST_HINT);
+        return hint != null ? hint.doubleValue() : solution.getVariables().size();
+    }
+
+    /**
+     * @param feature Feature of an evaluated solution
+     * @param nanos Time taken by its evaluation
+     */
+    public synchronized void observe(double feature, long nanos) {
+        w = decay * w + 1;
+        wx = decay * wx + feature;
+        wy = decay * wy + nanos;
+        wxx = decay * wxx + feature * feature;
+        wxy = decay * wxy + feature * nanos;
+        numberOfObservations++;
+    }
+
+    /**
+     * @return Predicted evaluation time, in nanoseconds once there are
+     * measures.
+     */
+    public synchronized double predict(double feature) {
+        if (numberOfObservations == 0) {
+            return feature;
+        }
+        double denominator = w * wxx - wx * wx;
+        double slope = denominator > 1e-12 * w * wxx ? (w * wxy - wx * wy) / denominator : 0;
+        double intercept = (wy - slope * wx) / w;
+        return Math.max(0, intercept + slope * feature);
+    }
+
+    public synchronized long getNumberOfObservations() {
+        return numberOfObservations;
+    }
+}
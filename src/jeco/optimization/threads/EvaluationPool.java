@@ -0,0 +1,392 @@
+package jeco.optimization.threads;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import jeco.problem.Problem;
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Long-lived evaluation threads. Each worker owns a clone of the problem and
+ * waits for batches of solutions. Within a batch, workers claim chunks from
+ * a shared cursor (guided self-scheduling: a chunk is the remaining work
+ * divided by twice the number of workers, at least one solution), so a
+ * worker that got cheap solutions keeps taking more and expensive ones do
+ * not leave threads idle at the end.
+ *
+ * With a cost predictor, solutions are instead dispatched one at a time in
+ * decreasing order of predicted cost (longest processing time first), so
+ * the most expensive evaluations start first and the cheap ones fill the
+ * gaps at the end of the batch. Each evaluation is then timed to refine the
+ * predictor.
+ *
+ * Every solution is evaluated exactly once. If an evaluation fails, the
+ * remaining solutions are not claimed, and evaluate() throws once every
+ * worker has left the batch. The makespan, busy and idle times of the
+ * batches are kept in the statistics of the pool.
+ *
+ * With a timeout, solutions are also dispatched one at a time, and each one
+ * is evaluated on a copy. A watchdog thread gives the penalty objectives to
+ * a solution whose evaluation exceeds the timeout, interrupts its worker and
+ * starts a new worker, with a new clone of the problem, in its place. The
+ * old worker is abandoned: it discards its result and stops if the
+ * evaluation ever returns (Java cannot kill a thread stuck in a loop that
+ * ignores interruptions).
+ *
+ * @author José L. Risco-Martín
+ */
+public class EvaluationPool<V extends Variable<?>> {
+
+    private static final Logger logger = Logger.getLogger(EvaluationPool.class.getName());
+
+    protected Problem<V> problem;
+    protected ArrayList<Worker<V>> workers = new ArrayList<>();
+    protected Batch<V> batch = null;
+    protected int batchNumber = 0;
+    protected boolean shutdown = false;
+    protected CostPredictor<V> predictor = null;
+    protected EvaluationStatistics statistics = new EvaluationStatistics();
+    protected long timeout = 0;
+    protected double[] penalty = null;
+    protected Thread watchdog = null;
+    protected int numberOfReplacements = 0;
+
+    /**
+     * @param problem Problem cloned for each worker
+     * @param numWorkers Number of threads
+     */
+    public EvaluationPool(Problem<V> problem, int numWorkers) {
+        this.problem = problem;
+        for (int i = 0; i < numWorkers; ++i) {
+            Worker<V> worker = new Worker<>(this, problem.clone(), 0);
+            worker.setName(EvaluationPool.class.getSimpleName() + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        for (Worker<V> worker : workers) {
+            worker.start();
+        }
+    }
+
+    public int getNumWorkers() {
+        return workers.size();
+    }
+
+    /**
+     * @param predictor Cost predictor for longest-processing-time-first
+     * dispatch, or null for guided self-scheduling.
+     */
+    public synchronized void setCostPredictor(CostPredictor<V> predictor) {
+        this.predictor = predictor;
+    }
+
+    public CostPredictor<V> getCostPredictor() {
+        return predictor;
+    }
+
+    public EvaluationStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(EvaluationStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Limits the wall-clock time of every evaluation, from the next batch on.
+     * Every solution is then evaluated alone, in a call to
+     * evaluate(Solutions) of its own, so problems that evaluate batches at
+     * once (GramEvalTemporalModel, GramEvalStaticModel, the Parkinson
+     * classifiers) compile one class per solution instead of one per chunk.
+     *
+     * @param timeout Time limit in milliseconds, or 0 for none
+     * @param penalty Objectives given to the solutions that exceed it, or
+     * null for Problem.INFINITY in all of them
+     */
+    public synchronized void setTimeout(long timeout, double[] penalty) {
+        this.timeout = timeout * 1000000;
+        this.penalty = penalty == null ? null : penalty.clone();
+        if (timeout > 0 && watchdog == null) {
+            watchdog = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    watch();
+                }
+            }, EvaluationPool.class.getSimpleName() + "-watchdog");
+            watchdog.setDaemon(true);
+            watchdog.start();
+        }
+    }
+
+    public synchronized long getTimeout() {
+        return timeout / 1000000;
+    }
+
+    /**
+     * @return Number of workers started in place of timed-out ones.
+     */
+    public synchronized int getNumberOfReplacements() {
+        return numberOfReplacements;
+    }
+
+    /**
+     * Evaluates every solution and waits for all of them.
+     *
+     * @throws RuntimeException If an evaluation fails (the first failure is
+     * the cause).
+     */
+    public void evaluate(Solutions<V> solutions) {
+        if (solutions.isEmpty()) {
+            return;
+        }
+        boolean interrupted = false;
+        Batch<V> current;
+        synchronized (this) {
+            // One batch at a time
+            while (batch != null && !shutdown) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (shutdown) {
+                throw new IllegalStateException("The evaluation pool has been shut down.");
+            }
+            current = new Batch<>(solutions, workers.size(), ++batchNumber, timeout, penalty);
+            if (predictor != null) {
+                current.order(predictor);
+            }
+            long start = System.nanoTime();
+            batch = current;
+            notifyAll();
+            while (current.running > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            statistics.addBatch(solutions.size(), workers.size(), System.nanoTime() - start, current.busy.get());
+            batch = null;
+            notifyAll();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.failure != null) {
+            throw new RuntimeException("Evaluation failed: " + current.failure.getLocalizedMessage(), current.failure);
+        }
+    }
+
+    /**
+     * Stops the workers once they finish the current batch. Later calls to
+     * evaluate() fail.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        notifyAll();
+        if (watchdog != null) {
+            LockSupport.unpark(watchdog);
+        }
+    }
+
+    /**
+     * Watchdog loop: sleeps until the earliest deadline of the workers, or
+     * for one timeout, and expires the evaluations past their deadline.
+     */
+    protected void watch() {
+        while (true) {
+            ArrayList<Worker<V>> current;
+            long limit;
+            synchronized (this) {
+                if (shutdown) {
+                    return;
+                }
+                current = new ArrayList<>(workers);
+                limit = timeout > 0 ? timeout : 1000000000L;
+            }
+            long now = System.nanoTime();
+            long wake = now + limit;
+            for (Worker<V> worker : current) {
+                long deadline = worker.deadline.get();
+                if (deadline == 0) {
+                    continue;
+                }
+                if (deadline - now <= 0) {
+                    if (worker.deadline.compareAndSet(deadline, -1)) {
+                        expire(worker);
+                    }
+                } else if (deadline - wake < 0) {
+                    wake = deadline;
+                }
+            }
+            LockSupport.parkNanos(this, wake - now);
+        }
+    }
+
+    /**
+     * Penalizes the solution of a timed-out worker and replaces the worker
+     * (and its problem, whose state is unknown) by a new one, which takes
+     * its place in the current batch.
+     */
+    protected void expire(Worker<V> worker) {
+        Batch<V> current = worker.currentBatch;
+        int position = worker.currentPosition;
+        Solution<V> solution = current.solutions.get(current.index(position));
+        for (int i = 0; i < solution.getNumberOfObjectives(); ++i) {
+            solution.setObjectiveValue(i, current.penalty == null || i >= current.penalty.length ? Problem.INFINITY : current.penalty[i]);
+        }
+        current.evaluated(position, position + 1, current.timeout);
+        statistics.addTimeout();
+        worker.interrupt();
+        synchronized (this) {
+            numberOfReplacements++;
+            Worker<V> replacement = new Worker<>(this, problem.clone(), current.number - 1);
+            replacement.setName(worker.getName().replaceFirst("\\.\\d+$", "") + "." + numberOfReplacements);
+            replacement.setDaemon(true);
+            workers.set(workers.indexOf(worker), replacement);
+            replacement.start();
+        }
+        logger.warning("Thread " + worker.getName() + ": evaluation exceeded " + (current.timeout / 1000000) + " ms, replaced.");
+    }
+
+    /**
+     * Blocks a worker until there is a batch newer than the last one it
+     * processed. Interruptions are ignored: every worker must take part in
+     * every batch.
+     *
+     * @return The batch, or null if the pool has been shut down and there
+     * are no batches left.
+     */
+    protected synchronized Batch<V> nextBatch(int lastBatchNumber) {
+        while (batch == null || batch.number == lastBatchNumber) {
+            if (shutdown) {
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                // Keep waiting
+            }
+        }
+        return batch;
+    }
+
+    protected synchronized void leave(Batch<V> current) {
+        current.running--;
+        if (current.running == 0) {
+            notifyAll();
+        }
+    }
+
+    protected static class Batch<V extends Variable<?>> {
+
+        protected final Solutions<V> solutions;
+        protected final AtomicInteger next = new AtomicInteger(0);
+        protected final AtomicLong busy = new AtomicLong(0);
+        // Dispatch order and cost features, with a cost predictor
+        protected CostPredictor<V> predictor = null;
+        protected int[] order = null;
+        protected double[] features = null;
+        protected final int numWorkers;
+        protected final int number;
+        // Workers that have not left the batch (guarded by the pool)
+        protected int running;
+        protected volatile Throwable failure = null;
+        // Time limit of each evaluation in nanoseconds (0 if none)
+        protected final long timeout;
+        protected final double[] penalty;
+
+        protected Batch(Solutions<V> solutions, int numWorkers, int number, long timeout, double[] penalty) {
+            this.solutions = solutions;
+            this.numWorkers = numWorkers;
+            this.number = number;
+            this.running = numWorkers;
+            this.timeout = timeout;
+            this.penalty = penalty;
+        }
+
+        /**
+         * Sorts the solutions by decreasing predicted cost. Features are
+         * computed here, in the thread that calls evaluate(), so the
+         * predictor does not need to be thread-safe for them.
+         */
+        protected void order(CostPredictor<V> predictor) {
+            int size = solutions.size();
+            this.predictor = predictor;
+            features = new double[size];
+            final double[] costs = new double[size];
+            Integer[] indexes = new Integer[size];
+            for (int i = 0; i < size; ++i) {
+                features[i] = predictor.feature(solutions.get(i));
+                costs[i] = predictor.predict(features[i]);
+                indexes[i] = i;
+            }
+            Arrays.sort(indexes, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer i, Integer j) {
+                    return Double.compare(costs[j], costs[i]);
+                }
+            });
+            order = new int[size];
+            for (int i = 0; i < size; ++i) {
+                order[i] = indexes[i];
+            }
+        }
+
+        /**
+         * @return Index of the i-th solution in dispatch order.
+         */
+        protected int index(int i) {
+            return order == null ? i : order[i];
+        }
+
+        /**
+         * @return First position of the claimed chunk, which ends at end[0],
+         * or -1 if there is nothing left. Positions follow the dispatch
+         * order (see index()).
+         */
+        protected int claim(int[] end) {
+            int size = solutions.size();
+            while (failure == null) {
+                int from = next.get();
+                if (from >= size) {
+                    return -1;
+                }
+                int chunk = order != null || timeout > 0 ? 1 : Math.max(1, (size - from) / (2 * numWorkers));
+                if (next.compareAndSet(from, from + chunk)) {
+                    end[0] = from + chunk;
+                    return from;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Accounts for the evaluation of the chunk from position from to end.
+         */
+        protected void evaluated(int from, int end, long nanos) {
+            busy.addAndGet(nanos);
+            if (predictor != null && end - from == 1) {
+                predictor.observe(features[order[from]], nanos);
+            }
+        }
+
+        /**
+         * Keeps the first failure and stops further claims.
+         */
+        protected synchronized void fail(Throwable failure) {
+            if (this.failure == null) {
+                this.failure = failure;
+            }
+        }
+    }
+}
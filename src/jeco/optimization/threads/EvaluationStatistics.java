@@ -0,0 +1,98 @@
+package jeco.optimization.threads;
+
+/**
+ * Times of the batches evaluated by an <code>EvaluationPool</code>. The
+ * makespan of a batch is the time from its submission until the last worker
+ * finishes it; busy time is the time spent in evaluations by all the
+ * workers, and idle time the rest of numWorkers * makespan.
+ *
+ * @author José L. Risco-Martín
+ */
+public class EvaluationStatistics {
+
+    protected long numberOfBatches = 0;
+    protected long numberOfEvaluations = 0;
+    protected long makespanNanos = 0;
+    protected long busyNanos = 0;
+    protected long idleNanos = 0;
+    protected long lastMakespanNanos = 0;
+    protected long lastIdleNanos = 0;
+    protected long numberOfTimeouts = 0;
+
+    public synchronized void addBatch(int size, int numWorkers, long makespan, long busy) {
+        numberOfBatches++;
+        numberOfEvaluations += size;
+        makespanNanos += makespan;
+        busyNanos += busy;
+        lastMakespanNanos = makespan;
+        lastIdleNanos = Math.max(0, numWorkers * makespan - busy);
+        idleNanos += lastIdleNanos;
+    }
+
+    /**
+     * Counts an evaluation that exceeded the time limit.
+     */
+    public synchronized void addTimeout() {
+        numberOfTimeouts++;
+    }
+
+    public synchronized void reset() {
+        numberOfBatches = 0;
+        numberOfEvaluations = 0;
+        makespanNanos = 0;
+        busyNanos = 0;
+        idleNanos = 0;
+        lastMakespanNanos = 0;
+        lastIdleNanos = 0;
+        numberOfTimeouts = 0;
+    }
+
+    public synchronized long getNumberOfBatches() {
+        return numberOfBatches;
+    }
+
+    public synchronized long getNumberOfEvaluations() {
+        return numberOfEvaluations;
+    }
+
+    /**
+     * @return Sum of the makespans of all the batches.
+     */
+    public synchronized long getMakespanNanos() {
+        return makespanNanos;
+    }
+
+    public synchronized long getBusyNanos() {
+        return busyNanos;
+    }
+
+    public synchronized long getIdleNanos() {
+        return idleNanos;
+    }
+
+    public synchronized long getNumberOfTimeouts() {
+        return numberOfTimeouts;
+    }
+
+    public synchronized long getLastMakespanNanos() {
+        return lastMakespanNanos;
+    }
+
+    public synchronized long getLastIdleNanos() {
+        return lastIdleNanos;
+    }
+
+    /**
+     * @return Busy time over busy plus idle time (0 before the first batch).
+     */
+    public synchronized double getUtilization() {
+        return busyNanos + idleNanos > 0 ? (double) busyNanos / (busyNanos + idleNanos) : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Batches: " + numberOfBatches + ", evaluations: " + numberOfEvaluations
+                + ", makespan: " + (makespanNanos / 1e9) + " s, idle: " + (idleNanos / 1e9)
+                + " s, utilization: " + getUtilization() + ", timeouts: " + numberOfTimeouts;
+    }
+}
@@ -1,14 +1,12 @@
 package jeco.optimization.threads;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import jeco.algorithm.Algorithm;
 import jeco.algorithm.moge.GrammaticalEvolution;
 import jeco.algorithm.moge.GrammaticalEvolution_example;
+import jeco.algorithm.moge.PhenotypeCostPredictor;
 import jeco.problem.Problem;
 import jeco.problem.Solution;
 import jeco.problem.Solutions;
@@ -20,9 +18,12 @@ public class MasterWorkerThreads<V extends Variable<?>> extends Problem<V> {
     private static final Logger logger = Logger.getLogger(MasterWorkerThreads.class.getName());
     protected Algorithm<V> algorithm = null;
     protected Problem<V> problem = null;
-    protected LinkedBlockingQueue<Solution<V>> sharedQueue = new LinkedBlockingQueue<>();
-    protected ArrayList<Problem<V>> problemClones = new ArrayList<>();
+    protected EvaluationPool<V> pool = null;
     protected Integer numWorkers = null;
+    protected CostPredictor<V> predictor = null;
+    protected EvaluationStatistics statistics = new EvaluationStatistics();
+    protected long timeout = 0;
+    protected double[] penalty = null;
 
     public MasterWorkerThreads(Algorithm<V> algorithm, Problem<V> problem, Integer numWorkers) {
         super(problem.getNumberOfVariables(), problem.getNumberOfObjectives());
@@ -33,37 +34,67 @@ public class MasterWorkerThreads<V extends Variable<?>> extends Problem<V> {
         this.algorithm = algorithm;
         this.problem = problem;
         this.numWorkers = numWorkers;
-        for (int i = 0; i < numWorkers; ++i) {
-            problemClones.add(problem.clone());
-        }
     }
 
     public MasterWorkerThreads(Algorithm<V> algorithm, Problem<V> problem) {
         this(algorithm, problem, Runtime.getRuntime().availableProcessors());
     }
 
+    /**
+     * Dispatches the most expensive evaluations first, as predicted from the
+     * evaluation times measured so far (see EvaluationPool).
+     *
+     * @param predictor Cost predictor, or null for guided self-scheduling
+     */
+    public void setCostPredictor(CostPredictor<V> predictor) {
+        this.predictor = predictor;
+        if (pool != null) {
+            pool.setCostPredictor(predictor);
+        }
+    }
+
+    /**
+     * Limits the wall-clock time of every evaluation. Solutions that exceed
+     * it get the penalty objectives, and their worker is replaced (see
+     * EvaluationPool). Solutions are then evaluated one at a time, which
+     * costs one compilation per solution in the problems that compile a
+     * class per batch.
+     *
+     * @param timeout Time limit in milliseconds, or 0 for none
+     * @param penalty Penalty objectives, or null for Problem.INFINITY
+     */
+    public void setTimeout(long timeout, double[] penalty) {
+        this.timeout = timeout;
+        this.penalty = penalty;
+        if (pool != null) {
+            pool.setTimeout(timeout, penalty);
+        }
+    }
+
+    public void setTimeout(long timeout) {
+        setTimeout(timeout, null);
+    }
+
+    /**
+     * @return Makespan, busy and idle times and timeouts of the evaluations.
+     */
+    public EvaluationStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Evaluates the solutions in the workers of the pool, which is created the
+     * first time and kept until execute() finishes.
+     */
     @Override
     public void evaluate(Solutions<V> solutions) {
-        sharedQueue.addAll(solutions);
-        LinkedList<Worker<V>> workers = new LinkedList<>();
-        int solutionsPerWorker = solutions.size()/numWorkers;
-        int remainingSolutions = solutions.size()%numWorkers;
-        for (int i = 0; i < numWorkers; ++i) {
-            if(i==(numWorkers-1)) {
-                solutionsPerWorker = solutionsPerWorker + remainingSolutions;
-            }
-            Worker<V> worker = new Worker<>(problemClones.get(i), sharedQueue, solutionsPerWorker);
-            workers.add(worker);
-            worker.start();
-        }
-        for (Worker<V> worker : workers) {
-            try {
-                worker.join();
-            } catch (InterruptedException e) {
-                logger.severe(e.getLocalizedMessage());
-                logger.severe("Main thread cannot join to: " + worker.getId());
-            }
+        if (pool == null) {
+            pool = new EvaluationPool<>(problem, numWorkers);
+            pool.setCostPredictor(predictor);
+            pool.setStatistics(statistics);
+            pool.setTimeout(timeout, penalty);
         }
+        pool.evaluate(solutions);
     }
 
     @Override
@@ -78,8 +109,15 @@ public class MasterWorkerThreads<V extends Variable<?>> extends Problem<V> {
 
     public Solutions<V> execute() {
         algorithm.setProblem(this);
-        algorithm.initialize();
-        return algorithm.execute();
+        try {
+            algorithm.initialize();
+            return algorithm.execute();
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
     }
 
     @Override
@@ -97,9 +135,11 @@ public class MasterWorkerThreads<V extends Variable<?>> extends Problem<V> {
         GrammaticalEvolution algorithm = new GrammaticalEvolution(problem, 100, 250);
         // Now the master/worker
         MasterWorkerThreads<Variable<Integer>> masterWorker = new MasterWorkerThreads<Variable<Integer>>(algorithm, problem, 4);
+        masterWorker.setCostPredictor(new PhenotypeCostPredictor(problem));
         Solutions<Variable<Integer>> solutions = masterWorker.execute();
+        logger.info(masterWorker.getStatistics().toString());
         for (Solution<Variable<Integer>> solution : solutions) {
-            logger.info("Fitness = (" + solution.getObjectives().get(0) + ", " + solution.getObjectives().get(1) + ")");
+            logger.info("Fitness = (" + solution.getObjectiveValue(0) + ", " + solution.getObjectiveValue(1) + ")");
             logger.info("Phenotype = (" + problem.generatePhenotype(solution).toString() + ")");
         }
         long end = System.currentTimeMillis();
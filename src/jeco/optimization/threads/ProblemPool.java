@@ -0,0 +1,59 @@
+package jeco.optimization.threads;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+import jeco.problem.Problem;
+import jeco.problem.Variable;
+
+/**
+ * Problem instances lent to evaluations that run concurrently. Clones are
+ * created on demand up to the capacity; after that, borrow() waits until an
+ * instance is given back.
+ *
+ * @author José L. Risco-Martín
+ */
+public class ProblemPool<V extends Variable<?>> {
+
+    protected Problem<V> problem;
+    protected int capacity;
+    protected int created = 0;
+    protected LinkedBlockingQueue<Problem<V>> idle = new LinkedBlockingQueue<>();
+
+    /**
+     * @param problem Problem to clone
+     * @param capacity Maximum number of clones
+     */
+    public ProblemPool(Problem<V> problem, int capacity) {
+        this.problem = problem;
+        this.capacity = capacity;
+    }
+
+    public Problem<V> borrow() throws InterruptedException {
+        Problem<V> instance = idle.poll();
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (this) {
+            if (created < capacity) {
+                created++;
+                return problem.clone();
+            }
+        }
+        return idle.take();
+    }
+
+    public void release(Problem<V> instance) {
+        idle.add(instance);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Number of clones created so far.
+     */
+    public synchronized int getNumberOfInstances() {
+        return created;
+    }
+}
@@ -4,8 +4,7 @@
  */
 package jeco.optimization.threads;
 
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import jeco.problem.Problem;
@@ -14,6 +13,9 @@ import jeco.problem.Solutions;
 import jeco.problem.Variable;
 
 /**
+ * Thread of an <code>EvaluationPool</code>: evaluates chunks of every batch
+ * with its own problem until the pool is shut down, or until one of its
+ * evaluations times out and the pool replaces it.
  *
  * @author jlrisco
  */
@@ -21,32 +23,99 @@ public class Worker<V extends Variable<?>> extends Thread {
 
     private static final Logger logger = Logger.getLogger(Worker.class.getName());
 
+    protected EvaluationPool<V> pool;
     protected Problem<V> problem;
-    protected LinkedBlockingQueue<Solution<V>> sharedQueue = null;
-    protected int numSolutions = 1;
+    protected int lastBatchNumber;
+    // Evaluation with a timeout: deadline (0 if none, -1 once expired by
+    // the pool), batch and position of the solution
+    protected final AtomicLong deadline = new AtomicLong(0);
+    protected volatile EvaluationPool.Batch<V> currentBatch = null;
+    protected volatile int currentPosition;
 
-    public Worker(Problem<V> problem, LinkedBlockingQueue<Solution<V>> sharedQueue, int numSolutions) {
+    /**
+     * @param lastBatchNumber Number of the last batch processed (the worker
+     * takes part in the next one)
+     */
+    public Worker(EvaluationPool<V> pool, Problem<V> problem, int lastBatchNumber) {
+        this.pool = pool;
         this.problem = problem;
-        this.sharedQueue = sharedQueue;
-        this.numSolutions = numSolutions;
+        this.lastBatchNumber = lastBatchNumber;
+    }
+
+    public Worker(EvaluationPool<V> pool, Problem<V> problem) {
+        this(pool, problem, 0);
     }
 
     @Override
     public void run() {
-        Solutions<V> solutions = new Solutions<>();
-        try {
-            for (int i = 0; i < numSolutions; ++i) {
-                Solution<V> solution = sharedQueue.poll(3, TimeUnit.SECONDS);
-                if (solution != null) {
-                    solutions.add(solution);
+        Solutions<V> chunk = new Solutions<>();
+        int[] end = new int[1];
+        EvaluationPool.Batch<V> batch;
+        while ((batch = pool.nextBatch(lastBatchNumber)) != null) {
+            lastBatchNumber = batch.number;
+            int from;
+            while ((from = batch.claim(end)) >= 0) {
+                if (batch.timeout > 0) {
+                    if (!evaluate(batch, from, chunk)) {
+                        // Timed out, the pool has replaced this worker
+                        return;
+                    }
+                    continue;
+                }
+                chunk.clear();
+                for (int i = from; i < end[0]; ++i) {
+                    chunk.add(batch.solutions.get(batch.index(i)));
+                }
+                long start = System.nanoTime();
+                try {
+                    problem.evaluate(chunk);
+                    batch.evaluated(from, end[0], System.nanoTime() - start);
+                } catch (Throwable t) {
+                    logger.severe("Thread " + getName() + ": " + t.getLocalizedMessage());
+                    batch.fail(t);
                 }
             }
-            problem.evaluate(solutions);
-            solutions.clear();
-        } catch (InterruptedException e) {
-            logger.severe(e.getLocalizedMessage());
-            logger.severe("Thread " + super.getId() + " has been interrupted. Shuting down ...");
+            chunk.clear();
+            pool.leave(batch);
         }
+    }
 
+    /**
+     * Evaluates a copy of the solution at the given position of the batch
+     * and copies its objectives, properties and attributes back, unless the
+     * pool expires it first.
+     *
+     * @return false if the evaluation timed out.
+     */
+    protected boolean evaluate(EvaluationPool.Batch<V> batch, int position, Solutions<V> chunk) {
+        Solution<V> solution = batch.solutions.get(batch.index(position));
+        chunk.clear();
+        chunk.add(solution.clone());
+        currentBatch = batch;
+        currentPosition = position;
+        long start = System.nanoTime();
+        long limit = start + batch.timeout;
+        if (limit == 0 || limit == -1) {
+            limit++;
+        }
+        deadline.set(limit);
+        Throwable failure = null;
+        try {
+            problem.evaluate(chunk);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        long nanos = System.nanoTime() - start;
+        if (!deadline.compareAndSet(limit, 0)) {
+            return false;
+        }
+        if (failure != null) {
+            logger.severe("Thread " + getName() + ": " + failure.getLocalizedMessage());
+            batch.fail(failure);
+        } else {
+            solution.copyEvaluationFrom(chunk.get(0));
+            batch.evaluated(position, position + 1, nanos);
+        }
+        return true;
     }
 }
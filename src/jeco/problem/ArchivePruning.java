@@ -0,0 +1,20 @@
+package jeco.problem;
+
+/**
+ * Policy used by a bounded <code>ParetoArchive</code> to decide which
+ * members are kept when the archive grows beyond its capacity.
+ *
+ * @author José L. Risco-Martín
+ */
+public abstract class ArchivePruning<V extends Variable<?>> {
+
+  /**
+   * Selects the members that survive.
+   *
+   * @param members Non-dominated members, in archive order. Implementations
+   * may reorder this set.
+   * @param capacity Maximum number of members to keep
+   * @return The members to keep, in the order the archive will keep them.
+   */
+  public abstract Solutions<V> execute(Solutions<V> members, int capacity);
+}
@@ -0,0 +1,95 @@
+package jeco.problem;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typed key for the primitive attributes stored in a <code>Solution</code>
+ * (rank, crowding distance, fitness, ...). Each key owns a small integer slot,
+ * so reading or writing an attribute is a plain array access instead of a
+ * hashed, boxed <code>HashMap</code> operation.
+ *
+ * Keys are registered once by name and shared by every solution. Registering
+ * the same name twice returns the same key. The attributes computed by jeco
+ * operators are registered when this class is loaded (RANK, CROWDING_DISTANCE,
+ * NICHE_COUNT and FITNESS), so forName() finds them whatever classes have
+ * been loaded. Up to MAX_KEYS keys of each type can be registered.
+ *
+ * @author José L. Risco-Martín
+ */
+public final class AttributeKey {
+
+  private static final ConcurrentHashMap<String, AttributeKey> registry = new ConcurrentHashMap<String, AttributeKey>();
+  private static int numberOfDoubleKeys = 0;
+  private static int numberOfIntKeys = 0;
+  public static final int MAX_KEYS = 64;
+
+  public static final AttributeKey RANK = intKey("rank");
+  public static final AttributeKey CROWDING_DISTANCE = doubleKey("crowdingDistance");
+  public static final AttributeKey NICHE_COUNT = intKey("nicheCount");
+  public static final AttributeKey FITNESS = doubleKey("fitness");
+
+  protected final String name;
+  protected final int index;
+  protected final boolean integer;
+
+  private AttributeKey(String name, int index, boolean integer) {
+    this.name = name;
+    this.index = index;
+    this.integer = integer;
+  }
+
+  /**
+   * Registers (or returns) a key whose values are stored as doubles.
+   */
+  public static AttributeKey doubleKey(String name) {
+    return register(name, false);
+  }
+
+  /**
+   * Registers (or returns) a key whose values are stored as ints.
+   */
+  public static AttributeKey intKey(String name) {
+    return register(name, true);
+  }
+
+  /**
+   * @param name Attribute name
+   * @return The key registered with this name, or null if there is none.
+   */
+  public static AttributeKey forName(String name) {
+    return registry.get(name);
+  }
+
+  private static synchronized AttributeKey register(String name, boolean integer) {
+    AttributeKey key = registry.get(name);
+    if (key != null) {
+      if (key.integer != integer) {
+        throw new IllegalArgumentException("Attribute " + name + " is already registered with another type.");
+      }
+      return key;
+    }
+    if ((integer ? numberOfIntKeys : numberOfDoubleKeys) >= MAX_KEYS) {
+      throw new IllegalStateException("Too many attribute keys: " + name);
+    }
+    key = new AttributeKey(name, integer ? numberOfIntKeys++ : numberOfDoubleKeys++, integer);
+    registry.put(name, key);
+    return key;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public boolean isInteger() {
+    return integer;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
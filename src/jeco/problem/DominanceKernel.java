@@ -0,0 +1,87 @@
+package jeco.problem;
+
+/**
+ * Pareto dominance (minimization) between rows of a primitive, row-major
+ * objective block, as stored by <code>PopulationMatrix</code> and
+ * <code>DominanceMatrix</code>. Results follow
+ * <code>SolutionDominance</code>: -1 if row a dominates row b, 1 if b
+ * dominates a and 0 otherwise.
+ *
+ * Two, three and five objectives have unrolled versions that evaluate every
+ * objective with non-short-circuit operators, so there is one branch per
+ * pair instead of two per objective. Other sizes are processed in groups of
+ * four objectives, leaving as soon as both directions are found.
+ *
+ * @author José L. Risco-Martín
+ */
+public final class DominanceKernel {
+
+  private DominanceKernel() {
+  }
+
+  /**
+   * @param block Row-major objective block
+   * @param a First row
+   * @param b Second row
+   * @param m Number of objectives (row length)
+   * @return -1, 0 or 1 as in <code>SolutionDominance</code>
+   */
+  public static int compare(double[] block, int a, int b, int m) {
+    switch (m) {
+      case 2:
+        return compare2(block, a * 2, b * 2);
+      case 3:
+        return compare3(block, a * 3, b * 3);
+      case 5:
+        return compare5(block, a * 5, b * 5);
+      default:
+        return compare(block, a * m, block, b * m, m);
+    }
+  }
+
+  /**
+   * Compares two objective vectors stored at the given offsets.
+   */
+  public static int compare(double[] x, int offsetX, double[] y, int offsetY, int m) {
+    boolean lt = false, gt = false;
+    int k = 0;
+    for (; k + 4 <= m; k += 4) {
+      double x0 = x[offsetX + k], x1 = x[offsetX + k + 1], x2 = x[offsetX + k + 2], x3 = x[offsetX + k + 3];
+      double y0 = y[offsetY + k], y1 = y[offsetY + k + 1], y2 = y[offsetY + k + 2], y3 = y[offsetY + k + 3];
+      lt |= (x0 < y0) | (x1 < y1) | (x2 < y2) | (x3 < y3);
+      gt |= (x0 > y0) | (x1 > y1) | (x2 > y2) | (x3 > y3);
+      if (lt & gt) {
+        return 0;
+      }
+    }
+    for (; k < m; ++k) {
+      double xk = x[offsetX + k], yk = y[offsetY + k];
+      lt |= xk < yk;
+      gt |= xk > yk;
+    }
+    return result(lt, gt);
+  }
+
+  private static int compare2(double[] x, int i, int j) {
+    double a0 = x[i], a1 = x[i + 1];
+    double b0 = x[j], b1 = x[j + 1];
+    return result((a0 < b0) | (a1 < b1), (a0 > b0) | (a1 > b1));
+  }
+
+  private static int compare3(double[] x, int i, int j) {
+    double a0 = x[i], a1 = x[i + 1], a2 = x[i + 2];
+    double b0 = x[j], b1 = x[j + 1], b2 = x[j + 2];
+    return result((a0 < b0) | (a1 < b1) | (a2 < b2), (a0 > b0) | (a1 > b1) | (a2 > b2));
+  }
+
+  private static int compare5(double[] x, int i, int j) {
+    double a0 = x[i], a1 = x[i + 1], a2 = x[i + 2], a3 = x[i + 3], a4 = x[i + 4];
+    double b0 = x[j], b1 = x[j + 1], b2 = x[j + 2], b3 = x[j + 3], b4 = x[j + 4];
+    return result((a0 < b0) | (a1 < b1) | (a2 < b2) | (a3 < b3) | (a4 < b4),
+            (a0 > b0) | (a1 > b1) | (a2 > b2) | (a3 > b3) | (a4 > b4));
+  }
+
+  private static int result(boolean lt, boolean gt) {
+    return lt == gt ? 0 : (lt ? -1 : 1);
+  }
+}
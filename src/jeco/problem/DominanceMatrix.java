@@ -0,0 +1,177 @@
+package jeco.problem;
+
+import java.util.Comparator;
+
+/**
+ * Bit-packed Pareto dominance relation of a set of solutions: bit (i, j) is
+ * set when solution i dominates solution j. Each row takes (n + 63) / 64
+ * longs, so the whole relation needs about n^2 / 8 bytes.
+ *
+ * The relation is filled once, comparing every pair with
+ * <code>DominanceKernel</code> in square tiles so that the objective rows of
+ * both tiles stay in cache. It can then be shared by the consumers that need
+ * it in the same generation (<code>FrontsExtractor</code>,
+ * <code>Solutions.reduceToNonDominated()</code>, SPEA2 fitness).
+ *
+ * Rows refer to positions in the set the matrix was built from; the set must
+ * not be reordered while the matrix is in use.
+ *
+ * @author José L. Risco-Martín
+ */
+public class DominanceMatrix {
+
+  /**
+   * Number of rows (and columns) of each tile.
+   */
+  public static final int TILE = 128;
+
+  protected int size;
+  protected int words;
+  protected long[] bits;
+  // Number of solutions that dominate each solution
+  protected int[] dominators;
+
+  /**
+   * @param objectives Row-major objective block (size x numberOfObjectives)
+   * @param size Number of solutions
+   * @param numberOfObjectives Number of objectives
+   */
+  public DominanceMatrix(double[] objectives, int size, int numberOfObjectives) {
+    this(size);
+    fill(objectives, numberOfObjectives);
+  }
+
+  protected DominanceMatrix(int size) {
+    this.size = size;
+    this.words = (size + 63) >>> 6;
+    this.bits = new long[size * words];
+    this.dominators = new int[size];
+  }
+
+  public DominanceMatrix(PopulationMatrix population) {
+    this(population.getObjectiveBlock(), population.size(), population.getNumberOfObjectives());
+  }
+
+  /**
+   * Builds the relation of a set of solutions.
+   */
+  public static <V extends Variable<?>> DominanceMatrix valueOf(Solutions<V> solutions) {
+    int size = solutions.size();
+    int m = size == 0 ? 0 : solutions.get(0).getNumberOfObjectives();
+    double[] objectives = new double[size * m];
+    for (int i = 0; i < size; ++i) {
+      Solution<V> solution = solutions.get(i);
+      for (int k = 0; k < m; ++k) {
+        objectives[i * m + k] = solution.getObjectiveValue(k);
+      }
+    }
+    return new DominanceMatrix(objectives, size, m);
+  }
+
+  /**
+   * Builds the relation of a set of solutions with any dominance comparator
+   * (negative if the first solution dominates the second one, positive if it
+   * is dominated). Every pair is compared once.
+   */
+  public static <V extends Variable<?>> DominanceMatrix valueOf(Solutions<V> solutions, Comparator<Solution<V>> comparator) {
+    int size = solutions.size();
+    DominanceMatrix relation = new DominanceMatrix(size);
+    for (int i = 0; i < size - 1; ++i) {
+      Solution<V> solI = solutions.get(i);
+      for (int j = i + 1; j < size; ++j) {
+        int compare = comparator.compare(solI, solutions.get(j));
+        if (compare < 0) {
+          relation.set(i, j);
+        } else if (compare > 0) {
+          relation.set(j, i);
+        }
+      }
+    }
+    return relation;
+  }
+
+  private void set(int i, int j) {
+    bits[i * words + (j >>> 6)] |= 1L << j;
+    dominators[j]++;
+  }
+
+  private void fill(double[] objectives, int m) {
+    for (int ti = 0; ti < size; ti += TILE) {
+      int endI = Math.min(ti + TILE, size);
+      for (int tj = ti; tj < size; tj += TILE) {
+        int endJ = Math.min(tj + TILE, size);
+        for (int i = ti; i < endI; ++i) {
+          for (int j = Math.max(tj, i + 1); j < endJ; ++j) {
+            int compare = DominanceKernel.compare(objectives, i, j, m);
+            if (compare < 0) {
+              set(i, j);
+            } else if (compare > 0) {
+              set(j, i);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return true if solution i dominates solution j.
+   */
+  public boolean dominates(int i, int j) {
+    return (bits[i * words + (j >>> 6)] & (1L << j)) != 0;
+  }
+
+  /**
+   * @return Number of solutions dominated by solution i.
+   */
+  public int getNumberOfDominated(int i) {
+    int count = 0;
+    int offset = i * words;
+    for (int w = 0; w < words; ++w) {
+      count += Long.bitCount(bits[offset + w]);
+    }
+    return count;
+  }
+
+  /**
+   * @return Number of solutions that dominate solution j.
+   */
+  public int getNumberOfDominators(int j) {
+    return dominators[j];
+  }
+
+  /**
+   * @return The solutions dominated by solution i, in increasing order.
+   */
+  public int[] getDominated(int i) {
+    int[] result = new int[getNumberOfDominated(i)];
+    int count = 0;
+    int offset = i * words;
+    for (int w = 0; w < words; ++w) {
+      long word = bits[offset + w];
+      while (word != 0) {
+        result[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Word w of row i (solutions 64*w .. 64*w+63 dominated by i).
+   */
+  public long getWord(int i, int w) {
+    return bits[i * words + w];
+  }
+
+  /**
+   * @return Number of words per row.
+   */
+  public int getNumberOfWords() {
+    return words;
+  }
+}
@@ -0,0 +1,212 @@
+package jeco.problem;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Epsilon-dominance archive (Laumanns et al., 2002, as used by Deb's
+ * epsilon-MOEA). The objective space is divided in boxes of the given sizes
+ * and the archive keeps at most one solution per box, and only boxes that no
+ * other box dominates. Its size is therefore bounded by the grid, whatever
+ * the number of insertions.
+ *
+ * Boxes are kept in a hash table, so the solution in the box of a candidate
+ * is found in constant expected time. Otherwise the candidate box is compared
+ * with the occupied boxes, whose number is bounded by the grid.
+ *
+ * M. Laumanns, L. Thiele, K. Deb, E. Zitzler. Combining convergence and
+ * diversity in evolutionary multiobjective optimization. Evolutionary
+ * Computation, 10(3), 263-282, 2002.
+ *
+ * @author José L. Risco-Martín
+ */
+public class EpsilonBoxArchive<V extends Variable<?>> {
+
+  protected double[] epsilons;
+  protected LinkedHashMap<Box, Solution<V>> boxes = new LinkedHashMap<Box, Solution<V>>();
+
+  /**
+   * @param epsilons Box size of each objective
+   */
+  public EpsilonBoxArchive(double[] epsilons) {
+    this.epsilons = epsilons.clone();
+  }
+
+  /**
+   * Same box size for every objective.
+   */
+  public EpsilonBoxArchive(int numberOfObjectives, double epsilon) {
+    this.epsilons = new double[numberOfObjectives];
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      epsilons[k] = epsilon;
+    }
+  }
+
+  /**
+   * Inserts a solution if its box is not dominated, removing the members
+   * whose boxes it dominates. If its box is already occupied, the solution
+   * replaces the member when it dominates it or, if neither dominates the
+   * other, when it is closer to the lower corner of the box.
+   *
+   * @return true if the solution was inserted.
+   */
+  public boolean add(Solution<V> solution) {
+    return insert(solution, false);
+  }
+
+  /**
+   * As add(), but a clone of the solution is inserted. Rejected solutions are
+   * not cloned.
+   */
+  public boolean addClone(Solution<V> solution) {
+    return insert(solution, true);
+  }
+
+  /**
+   * @return Number of solutions inserted.
+   */
+  public int addAll(Collection<? extends Solution<V>> solutions) {
+    int count = 0;
+    for (Solution<V> solution : solutions) {
+      if (insert(solution, false)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return true if add() would insert this solution.
+   */
+  public boolean accepts(Solution<V> solution) {
+    Box box = new Box(solution);
+    Solution<V> occupant = boxes.get(box);
+    if (occupant != null) {
+      return replaces(solution, occupant, box);
+    }
+    for (Box other : boxes.keySet()) {
+      if (other.compare(box) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean insert(Solution<V> solution, boolean clone) {
+    Box box = new Box(solution);
+    Solution<V> occupant = boxes.get(box);
+    if (occupant != null) {
+      // No other member dominates an occupied box
+      if (!replaces(solution, occupant, box)) {
+        return false;
+      }
+      boxes.put(box, clone ? solution.clone() : solution);
+      return true;
+    }
+    for (Box other : boxes.keySet()) {
+      if (other.compare(box) < 0) {
+        return false;
+      }
+    }
+    Iterator<Box> iterator = boxes.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (box.compare(iterator.next()) < 0) {
+        iterator.remove();
+      }
+    }
+    boxes.put(box, clone ? solution.clone() : solution);
+    return true;
+  }
+
+  private boolean replaces(Solution<V> solution, Solution<V> occupant, Box box) {
+    int m = epsilons.length;
+    boolean better = false, worse = false;
+    for (int k = 0; k < m; ++k) {
+      double y = solution.getObjectiveValue(k), x = occupant.getObjectiveValue(k);
+      better |= y < x;
+      worse |= y > x;
+    }
+    if (better != worse) {
+      return better;
+    }
+    if (!better) {
+      return false;
+    }
+    return box.distanceToCorner(solution) < box.distanceToCorner(occupant);
+  }
+
+  public int size() {
+    return boxes.size();
+  }
+
+  public boolean isEmpty() {
+    return boxes.isEmpty();
+  }
+
+  public void clear() {
+    boxes.clear();
+  }
+
+  public double[] getEpsilons() {
+    return epsilons.clone();
+  }
+
+  /**
+   * @return A new set with the members, in the order their boxes were first
+   * occupied.
+   */
+  public Solutions<V> getSolutions() {
+    Solutions<V> solutions = new Solutions<V>();
+    solutions.addAll(boxes.values());
+    return solutions;
+  }
+
+  protected class Box {
+
+    protected final long[] coordinates;
+
+    protected Box(Solution<V> solution) {
+      coordinates = new long[epsilons.length];
+      for (int k = 0; k < epsilons.length; ++k) {
+        coordinates[k] = (long) Math.floor(solution.getObjectiveValue(k) / epsilons[k]);
+      }
+    }
+
+    /**
+     * @return -1 if this box dominates the other one, 1 if it is dominated and
+     * 0 otherwise.
+     */
+    protected int compare(Box other) {
+      boolean lt = false, gt = false;
+      for (int k = 0; k < coordinates.length; ++k) {
+        lt |= coordinates[k] < other.coordinates[k];
+        gt |= coordinates[k] > other.coordinates[k];
+        if (lt && gt) {
+          return 0;
+        }
+      }
+      return lt ? -1 : (gt ? 1 : 0);
+    }
+
+    protected double distanceToCorner(Solution<V> solution) {
+      double sum = 0;
+      for (int k = 0; k < coordinates.length; ++k) {
+        double diff = (solution.getObjectiveValue(k) / epsilons[k] - coordinates[k]);
+        sum += diff * diff;
+      }
+      return sum;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      return object instanceof EpsilonBoxArchive<?>.Box && Arrays.equals(coordinates, ((EpsilonBoxArchive<?>.Box) object).coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(coordinates);
+    }
+  }
+}
@@ -0,0 +1,474 @@
+package jeco.problem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Archive of mutually non-dominated solutions (Pareto dominance,
+ * minimization), stored in an ND-tree. Every node of the tree keeps the
+ * ideal and nadir points of its subtree, so a candidate is compared only with
+ * the members whose region it may dominate or be dominated by. Insertion
+ * rejects dominated candidates (and copies of members) and removes the
+ * members the candidate dominates.
+ *
+ * A. Jaszkiewicz, T. Lust. ND-Tree-based update: a fast algorithm for the
+ * dynamic nondominance problem. IEEE Transactions on Evolutionary
+ * Computation, 22(5), 778-791, 2018.
+ *
+ * Members are kept in insertion order, as <code>reduceToNonDominated()</code>
+ * does, so replacing a list plus reduceToNonDominated() by an archive gives
+ * the same set in the same order. A bounded archive applies its pruning
+ * policy in prune(), and in addAll() after all the candidates are inserted.
+ *
+ * @author José L. Risco-Martín
+ */
+public class ParetoArchive<V extends Variable<?>> {
+
+  /**
+   * Maximum number of members in a leaf before it is split.
+   */
+  public static final int MAX_LEAF_SIZE = 20;
+
+  protected int capacity;
+  protected ArchivePruning<V> pruning;
+  protected int numberOfObjectives = -1;
+  protected Node root = null;
+  // Members in insertion order; removed members are compacted lazily
+  protected ArrayList<Entry> entries = new ArrayList<Entry>();
+  protected int size = 0;
+
+  /**
+   * @param capacity Maximum size after pruning
+   * @param pruning Policy that selects the members kept by prune()
+   */
+  public ParetoArchive(int capacity, ArchivePruning<V> pruning) {
+    this.capacity = capacity;
+    this.pruning = pruning;
+  }
+
+  /**
+   * Unbounded archive.
+   */
+  public ParetoArchive() {
+    this(Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * Inserts a solution if no member dominates it (or is equal to it), and
+   * removes the members it dominates.
+   *
+   * @return true if the solution was inserted.
+   */
+  public boolean add(Solution<V> solution) {
+    return insert(solution, false);
+  }
+
+  /**
+   * As add(), but a clone of the solution is inserted. Rejected solutions are
+   * not cloned.
+   *
+   * @return true if a clone of the solution was inserted.
+   */
+  public boolean addClone(Solution<V> solution) {
+    return insert(solution, true);
+  }
+
+  /**
+   * Inserts every solution, in order, and then prunes the archive.
+   *
+   * @return Number of solutions inserted.
+   */
+  public int addAll(Collection<? extends Solution<V>> solutions) {
+    int count = 0;
+    for (Solution<V> solution : solutions) {
+      if (insert(solution, false)) {
+        count++;
+      }
+    }
+    prune();
+    return count;
+  }
+
+  /**
+   * Inserts a clone of every solution that is accepted, in order, and then
+   * prunes the archive.
+   *
+   * @return Number of solutions inserted.
+   */
+  public int addAllClones(Collection<? extends Solution<V>> solutions) {
+    int count = 0;
+    for (Solution<V> solution : solutions) {
+      if (insert(solution, true)) {
+        count++;
+      }
+    }
+    prune();
+    return count;
+  }
+
+  /**
+   * @return true if add() would insert this solution.
+   */
+  public boolean accepts(Solution<V> solution) {
+    return root == null || !covered(root, getPoint(solution), solution);
+  }
+
+  /**
+   * Applies the pruning policy if the archive is beyond its capacity.
+   */
+  public void prune() {
+    if (pruning == null || size <= capacity) {
+      return;
+    }
+    Solutions<V> kept = pruning.execute(getSolutions(), capacity);
+    clear();
+    for (Solution<V> solution : kept) {
+      Entry entry = new Entry(solution, getPoint(solution));
+      entries.add(entry);
+      size++;
+      if (root == null) {
+        root = new Node();
+      }
+      insert(root, entry);
+    }
+  }
+
+  public void clear() {
+    root = null;
+    entries.clear();
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return A new set with the members, in archive order.
+   */
+  public Solutions<V> getSolutions() {
+    Solutions<V> solutions = new Solutions<V>();
+    solutions.ensureCapacity(size);
+    for (Entry entry : entries) {
+      if (entry.alive) {
+        solutions.add(entry.solution);
+      }
+    }
+    return solutions;
+  }
+
+  private boolean insert(Solution<V> solution, boolean clone) {
+    double[] point = getPoint(solution);
+    if (root != null) {
+      if (!update(root, point, solution)) {
+        return false;
+      }
+      if (isEmpty(root)) {
+        root = null;
+      }
+    }
+    Entry entry = new Entry(clone ? solution.clone() : solution, point);
+    entries.add(entry);
+    size++;
+    if (root == null) {
+      root = new Node();
+    }
+    insert(root, entry);
+    if (entries.size() > 2 * size + MAX_LEAF_SIZE) {
+      ArrayList<Entry> alive = new ArrayList<Entry>(size);
+      for (Entry e : entries) {
+        if (e.alive) {
+          alive.add(e);
+        }
+      }
+      entries = alive;
+    }
+    return true;
+  }
+
+  private double[] getPoint(Solution<V> solution) {
+    if (numberOfObjectives < 0) {
+      numberOfObjectives = solution.getNumberOfObjectives();
+    }
+    double[] point = new double[numberOfObjectives];
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      point[k] = solution.getObjectiveValue(k);
+    }
+    return point;
+  }
+
+  /**
+   * Removes the members of node dominated by y.
+   *
+   * @return false if y is dominated by (or equal to) a member.
+   */
+  private boolean update(Node node, double[] y, Solution<V> candidate) {
+    if (dominates(node.nadir, y)) {
+      return false;
+    }
+    if (dominates(y, node.ideal)) {
+      kill(node);
+      return true;
+    }
+    if (!weaklyDominates(y, node.nadir) && !weaklyDominates(node.ideal, y)) {
+      return true;
+    }
+    if (node.children == null) {
+      for (int i = 0; i < node.points.size(); ++i) {
+        Entry entry = node.points.get(i);
+        int compare = DominanceKernel.compare(entry.point, 0, y, 0, numberOfObjectives);
+        if (compare < 0) {
+          return false;
+        } else if (compare > 0) {
+          entry.alive = false;
+          size--;
+          node.points.remove(i--);
+        } else if (equal(entry.point, y) && entry.solution.equals(candidate)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int i = 0; i < node.children.size(); ++i) {
+      Node child = node.children.get(i);
+      if (!update(child, y, candidate)) {
+        return false;
+      }
+      if (isEmpty(child)) {
+        node.children.remove(i--);
+      }
+    }
+    if (node.children.size() == 1) {
+      Node child = node.children.get(0);
+      node.children = child.children;
+      node.points = child.points;
+      node.ideal = child.ideal;
+      node.nadir = child.nadir;
+    }
+    return true;
+  }
+
+  private boolean covered(Node node, double[] y, Solution<V> candidate) {
+    if (dominates(node.nadir, y)) {
+      return true;
+    }
+    if (!weaklyDominates(node.ideal, y)) {
+      return false;
+    }
+    if (node.children == null) {
+      for (Entry entry : node.points) {
+        int compare = DominanceKernel.compare(entry.point, 0, y, 0, numberOfObjectives);
+        if (compare < 0 || (compare == 0 && equal(entry.point, y) && entry.solution.equals(candidate))) {
+          return true;
+        }
+      }
+      return false;
+    }
+    for (Node child : node.children) {
+      if (covered(child, y, candidate)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void kill(Node node) {
+    if (node.children == null) {
+      for (Entry entry : node.points) {
+        entry.alive = false;
+        size--;
+      }
+      node.points.clear();
+    } else {
+      for (Node child : node.children) {
+        kill(child);
+      }
+      node.children.clear();
+    }
+  }
+
+  private boolean isEmpty(Node node) {
+    return node.children == null ? node.points.isEmpty() : node.children.isEmpty();
+  }
+
+  private void insert(Node node, Entry entry) {
+    node.extend(entry.point);
+    if (node.children == null) {
+      node.points.add(entry);
+      if (node.points.size() > MAX_LEAF_SIZE) {
+        split(node);
+      }
+      return;
+    }
+    Node closest = null;
+    double best = Double.POSITIVE_INFINITY;
+    for (Node child : node.children) {
+      double distance = child.distanceToMiddle(entry.point);
+      if (closest == null || distance < best) {
+        closest = child;
+        best = distance;
+      }
+    }
+    insert(closest, entry);
+  }
+
+  /**
+   * Splits a leaf in numberOfObjectives + 1 children. Seeds are chosen far
+   * from each other; the rest of the points go to the closest child.
+   */
+  private void split(Node node) {
+    ArrayList<Entry> points = node.points;
+    int n = points.size();
+    int numberOfChildren = Math.min(n, Math.max(2, numberOfObjectives + 1));
+    double[][] distances = new double[n][n];
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j) {
+        distances[i][j] = distances[j][i] = distance(points.get(i).point, points.get(j).point);
+      }
+    }
+    boolean[] used = new boolean[n];
+    int[] seeds = new int[numberOfChildren];
+    // First seed: largest average distance to the rest
+    int first = 0;
+    double best = -1;
+    for (int i = 0; i < n; ++i) {
+      double sum = 0;
+      for (int j = 0; j < n; ++j) {
+        sum += distances[i][j];
+      }
+      if (sum > best) {
+        best = sum;
+        first = i;
+      }
+    }
+    seeds[0] = first;
+    used[first] = true;
+    for (int s = 1; s < numberOfChildren; ++s) {
+      int next = -1;
+      best = -1;
+      for (int i = 0; i < n; ++i) {
+        if (used[i]) {
+          continue;
+        }
+        double sum = 0;
+        for (int t = 0; t < s; ++t) {
+          sum += distances[i][seeds[t]];
+        }
+        if (sum > best) {
+          best = sum;
+          next = i;
+        }
+      }
+      seeds[s] = next;
+      used[next] = true;
+    }
+    ArrayList<Node> children = new ArrayList<Node>(numberOfChildren);
+    for (int s = 0; s < numberOfChildren; ++s) {
+      Node child = new Node();
+      Entry seed = points.get(seeds[s]);
+      child.extend(seed.point);
+      child.points.add(seed);
+      children.add(child);
+    }
+    node.children = children;
+    node.points = null;
+    for (int i = 0; i < n; ++i) {
+      if (!used[i]) {
+        insert(node, points.get(i));
+      }
+    }
+  }
+
+  private boolean dominates(double[] a, double[] b) {
+    return DominanceKernel.compare(a, 0, b, 0, numberOfObjectives) < 0;
+  }
+
+  private boolean weaklyDominates(double[] a, double[] b) {
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      if (a[k] > b[k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean equal(double[] a, double[] b) {
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      if (a[k] != b[k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private double distance(double[] a, double[] b) {
+    double sum = 0;
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      double diff = a[k] - b[k];
+      sum += diff * diff;
+    }
+    return Math.sqrt(sum);
+  }
+
+  protected class Entry {
+
+    protected final Solution<V> solution;
+    protected final double[] point;
+    protected boolean alive = true;
+
+    protected Entry(Solution<V> solution, double[] point) {
+      this.solution = solution;
+      this.point = point;
+    }
+  }
+
+  /**
+   * ND-tree node: a leaf keeps members, an internal node keeps children.
+   * Ideal and nadir points only grow; after removals they are still valid
+   * bounds of the subtree.
+   */
+  protected class Node {
+
+    protected double[] ideal;
+    protected double[] nadir;
+    protected ArrayList<Node> children = null;
+    protected ArrayList<Entry> points = new ArrayList<Entry>();
+
+    protected Node() {
+      ideal = new double[numberOfObjectives];
+      nadir = new double[numberOfObjectives];
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        ideal[k] = Double.POSITIVE_INFINITY;
+        nadir[k] = Double.NEGATIVE_INFINITY;
+      }
+    }
+
+    protected void extend(double[] point) {
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        if (point[k] < ideal[k]) {
+          ideal[k] = point[k];
+        }
+        if (point[k] > nadir[k]) {
+          nadir[k] = point[k];
+        }
+      }
+    }
+
+    protected double distanceToMiddle(double[] point) {
+      double sum = 0;
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        double diff = point[k] - (ideal[k] + nadir[k]) / 2;
+        sum += diff * diff;
+      }
+      return sum;
+    }
+  }
+}
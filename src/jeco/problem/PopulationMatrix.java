@@ -0,0 +1,278 @@
+package jeco.problem;
+
+import java.util.ArrayList;
+
+import jeco.util.random.RandomGenerator;
+
+/**
+ * Struct-of-arrays container for real-coded populations. Variables and
+ * objectives of all the individuals are stored in two contiguous row-major
+ * blocks (size x numberOfVariables and size x numberOfObjectives).
+ *
+ * Rows can be accessed as lightweight <code>Solution</code> views through
+ * get(row) or asSolutions(). Reads and writes made through a view go straight
+ * to the blocks, so problems can evaluate the views directly. Cloning a view
+ * returns a detached, ordinary <code>Solution</code>.
+ *
+ * Scope: views are a compatibility path. Problems that read variables
+ * through getVariable(j).getValue() still box every value; code that wants
+ * unboxed access must use getVariableValue() or getVariableBlock(). Only
+ * the real-coded operators (SBX, polynomial, uniform and non-uniform
+ * mutation) have matrix overloads. The algorithms, including DE, OMOPSO
+ * and NSPSO, still keep their populations as <code>Solutions</code>.
+ *
+ * @author José L. Risco-Martín
+ */
+public class PopulationMatrix {
+
+  protected int size;
+  protected int numberOfVariables;
+  protected int numberOfObjectives;
+  protected double[] variables;
+  protected double[] objectives;
+  protected Row[] rows;
+
+  public PopulationMatrix(int size, int numberOfVariables, int numberOfObjectives) {
+    this.size = size;
+    this.numberOfVariables = numberOfVariables;
+    this.numberOfObjectives = numberOfObjectives;
+    this.variables = new double[size * numberOfVariables];
+    this.objectives = new double[size * numberOfObjectives];
+    this.rows = new Row[size];
+  }
+
+  public PopulationMatrix(Problem<?> problem, int size) {
+    this(size, problem.getNumberOfVariables(), problem.getNumberOfObjectives());
+  }
+
+  /**
+   * Copies a set of real-coded solutions into a new matrix.
+   *
+   * @param solutions Solutions to copy
+   * @return A new matrix with one row per solution
+   */
+  public static <V extends Variable<Double>> PopulationMatrix valueOf(Solutions<V> solutions) {
+    int numberOfVariables = solutions.isEmpty() ? 0 : solutions.get(0).getVariables().size();
+    int numberOfObjectives = solutions.isEmpty() ? 0 : solutions.get(0).getNumberOfObjectives();
+    PopulationMatrix matrix = new PopulationMatrix(solutions.size(), numberOfVariables, numberOfObjectives);
+    for (int i = 0; i < solutions.size(); ++i) {
+      matrix.set(i, solutions.get(i));
+    }
+    return matrix;
+  }
+
+  /**
+   * Fills every variable with a uniform random value within the problem
+   * bounds, the same way the real-coded problems build new solutions.
+   *
+   * @param problem Problem providing the bounds
+   */
+  public void randomize(Problem<?> problem) {
+    for (int i = 0; i < size; ++i) {
+      int offset = i * numberOfVariables;
+      for (int j = 0; j < numberOfVariables; ++j) {
+        variables[offset + j] = RandomGenerator.nextDouble(problem.getLowerBound(j), problem.getUpperBound(j));
+      }
+    }
+  }
+
+  /**
+   * Evaluates every row with the given problem. The problem works on the row
+   * views, so objectives are written directly into the objective block.
+   *
+   * @param problem Problem to evaluate
+   */
+  public void evaluate(Problem<Variable<Double>> problem) {
+    problem.evaluate(asSolutions());
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getNumberOfVariables() {
+    return numberOfVariables;
+  }
+
+  public int getNumberOfObjectives() {
+    return numberOfObjectives;
+  }
+
+  public double getVariableValue(int row, int idx) {
+    return variables[row * numberOfVariables + idx];
+  }
+
+  public void setVariableValue(int row, int idx, double value) {
+    variables[row * numberOfVariables + idx] = value;
+  }
+
+  public double getObjectiveValue(int row, int idx) {
+    return objectives[row * numberOfObjectives + idx];
+  }
+
+  public void setObjectiveValue(int row, int idx, double value) {
+    objectives[row * numberOfObjectives + idx] = value;
+  }
+
+  /**
+   * Row-major block with the variables: variable j of row i is stored at
+   * i * getNumberOfVariables() + j.
+   */
+  public double[] getVariableBlock() {
+    return variables;
+  }
+
+  /**
+   * Row-major block with the objectives: objective k of row i is stored at
+   * i * getNumberOfObjectives() + k.
+   */
+  public double[] getObjectiveBlock() {
+    return objectives;
+  }
+
+  /**
+   * Copies variables and objectives from a row of another (or the same)
+   * matrix.
+   */
+  public void copyRow(PopulationMatrix source, int sourceRow, int row) {
+    System.arraycopy(source.variables, sourceRow * numberOfVariables, variables, row * numberOfVariables, numberOfVariables);
+    System.arraycopy(source.objectives, sourceRow * numberOfObjectives, objectives, row * numberOfObjectives, numberOfObjectives);
+  }
+
+  /**
+   * Copies the variables and objectives of a solution into the given row.
+   */
+  public <V extends Variable<Double>> void set(int row, Solution<V> solution) {
+    int offset = row * numberOfVariables;
+    ArrayList<V> solVariables = solution.getVariables();
+    for (int j = 0; j < numberOfVariables; ++j) {
+      variables[offset + j] = solVariables.get(j).getValue();
+    }
+    offset = row * numberOfObjectives;
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      objectives[offset + k] = solution.getObjectiveValue(k);
+    }
+  }
+
+  /**
+   * Returns a view over the given row. Views are created lazily and reused.
+   */
+  public Solution<Variable<Double>> get(int row) {
+    Row view = rows[row];
+    if (view == null) {
+      view = new Row(row);
+      rows[row] = view;
+    }
+    return view;
+  }
+
+  /**
+   * @return Views over all the rows, in order.
+   */
+  public Solutions<Variable<Double>> asSolutions() {
+    Solutions<Variable<Double>> solutions = new Solutions<Variable<Double>>();
+    solutions.ensureCapacity(size);
+    for (int i = 0; i < size; ++i) {
+      solutions.add(get(i));
+    }
+    return solutions;
+  }
+
+  /**
+   * @return Detached copies of all the rows, in order.
+   */
+  public Solutions<Variable<Double>> toSolutions() {
+    Solutions<Variable<Double>> solutions = new Solutions<Variable<Double>>();
+    solutions.ensureCapacity(size);
+    for (int i = 0; i < size; ++i) {
+      solutions.add(get(i).clone());
+    }
+    return solutions;
+  }
+
+  /**
+   * Solution view over one row of the matrix.
+   */
+  protected class Row extends Solution<Variable<Double>> {
+
+    protected int row;
+
+    public Row(int row) {
+      super(0);
+      this.row = row;
+    }
+
+    @Override
+    public ArrayList<Variable<Double>> getVariables() {
+      if (variables.size() != numberOfVariables) {
+        variables.clear();
+        for (int j = 0; j < numberOfVariables; ++j) {
+          variables.add(new Cell(row, j));
+        }
+      }
+      return variables;
+    }
+
+    @Override
+    public Variable<Double> getVariable(int idx) {
+      return getVariables().get(idx);
+    }
+
+    @Override
+    public double getObjectiveValue(int idx) {
+      return PopulationMatrix.this.getObjectiveValue(row, idx);
+    }
+
+    @Override
+    public void setObjectiveValue(int idx, double value) {
+      PopulationMatrix.this.setObjectiveValue(row, idx, value);
+    }
+
+    @Override
+    public int getNumberOfObjectives() {
+      return numberOfObjectives;
+    }
+
+    @Override
+    public Solution<Variable<Double>> clone() {
+      Solution<Variable<Double>> clone = new Solution<Variable<Double>>(numberOfObjectives);
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        clone.setObjectiveValue(k, getObjectiveValue(k));
+      }
+      for (int j = 0; j < numberOfVariables; ++j) {
+        clone.getVariables().add(new Variable<Double>(getVariableValue(row, j)));
+      }
+      copyAttributesTo(clone);
+      return clone;
+    }
+  }
+
+  /**
+   * Variable view over one cell of the variable block.
+   */
+  protected class Cell extends Variable<Double> {
+
+    protected int idx;
+
+    public Cell(int row, int column) {
+      super(null);
+      this.idx = row * numberOfVariables + column;
+    }
+
+    @Override
+    public Double getValue() {
+      return PopulationMatrix.this.variables[idx];
+    }
+
+    @Override
+    public void setValue(Double value) {
+      PopulationMatrix.this.variables[idx] = value;
+    }
+
+    @Override
+    public Variable<Double> clone() {
+      return new Variable<Double>(PopulationMatrix.this.variables[idx]);
+    }
+
+  }
+}
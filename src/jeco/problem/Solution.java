@@ -1,20 +1,39 @@
 package jeco.problem;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 public class Solution<V extends Variable<?>> {
 
   protected ArrayList<V> variables = new ArrayList<V>();
-  protected ArrayList<Double> objectives = new ArrayList<Double>();
+  /**
+   * Objective values are stored as primitives. Use getObjectiveValue() and
+   * setObjectiveValue(); getObjectives() is a deprecated boxed view kept
+   * for compatibility.
+   */
+  protected double[] objectives;
+  // Boxed view returned by getObjectives(), created on demand
+  protected List<Double> objectivesView = null;
   protected HashMap<String, Number> properties = new HashMap<String, Number>();
+  /**
+   * Primitive slots for the attributes registered through AttributeKey.
+   */
+  protected double[] doubleAttributes = EMPTY_DOUBLES;
+  protected int[] intAttributes = EMPTY_INTS;
+  // Slots that have been set (bit i for the key with index i)
+  protected long doubleAttributesSet = 0;
+  protected long intAttributesSet = 0;
+  private static final double[] EMPTY_DOUBLES = new double[0];
+  private static final int[] EMPTY_INTS = new int[0];
 
   public Solution(int numberOfObjectives) {
-    for (int i = 0; i < numberOfObjectives; ++i) {
-      objectives.add(0.0);
-    }
+    objectives = new double[numberOfObjectives];
   }
 
   public ArrayList<V> getVariables() {
@@ -25,34 +44,148 @@ public class Solution<V extends Variable<?>> {
     return variables.get(idx);
   }
 
-  public ArrayList<Double> getObjectives() {
-    return objectives;
+  /**
+   * Boxed view over the objective values. Writes through the view are stored
+   * in the underlying primitive array. The view is created once per
+   * solution.
+   *
+   * @return A fixed-size list backed by the objective values.
+   * @deprecated Objectives are stored as primitives, so this returns a List
+   * view instead of the former ArrayList (it cannot grow or shrink). Use
+   * getObjectiveValue(), setObjectiveValue() and getNumberOfObjectives().
+   */
+  @Deprecated
+  public List<Double> getObjectives() {
+    List<Double> view = objectivesView;
+    if (view == null) {
+      view = new ObjectivesView();
+      objectivesView = view;
+    }
+    return view;
   }
 
   public Double getObjective(int idx) {
-    return objectives.get(idx);
+    return getObjectiveValue(idx);
+  }
+
+  public double getObjectiveValue(int idx) {
+    return objectives[idx];
+  }
+
+  public void setObjectiveValue(int idx, double value) {
+    objectives[idx] = value;
   }
 
+  public int getNumberOfObjectives() {
+    return objectives.length;
+  }
+
+  /**
+   * Free-form properties. Attributes computed by jeco operators (rank,
+   * crowding distance, niche count, fitness) are stored in typed slots, see
+   * getDoubleAttribute() and getIntAttribute().
+   */
   public HashMap<String, Number> getProperties() {
     return properties;
   }
 
+  /**
+   * @return Whether the attribute has been set in this solution (or in the
+   * solution it was cloned from).
+   */
+  public boolean hasAttribute(AttributeKey key) {
+    long set = key.integer ? intAttributesSet : doubleAttributesSet;
+    return (set & (1L << key.index)) != 0;
+  }
+
+  /**
+   * Unset attributes read as 0, with no error: use hasAttribute() where 0
+   * is a meaningful value. Attributes never fall back to getProperties(),
+   * even if a property has the same name.
+   *
+   * @param key Attribute key registered with AttributeKey.doubleKey()
+   * @return The attribute value, 0 if it was never set.
+   */
+  public double getDoubleAttribute(AttributeKey key) {
+    int idx = key.index;
+    return (idx < doubleAttributes.length) ? doubleAttributes[idx] : 0.0;
+  }
+
+  public void setDoubleAttribute(AttributeKey key, double value) {
+    int idx = key.index;
+    if (idx >= doubleAttributes.length) {
+      doubleAttributes = Arrays.copyOf(doubleAttributes, idx + 1);
+    }
+    doubleAttributes[idx] = value;
+    doubleAttributesSet |= 1L << idx;
+  }
+
+  /**
+   * Unset attributes read as 0 (see getDoubleAttribute()).
+   *
+   * @param key Attribute key registered with AttributeKey.intKey()
+   * @return The attribute value, 0 if it was never set.
+   */
+  public int getIntAttribute(AttributeKey key) {
+    int idx = key.index;
+    return (idx < intAttributes.length) ? intAttributes[idx] : 0;
+  }
+
+  public void setIntAttribute(AttributeKey key, int value) {
+    int idx = key.index;
+    if (idx >= intAttributes.length) {
+      intAttributes = Arrays.copyOf(intAttributes, idx + 1);
+    }
+    intAttributes[idx] = value;
+    intAttributesSet |= 1L << idx;
+  }
+
+  /**
+   * Reads an attribute of any type as a double.
+   */
+  public double getAttributeValue(AttributeKey key) {
+    return key.integer ? getIntAttribute(key) : getDoubleAttribute(key);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Solution<V> clone() {
-    Solution<V> clone = new Solution<V>(objectives.size());
-    for (int i = 0; i < objectives.size(); ++i) {
-      clone.objectives.set(i, objectives.get(i));
-    }
+    Solution<V> clone = new Solution<V>(objectives.length);
+    System.arraycopy(objectives, 0, clone.objectives, 0, objectives.length);
     for (int i = 0; i < variables.size(); ++i) {
       clone.variables.add((V) variables.get(i).clone());
     }
 
+    copyAttributesTo(clone);
+    return clone;
+  }
+
+  /**
+   * Copies the objectives, properties and attributes (with the marks of
+   * which ones are set) of another solution, for instance of a copy that
+   * was evaluated elsewhere. Variables are not copied.
+   */
+  public void copyEvaluationFrom(Solution<?> evaluated) {
+    // Through the accessors, so that views as PopulationMatrix rows work
+    int nObj = Math.min(getNumberOfObjectives(), evaluated.getNumberOfObjectives());
+    for (int i = 0; i < nObj; ++i) {
+      setObjectiveValue(i, evaluated.getObjectiveValue(i));
+    }
+    evaluated.copyAttributesTo(this);
+  }
+
+  protected void copyAttributesTo(Solution<?> clone) {
     for (Map.Entry<String, Number> entry : properties.entrySet()) {
       clone.properties.put(entry.getKey(), entry.getValue());
     }
-
-    return clone;
+    if (doubleAttributes.length > 0) {
+      clone.doubleAttributes = doubleAttributes.clone();
+    }
+    if (intAttributes.length > 0) {
+      clone.intAttributes = intAttributes.clone();
+    }
+    clone.doubleAttributesSet = doubleAttributesSet;
+    clone.intAttributesSet = intAttributesSet;
   }
 
   public int compareTo(Solution<V> solution, Comparator<Solution<V>> comparator) {
@@ -63,16 +196,17 @@ public class Solution<V extends Variable<?>> {
 	@Override
   public boolean equals(Object right) {
     Solution<V> sol = (Solution<V>) right;
-    int nVar = Math.min(variables.size(), sol.variables.size());
+    int nVar = Math.min(getVariables().size(), sol.getVariables().size());
     for (int i = 0; i < nVar; ++i) {
       if (!this.getVariable(i).equals(sol.getVariable(i))) {
         return false;
       }
     }
-    int nObj = Math.min(objectives.size(), sol.objectives.size());
+    int nObj = Math.min(this.getNumberOfObjectives(), sol.getNumberOfObjectives());
 
     for (int i = 0; i < nObj; ++i) {
-      if (!this.getObjective(i).equals(sol.getObjective(i))) {
+      // Same semantics as Double.equals()
+      if (Double.compare(this.getObjectiveValue(i), sol.getObjectiveValue(i)) != 0) {
         return false;
       }
     }
@@ -82,9 +216,32 @@ public class Solution<V extends Variable<?>> {
   @Override
   public String toString() {
     StringBuilder buffer = new StringBuilder();
-    for (int i = 0; i < this.objectives.size(); ++i) {
-      buffer.append(objectives.get(i)).append(" ");
+    for (int i = 0; i < this.getNumberOfObjectives(); ++i) {
+      buffer.append(getObjectiveValue(i)).append(" ");
     }
     return buffer.toString();
   }
+
+  /**
+   * Fixed-size boxed adapter over the objective values.
+   */
+  protected class ObjectivesView extends AbstractList<Double> implements RandomAccess {
+
+    @Override
+    public Double get(int idx) {
+      return getObjectiveValue(idx);
+    }
+
+    @Override
+    public Double set(int idx, Double value) {
+      double old = getObjectiveValue(idx);
+      setObjectiveValue(idx, value);
+      return old;
+    }
+
+    @Override
+    public int size() {
+      return getNumberOfObjectives();
+    }
+  }
 }
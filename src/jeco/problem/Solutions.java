@@ -1,13 +1,13 @@
 package jeco.problem;
 
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 
+import jeco.util.io.FrontHandler;
+import jeco.util.io.FrontReader;
+
 @SuppressWarnings("serial")
 public class Solutions<V extends Variable<?>> extends ArrayList<Solution<V>> {
 
@@ -47,6 +47,37 @@ public class Solutions<V extends Variable<?>> extends ArrayList<Solution<V>> {
     return rest;
   }
 
+  /**
+   * Keep this set of solutions non-dominated, using a precomputed relation
+   * of this set (in its current order). Returns the set of dominated
+   * solutions, in their original order. As with the comparator version, only
+   * the first copy of equal non-dominated solutions is kept.
+   *
+   * @param relation Dominance relation of this set.
+   * @return The set of dominated solutions.
+   */
+  public Solutions<V> reduceToNonDominated(DominanceMatrix relation) {
+    Solutions<V> rest = new Solutions<V>();
+    Solutions<V> kept = new Solutions<V>();
+    for (int i = 0; i < size(); ++i) {
+      Solution<V> solI = get(i);
+      if (relation.getNumberOfDominators(i) > 0) {
+        rest.add(solI);
+        continue;
+      }
+      boolean duplicated = false;
+      for (int j = 0; j < kept.size() && !duplicated; ++j) {
+        duplicated = solI.equals(kept.get(j));
+      }
+      if (!duplicated) {
+        kept.add(solI);
+      }
+    }
+    clear();
+    addAll(kept);
+    return rest;
+  }
+
   @Override
   public String toString() {
     StringBuilder buffer = new StringBuilder();
@@ -59,61 +90,50 @@ public class Solutions<V extends Variable<?>> extends ArrayList<Solution<V>> {
 
   /**
    * Function that reads a set of solutions from a file.
-   * @param filePath File path
+   * @param filePath File path, text or binary (see <code>FrontReader</code>)
    * @return The set of solutions in the archive.
    * @throws IOException 
-   * @throws java.lang.Exception
    */
   public static Solutions<Variable<?>> readFrontFromFile(String filePath) throws IOException {
-      Solutions<Variable<?>> solutions = new Solutions<Variable<?>>();
-      BufferedReader reader = new BufferedReader(new FileReader(new File(filePath)));
-      String line = reader.readLine();
-      while (line != null) {
-          String[] objectives = line.split(" ");
-          if (line.length() > 0 && objectives != null && objectives.length > 0) {
-              Solution<Variable<?>> solution = new Solution<Variable<?>>(objectives.length);
-              for (int i = 0; i < objectives.length; ++i) {
-                  solution.getObjectives().set(i, Double.valueOf(objectives[i]));
-              }
-              solutions.add(solution);
+      final Solutions<Variable<?>> solutions = new Solutions<Variable<?>>();
+      FrontReader.read(filePath, new FrontHandler() {
+          @Override
+          public void front(int index, double[] values, int numberOfPoints, int numberOfObjectives) {
+              addSolutions(solutions, values, numberOfPoints, numberOfObjectives);
           }
-          line = reader.readLine();
-      }
-      reader.close();
+      });
       return solutions;
   }
 
   /**
    * Function that reads N sets of solutions from a file.
    *
-   * @param filePath File path
+   * @param filePath File path, text or binary (see <code>FrontReader</code>)
    * @return The set of solutions in the archive. Each solution set is separated
    * in the file by a blank line.
    */
   public static ArrayList<Solutions<Variable<?>>> readFrontsFromFile(String filePath) throws FileNotFoundException, IOException {
-    ArrayList<Solutions<Variable<?>>> result = new ArrayList<Solutions<Variable<?>>>();
-    BufferedReader reader = new BufferedReader(new FileReader(new File(filePath)));
-    String line = reader.readLine();
-    Solutions<Variable<?>> solutions = new Solutions<Variable<?>>();
-    while (line != null) {
-      String[] objectives = line.split(" ");
-      if (line.length() <= 0 || objectives == null || objectives.length == 0) {
-        if (solutions.size() > 0) {
-          result.add(solutions);
-        }
-        solutions = new Solutions<Variable<?>>();
-      } else {
-        Solution<Variable<?>> solution = new Solution<Variable<?>>(objectives.length);
-        for (int i = 0; i < objectives.length; ++i) {
-          solution.getObjectives().set(i, Double.valueOf(objectives[i]));
-        }
-        solutions.add(solution);
+    final ArrayList<Solutions<Variable<?>>> result = new ArrayList<Solutions<Variable<?>>>();
+    FrontReader.read(filePath, new FrontHandler() {
+      @Override
+      public void front(int index, double[] values, int numberOfPoints, int numberOfObjectives) {
+        Solutions<Variable<?>> solutions = new Solutions<Variable<?>>();
+        addSolutions(solutions, values, numberOfPoints, numberOfObjectives);
+        result.add(solutions);
       }
-      line = reader.readLine();
-    }
-    reader.close();
+    });
     return result;
   }
+
+  private static void addSolutions(Solutions<Variable<?>> solutions, double[] values, int numberOfPoints, int numberOfObjectives) {
+    for (int i = 0; i < numberOfPoints; ++i) {
+      Solution<Variable<?>> solution = new Solution<Variable<?>>(numberOfObjectives);
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        solution.setObjectiveValue(k, values[i * numberOfObjectives + k]);
+      }
+      solutions.add(solution);
+    }
+  }
   
   /**
    * Function that normalizes a set of fronts in the given interval.
@@ -137,7 +157,7 @@ public class Solutions<V extends Variable<?>> extends ArrayList<Solution<V>> {
       // Get the maximum and minimun values:
       for (Solution<Variable<?>> solution : allTheSolutions) {
           for (int i = 0; i < dim; ++i) {
-              double objI = solution.getObjectives().get(i);
+              double objI = solution.getObjectiveValue(i);
               if (objI < mins[i]) {
                   mins[i] = objI;
               }
@@ -150,9 +170,9 @@ public class Solutions<V extends Variable<?>> extends ArrayList<Solution<V>> {
       // Normalize:
       for (Solution<Variable<?>> solution : allTheSolutions) {
           for (int i = 0; i < dim; ++i) {
-              double objI = solution.getObjectives().get(i);
+              double objI = solution.getObjectiveValue(i);
               double newObjI = 1.0 + (objI - mins[i]) / (maxs[i] - mins[i]);
-              solution.getObjectives().set(i, newObjI);
+              solution.setObjectiveValue(i, newObjI);
           }
       }
 
@@ -45,7 +45,7 @@ public class Rastringin extends Problem<Variable<Double>> {
 			double xi = solution.getVariables().get(i).getValue();
 			fitness += Math.pow(xi, 2) - 10*Math.cos(2*Math.PI*xi);
 		}
-		solution.getObjectives().set(0, fitness);
+		solution.setObjectiveValue(0, fitness);
 		if(fitness<bestValue) {
 			logger.info("Best value found: " + bestValue);
 			bestValue = fitness;
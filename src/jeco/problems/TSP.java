@@ -79,7 +79,7 @@ public class TSP extends Problem<Variable<Integer>> {
 
         fitness += distanceMatrix[firstCity][lastCity];
 
-        solution.getObjectives().set(0, fitness);
+        solution.setObjectiveValue(0, fitness);
     } // evaluate
 
     public void readProblem(String xmlFilePath) throws Exception {
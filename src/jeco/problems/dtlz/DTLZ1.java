@@ -51,7 +51,7 @@ public class DTLZ1 extends DTLZ {
         }//for
 
         for (int i = 0; i < numberOfObjectives; i++) {
-            solution.getObjectives().set(i, f[i]);
+            solution.setObjectiveValue(i, f[i]);
         }
     }
     
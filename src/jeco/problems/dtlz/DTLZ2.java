@@ -37,7 +37,7 @@ public class DTLZ2 extends DTLZ {
                 f *= Math.sin(variables.get(numberOfObjectives-i).getValue() * Math.PI / 2);
             }
 
-            solution.getObjectives().set(i - 1, f);
+            solution.setObjectiveValue(i - 1, f);
         } // for
     }
     
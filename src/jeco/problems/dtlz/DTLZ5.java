@@ -44,7 +44,7 @@ public class DTLZ5 extends DTLZ {
             if (i > 1) {
                 f *= Math.sin(theta[numberOfObjectives - i]);
             }
-            solution.getObjectives().set(i - 1, f);
+            solution.setObjectiveValue(i - 1, f);
         } // for
     }
     
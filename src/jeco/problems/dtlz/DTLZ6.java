@@ -57,7 +57,7 @@ public class DTLZ6 extends DTLZ {
         } // for
 
         for (int i = 0; i < numberOfObjectives; i++) {
-            solution.getObjectives().set(i, f[i]);
+            solution.setObjectiveValue(i, f[i]);
         }
     }
     
@@ -30,7 +30,7 @@ public class DTLZ7 extends DTLZ {
         g = 1.0 + 9.0 * g / k;
 
         for (int i = 1; i <= numberOfObjectives - 1; i++) {
-            solution.getObjectives().set(i - 1, variables.get(i - 1).getValue());
+            solution.setObjectiveValue(i - 1, variables.get(i - 1).getValue());
         }
 
         double h = 0.0;
@@ -41,7 +41,7 @@ public class DTLZ7 extends DTLZ {
         }
 
         h = numberOfObjectives - h;
-        solution.getObjectives().set(numberOfObjectives - 1, (1 + g) * h);
+        solution.setObjectiveValue(numberOfObjectives - 1, (1 + g) * h);
     }
     
     public DTLZ7 clone() {
@@ -23,7 +23,7 @@ public class ZDT1 extends ZDT {
 
     public void evaluate(Solution<Variable<Double>> solution) {
         for (int i = 0; i < numberOfObjectives; i++) {
-            solution.getObjectives().set(i, 0.0);
+            solution.setObjectiveValue(i, 0.0);
         }
         double f1 = 0, g = 0, h = 0;
         ArrayList<Variable<Double>> variables = solution.getVariables();
@@ -36,8 +36,8 @@ public class ZDT1 extends ZDT {
         g *= 9;
         g += 1;
         h = 1 - Math.sqrt(f1 / g);
-        solution.getObjectives().set(0, f1);
-        solution.getObjectives().set(1, g * h);
+        solution.setObjectiveValue(0, f1);
+        solution.setObjectiveValue(1, g * h);
     }
 
     public Solutions<Variable<Double>> computeParetoOptimalFront(int n) {
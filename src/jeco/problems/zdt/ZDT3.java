@@ -32,8 +32,8 @@ public class ZDT3 extends ZDT {
         g /= numberOfVariables - 1;
         g += 1.0;
         double h = 1 - Math.sqrt(f1 / g) - (f1 / g) * Math.sin(10.0 * Math.PI * f1);
-        solution.getObjectives().set(0, f1);
-        solution.getObjectives().set(1, g * h);
+        solution.setObjectiveValue(0, f1);
+        solution.setObjectiveValue(1, g * h);
     }
 
     public Solutions<Variable<Double>> computeParetoOptimalFront(int n) {
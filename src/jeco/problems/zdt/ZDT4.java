@@ -34,8 +34,8 @@ public class ZDT4 extends ZDT {
         }
         g += (1 + 10 * (numberOfVariables - 1));
         double h = 1 - Math.sqrt(f1 / g);
-        solution.getObjectives().set(0, f1);
-        solution.getObjectives().set(1, g * h);
+        solution.setObjectiveValue(0, f1);
+        solution.setObjectiveValue(1, g * h);
     }
 
     public Solutions<Variable<Double>> computeParetoOptimalFront(int n) {
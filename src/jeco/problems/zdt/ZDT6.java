@@ -36,8 +36,8 @@ public class ZDT6 extends ZDT {
         g *= 9;
         g += 1;
         double h = 1 - (f1 / g) * (f1 / g);
-        solution.getObjectives().set(0, f1);
-        solution.getObjectives().set(1, g * h);
+        solution.setObjectiveValue(0, f1);
+        solution.setObjectiveValue(1, g * h);
     }
 
     public Solutions<Variable<Double>> computeParetoOptimalFront(int n) {
@@ -14,6 +14,41 @@ import java.util.List;
  */
 public class Maths {
     
+    /**
+     * Returns the k-th smallest number (0-based), as if numbers were sorted,
+     * in linear expected time. The array is reordered.
+     */
+    public static double select(double[] numbers, int k) {
+        int lo = 0, hi = numbers.length - 1;
+        while (lo < hi) {
+            double pivot = numbers[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (numbers[i] < pivot) {
+                    i++;
+                }
+                while (numbers[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double aux = numbers[i];
+                    numbers[i] = numbers[j];
+                    numbers[j] = aux;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return numbers[k];
+            }
+        }
+        return numbers[k];
+    }
+
     public static double sum(List<Double> numbers) {
         double res = 0;
         for (Double number : numbers) {
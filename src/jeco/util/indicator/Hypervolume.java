@@ -0,0 +1,370 @@
+package jeco.util.indicator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Exact hypervolume of a front (minimization) with respect to a reference
+ * point. Fronts are primitive arrays and are never modified: every method
+ * works on a copy.
+ *
+ * Two objectives use a sweep over the front sorted by the first objective
+ * and three objectives the sweep of Beume et al., keeping the 2D staircase in
+ * a balanced tree; both are O(n log n). With more objectives, the WFG
+ * algorithm is used: the front is sorted by the last objective and each point
+ * adds its slab times its exclusive hypervolume in one objective less, which
+ * is the volume of its box minus the hypervolume of the previous points
+ * limited by it. Limited sets are reduced to their non-dominated points, and
+ * a point whose box is covered by a previous one adds nothing.
+ *
+ * L. While, L. Bradstreet, L. Barone. A fast way of calculating exact
+ * hypervolumes. IEEE Transactions on Evolutionary Computation, 16(1), 86-95,
+ * 2012.
+ *
+ * N. Beume, C.M. Fonseca, M. Lopez-Ibanez, L. Paquete, J. Vahrenhold. On
+ * the complexity of computing the hypervolume indicator. IEEE Transactions
+ * on Evolutionary Computation, 13(5), 1075-1082, 2009.
+ *
+ * @author José L. Risco-Martín
+ */
+public class Hypervolume {
+
+  /**
+   * @param front Points (rows) to measure. Not modified.
+   * @param referencePoint Reference point, dominated by the points that
+   * count. Points that do not dominate it add nothing.
+   * @return Hypervolume dominated by the front and bounded by the reference
+   * point.
+   */
+  public static double calculate(double[][] front, double[] referencePoint) {
+    int m = referencePoint.length;
+    double[][] points = inside(front, referencePoint);
+    // The 2D and 3D sweeps skip dominated points by themselves
+    return hypervolume(m <= 3 ? points : nonDominated(points, m), referencePoint, m);
+  }
+
+  /**
+   * Hypervolume of the objective values of a set of solutions, which is not
+   * modified.
+   */
+  public static <V extends Variable<?>> double calculate(Solutions<V> solutions, double[] referencePoint) {
+    return calculate(toArray(solutions, referencePoint.length), referencePoint);
+  }
+
+  /**
+   * Exclusive contribution of every point: the hypervolume lost if only that
+   * point is removed. Copies of the same point contribute nothing.
+   *
+   * @param front Points (rows). Not modified.
+   * @param referencePoint Reference point
+   * @return Contribution of each row of front.
+   */
+  public static double[] contributions(double[][] front, double[] referencePoint) {
+    int n = front.length;
+    int m = referencePoint.length;
+    double[] contributions = new double[n];
+    if (m == 2 && contributions2D(front, referencePoint, contributions)) {
+      return contributions;
+    }
+    double[][] points = inside(front, referencePoint);
+    for (int i = 0; i < n; ++i) {
+      contributions[i] = exclusive(front[i], points, points.length, front[i], referencePoint);
+    }
+    return contributions;
+  }
+
+  /**
+   * Volume dominated by u and by none of the first count points (skip, if
+   * present, is ignored). Zero as soon as a point weakly dominates u.
+   *
+   * @param points Points inside the reference box
+   */
+  static double exclusive(double[] u, double[][] points, int count, double[] skip, double[] referencePoint) {
+    int m = referencePoint.length;
+    double box = box(u, referencePoint, m);
+    if (box == 0) {
+      return 0;
+    }
+    double[][] limited = new double[count][];
+    int size = 0;
+    for (int j = 0; j < count; ++j) {
+      if (points[j] == skip) {
+        continue;
+      }
+      if (weaklyDominates(points[j], u, m)) {
+        return 0;
+      }
+      limited[size++] = limit(points[j], u, m);
+    }
+    return box - hypervolume(nonDominated(Arrays.copyOf(limited, size), m), referencePoint, m);
+  }
+
+  /**
+   * @return Rows with the first m objective values of every solution.
+   */
+  public static <V extends Variable<?>> double[][] toArray(Solutions<V> solutions, int m) {
+    double[][] points = new double[solutions.size()][m];
+    for (int i = 0; i < points.length; ++i) {
+      Solution<V> solution = solutions.get(i);
+      for (int k = 0; k < m; ++k) {
+        points[i][k] = solution.getObjectiveValue(k);
+      }
+    }
+    return points;
+  }
+
+  /**
+   * Hypervolume of points inside the reference box, mutually non-dominated
+   * if m > 3 (the 2D and 3D sweeps skip dominated points).
+   */
+  private static double hypervolume(double[][] points, double[] referencePoint, int m) {
+    int n = points.length;
+    if (n == 0) {
+      return 0;
+    }
+    if (n == 1) {
+      return box(points[0], referencePoint, m);
+    }
+    switch (m) {
+      case 1:
+        double min = referencePoint[0];
+        for (double[] p : points) {
+          min = Math.min(min, p[0]);
+        }
+        return referencePoint[0] - min;
+      case 2:
+        return hypervolume2D(points, referencePoint);
+      case 3:
+        return hypervolume3D(points, referencePoint);
+      default:
+        return wfg(points, referencePoint, m);
+    }
+  }
+
+  private static double wfg(double[][] points, double[] referencePoint, int m) {
+    final int last = m - 1;
+    double[][] sorted = points.clone();
+    Arrays.sort(sorted, new Comparator<double[]>() {
+      @Override
+      public int compare(double[] a, double[] b) {
+        return Double.compare(a[last], b[last]);
+      }
+    });
+    int n = sorted.length;
+    double volume = 0;
+    double[][] limited = new double[n][];
+    for (int i = 0; i < n; ++i) {
+      double[] p = sorted[i];
+      double box = box(p, referencePoint, last);
+      boolean covered = false;
+      for (int j = 0; j < i && !covered; ++j) {
+        limited[j] = limit(sorted[j], p, last);
+        covered = Arrays.equals(limited[j], 0, last, p, 0, last);
+      }
+      if (covered) {
+        continue;
+      }
+      double exclusive = box;
+      if (i > 0) {
+        exclusive -= hypervolume(nonDominated(Arrays.copyOf(limited, i), last), referencePoint, last);
+      }
+      volume += exclusive * (referencePoint[last] - p[last]);
+    }
+    return volume;
+  }
+
+  private static double hypervolume2D(double[][] points, double[] referencePoint) {
+    double[][] sorted = points.clone();
+    Arrays.sort(sorted, LEXICOGRAPHIC);
+    double volume = 0;
+    double top = referencePoint[1];
+    for (double[] p : sorted) {
+      if (p[1] < top) {
+        volume += (referencePoint[0] - p[0]) * (top - p[1]);
+        top = p[1];
+      }
+    }
+    return volume;
+  }
+
+  /**
+   * Sweep along the third objective, keeping the area dominated in the first
+   * two objectives. The staircase maps x to y, with y decreasing.
+   */
+  private static double hypervolume3D(double[][] points, double[] referencePoint) {
+    double[][] sorted = points.clone();
+    Arrays.sort(sorted, new Comparator<double[]>() {
+      @Override
+      public int compare(double[] a, double[] b) {
+        return Double.compare(a[2], b[2]);
+      }
+    });
+    TreeMap<Double, Double> staircase = new TreeMap<Double, Double>();
+    double area = 0;
+    double volume = 0;
+    int n = sorted.length;
+    for (int i = 0; i < n; ++i) {
+      double[] p = sorted[i];
+      double x = p[0], y = p[1];
+      Map.Entry<Double, Double> floor = staircase.floorEntry(x);
+      if (floor == null || floor.getValue() > y) {
+        Map.Entry<Double, Double> lower = staircase.lowerEntry(x);
+        double currentX = x;
+        double currentTop = lower != null ? lower.getValue() : referencePoint[1];
+        Map.Entry<Double, Double> next = staircase.ceilingEntry(x);
+        while (next != null && next.getValue() >= y) {
+          area += (next.getKey() - currentX) * (currentTop - y);
+          currentX = next.getKey();
+          currentTop = next.getValue();
+          staircase.remove(next.getKey());
+          next = staircase.higherEntry(currentX);
+        }
+        double nextX = next != null ? next.getKey() : referencePoint[0];
+        area += (nextX - currentX) * (currentTop - y);
+        staircase.put(x, y);
+      }
+      double nextZ = i + 1 < n ? sorted[i + 1][2] : referencePoint[2];
+      volume += area * (nextZ - p[2]);
+    }
+    return volume;
+  }
+
+  /**
+   * Sorted by the first objective, each point of a non-dominated front owns
+   * the rectangle between its neighbours.
+   *
+   * @return false if a point inside the reference box dominates another one
+   * in both objectives (then dominated points shrink the contributions and
+   * the general method is used).
+   */
+  private static boolean contributions2D(final double[][] front, double[] referencePoint, double[] contributions) {
+    int n = front.length;
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; ++i) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return LEXICOGRAPHIC.compare(front[a], front[b]);
+      }
+    });
+    double previous = Double.POSITIVE_INFINITY;
+    for (int c = 0; c < n; ++c) {
+      double[] p = front[order[c]];
+      if (p[0] < referencePoint[0] && p[1] < referencePoint[1]) {
+        if (p[1] > previous) {
+          return false;
+        }
+        previous = p[1];
+      }
+    }
+    // Best second objective among the points already visited
+    double top = referencePoint[1];
+    for (int c = 0; c < n; ++c) {
+      double[] p = front[order[c]];
+      if (p[1] >= top || p[0] >= referencePoint[0]) {
+        // Dominated, repeated or outside the reference box
+        continue;
+      }
+      double right = referencePoint[0];
+      for (int d = c + 1; d < n; ++d) {
+        double[] q = front[order[d]];
+        if (q[1] <= p[1]) {
+          right = Math.min(q[0], referencePoint[0]);
+          break;
+        }
+      }
+      contributions[order[c]] = (right - p[0]) * (top - p[1]);
+      top = p[1];
+    }
+    return true;
+  }
+
+  private static final Comparator<double[]> LEXICOGRAPHIC = new Comparator<double[]>() {
+    @Override
+    public int compare(double[] a, double[] b) {
+      int result = Double.compare(a[0], b[0]);
+      return result != 0 ? result : Double.compare(a[1], b[1]);
+    }
+  };
+
+  private static double box(double[] p, double[] referencePoint, int m) {
+    double volume = 1.0;
+    for (int k = 0; k < m; ++k) {
+      volume *= Math.max(0, referencePoint[k] - p[k]);
+    }
+    return volume;
+  }
+
+  private static double[] limit(double[] q, double[] p, int m) {
+    double[] result = new double[m];
+    for (int k = 0; k < m; ++k) {
+      result[k] = Math.max(p[k], q[k]);
+    }
+    return result;
+  }
+
+  private static double[][] inside(double[][] front, double[] referencePoint) {
+    int m = referencePoint.length;
+    double[][] result = new double[front.length][];
+    int count = 0;
+    for (double[] p : front) {
+      boolean inside = true;
+      for (int k = 0; k < m && inside; ++k) {
+        inside = p[k] < referencePoint[k];
+      }
+      if (inside) {
+        result[count++] = p;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Non-dominated points in the first m objectives, one copy of each. Limited
+   * sets usually collapse to a few points, so every candidate is compared
+   * with the points kept so far only.
+   */
+  private static double[][] nonDominated(double[][] points, int m) {
+    int n = points.length;
+    if (n < 2) {
+      return points;
+    }
+    double[][] result = new double[n][];
+    int count = 0;
+    for (double[] p : points) {
+      boolean dominated = false;
+      for (int d = 0; d < count && !dominated; ++d) {
+        dominated = weaklyDominates(result[d], p, m);
+      }
+      if (dominated) {
+        continue;
+      }
+      int kept = 0;
+      for (int d = 0; d < count; ++d) {
+        if (!weaklyDominates(p, result[d], m)) {
+          result[kept++] = result[d];
+        }
+      }
+      result[kept++] = p;
+      count = kept;
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static boolean weaklyDominates(double[] a, double[] b, int m) {
+    for (int k = 0; k < m; ++k) {
+      if (a[k] > b[k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
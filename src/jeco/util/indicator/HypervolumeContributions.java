@@ -0,0 +1,335 @@
+package jeco.util.indicator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exclusive hypervolume contributions of a front that changes one point at a
+ * time (minimization). Points must be mutually non-dominated, distinct and
+ * inside the reference box.
+ *
+ * With two objectives the front is kept sorted in a balanced tree and each
+ * contribution only depends on the two neighbours of the point, so add() and
+ * remove() are O(log n) and getLeastContributor() is a single pass.
+ *
+ * With more objectives every contribution is stored and updated exactly:
+ * adding p takes from q the volume dominated by max(p, q) and by no other
+ * point; removing p gives it back. Only points whose limited point max(p, q)
+ * is not weakly dominated by a third point change, and for the rest the test
+ * stops at the first point that dominates it.
+ *
+ * Moving the reference point along objective k by d, with every point below
+ * both positions, adds (or removes) a slab in which each point dominates
+ * its projection on the other objectives. So every contribution changes by
+ * d times the exclusive contribution of its projection. With three
+ * objectives the projections are two-dimensional and all of them are
+ * computed in O(n log n); with more objectives, or when points lie beyond
+ * the reference point, every contribution is recomputed.
+ *
+ * Points are identified by their index, from 0 to size() - 1. Removing a
+ * point moves the last one to its index, as ArrayList-based populations do
+ * with a swap-remove.
+ *
+ * @author José L. Risco-Martín
+ */
+public class HypervolumeContributions {
+
+  protected int numberOfObjectives;
+  protected double[] referencePoint;
+  protected double[][] points = new double[16][];
+  protected double[] contributions = new double[16];
+  protected int size = 0;
+  // Two objectives: first objective -> index
+  protected TreeMap<Double, Integer> sorted = null;
+
+  public HypervolumeContributions(double[] referencePoint) {
+    this.numberOfObjectives = referencePoint.length;
+    this.referencePoint = referencePoint.clone();
+    if (numberOfObjectives == 2) {
+      sorted = new TreeMap<Double, Integer>();
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public double[] getPoint(int i) {
+    return points[i];
+  }
+
+  public double[] getReferencePoint() {
+    return referencePoint.clone();
+  }
+
+  /**
+   * Changes the reference point. With three objectives the contributions
+   * are shifted one objective at a time (see the class description); with
+   * more, all of them are recomputed if it is not the same one.
+   */
+  public void setReferencePoint(double[] referencePoint) {
+    if (Arrays.equals(this.referencePoint, referencePoint)) {
+      return;
+    }
+    double[] current = this.referencePoint;
+    this.referencePoint = referencePoint.clone();
+    if (sorted != null) {
+      return;
+    }
+    if (numberOfObjectives == 3 && below(current, this.referencePoint)) {
+      current = current.clone();
+      double[] slab = new double[size];
+      for (int k = 0; k < 3; ++k) {
+        double d = this.referencePoint[k] - current[k];
+        if (d != 0) {
+          projectedContributions(k, current, slab);
+          for (int i = 0; i < size; ++i) {
+            contributions[i] += d * slab[i];
+          }
+          current[k] = this.referencePoint[k];
+        }
+      }
+      return;
+    }
+    for (int i = 0; i < size; ++i) {
+      contributions[i] = Hypervolume.exclusive(points[i], points, size, points[i], this.referencePoint);
+    }
+  }
+
+  /**
+   * Inserts a point, non-dominated with respect to the current ones.
+   *
+   * @return Index of the new point.
+   */
+  public int add(double[] point) {
+    double[] p = point.clone();
+    if (size == points.length) {
+      points = Arrays.copyOf(points, 2 * size);
+      contributions = Arrays.copyOf(contributions, 2 * size);
+    }
+    if (sorted != null) {
+      sorted.put(p[0], size);
+    } else {
+      for (int q = 0; q < size; ++q) {
+        double[] u = limit(p, points[q]);
+        contributions[q] -= Hypervolume.exclusive(u, points, size, points[q], referencePoint);
+      }
+      contributions[size] = Hypervolume.exclusive(p, points, size, null, referencePoint);
+    }
+    points[size] = p;
+    return size++;
+  }
+
+  /**
+   * Inserts several mutually non-dominated points, also non-dominated with
+   * respect to the current ones. With more than two objectives, the
+   * contributions are computed once at the end instead of being updated
+   * after every insertion.
+   *
+   * @return Index of the first new point; the rest follow in order.
+   */
+  public int addAll(double[][] newPoints) {
+    int first = size;
+    if (sorted != null) {
+      for (double[] point : newPoints) {
+        add(point);
+      }
+      return first;
+    }
+    if (size + newPoints.length > points.length) {
+      int capacity = Math.max(2 * points.length, size + newPoints.length);
+      points = Arrays.copyOf(points, capacity);
+      contributions = Arrays.copyOf(contributions, capacity);
+    }
+    for (double[] point : newPoints) {
+      points[size++] = point.clone();
+    }
+    for (int i = 0; i < size; ++i) {
+      contributions[i] = Hypervolume.exclusive(points[i], points, size, points[i], referencePoint);
+    }
+    return first;
+  }
+
+  /**
+   * Removes point i. The last point takes its index.
+   */
+  public void remove(int i) {
+    double[] p = points[i];
+    int last = size - 1;
+    if (sorted != null) {
+      sorted.remove(p[0]);
+      if (i != last) {
+        sorted.put(points[last][0], i);
+      }
+    }
+    points[i] = points[last];
+    contributions[i] = contributions[last];
+    points[last] = null;
+    size--;
+    if (sorted == null) {
+      for (int q = 0; q < size; ++q) {
+        double[] u = limit(p, points[q]);
+        contributions[q] += Hypervolume.exclusive(u, points, size, points[q], referencePoint);
+      }
+    }
+  }
+
+  public double getContribution(int i) {
+    if (sorted == null) {
+      return contributions[i];
+    }
+    double x = points[i][0];
+    Map.Entry<Double, Integer> lower = sorted.lowerEntry(x);
+    Map.Entry<Double, Integer> higher = sorted.higherEntry(x);
+    double top = lower != null ? points[lower.getValue()][1] : referencePoint[1];
+    double right = higher != null ? higher.getKey() : referencePoint[0];
+    return area(points[i], right, top);
+  }
+
+  /**
+   * @return Index of the point with the lowest contribution (the lowest
+   * index on ties), or -1 if there are no points.
+   */
+  public int getLeastContributor() {
+    int worst = -1;
+    double min = Double.POSITIVE_INFINITY;
+    if (sorted == null) {
+      for (int i = 0; i < size; ++i) {
+        if (contributions[i] < min) {
+          min = contributions[i];
+          worst = i;
+        }
+      }
+      return worst;
+    }
+    double top = referencePoint[1];
+    int previous = -1;
+    for (int i : sorted.values()) {
+      if (previous >= 0) {
+        double contribution = area(points[previous], points[i][0], top);
+        if (contribution < min || (contribution == min && previous < worst)) {
+          min = contribution;
+          worst = previous;
+        }
+        top = points[previous][1];
+      }
+      previous = i;
+    }
+    if (previous >= 0) {
+      double contribution = area(points[previous], referencePoint[0], top);
+      if (contribution < min || (contribution == min && previous < worst)) {
+        worst = previous;
+      }
+    }
+    return worst;
+  }
+
+  private double area(double[] p, double right, double top) {
+    return Math.max(0, Math.min(right, referencePoint[0]) - p[0]) * Math.max(0, Math.min(top, referencePoint[1]) - p[1]);
+  }
+
+  /**
+   * @return true if no point goes beyond any of both reference points.
+   */
+  private boolean below(double[] r1, double[] r2) {
+    for (int i = 0; i < size; ++i) {
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        if (points[i][k] > Math.min(r1[k], r2[k])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Exclusive contributions of the projections of the points on the two
+   * objectives other than k, with the given reference point. The points
+   * not weakly dominated by a different one form a staircase; each one
+   * owns the rectangle up to its neighbours, minus the boxes of the points
+   * inside it (those dominated by it alone). Repeated projections of the
+   * staircase contribute 0.
+   */
+  private void projectedContributions(int k, double[] reference, double[] result) {
+    final int a = k == 0 ? 1 : 0;
+    final int b = k == 2 ? 1 : 2;
+    double ra = reference[a], rb = reference[b];
+    Arrays.fill(result, 0, size, 0);
+    Integer[] order = new Integer[size];
+    int count = 0;
+    for (int i = 0; i < size; ++i) {
+      if (points[i][a] < ra && points[i][b] < rb) {
+        order[count++] = i;
+      }
+    }
+    Arrays.sort(order, 0, count, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer i, Integer j) {
+        int result = Double.compare(points[i][a], points[j][a]);
+        return result != 0 ? result : Double.compare(points[i][b], points[j][b]);
+      }
+    });
+    // Staircase: first index (in order) of each step, and its multiplicity
+    int[] steps = new int[count];
+    int[] multiplicity = new int[count];
+    int numberOfSteps = 0;
+    double lowest = Double.POSITIVE_INFINITY;
+    for (int c = 0; c < count; ++c) {
+      double[] p = points[order[c]];
+      if (p[b] < lowest) {
+        steps[numberOfSteps] = c;
+        multiplicity[numberOfSteps++] = 1;
+        lowest = p[b];
+      } else if (numberOfSteps > 0 && same(p, points[order[steps[numberOfSteps - 1]]], a, b)) {
+        multiplicity[numberOfSteps - 1]++;
+      }
+    }
+    // Dominated points, by staircase step
+    double[] area = new double[numberOfSteps];
+    double[] right = new double[numberOfSteps];
+    double[] top = new double[numberOfSteps];
+    for (int s = 0; s < numberOfSteps; ++s) {
+      double[] p = points[order[steps[s]]];
+      right[s] = s + 1 < numberOfSteps ? points[order[steps[s + 1]]][a] : ra;
+      top[s] = s > 0 ? points[order[steps[s - 1]]][b] : rb;
+      area[s] = (right[s] - p[a]) * (top[s] - p[b]);
+    }
+    // Lowest second value of the points of each rectangle visited so far
+    double[] covered = top.clone();
+    int s = 0;
+    for (int c = 0; c < count; ++c) {
+      while (s + 1 < numberOfSteps && steps[s + 1] <= c) {
+        s++;
+      }
+      if (c < steps[s] + multiplicity[s]) {
+        // Step or repeated step
+        continue;
+      }
+      double[] q = points[order[c]];
+      if (q[b] < covered[s]) {
+        // Inside the rectangle of step s, by x and then by y
+        area[s] -= (right[s] - q[a]) * (covered[s] - q[b]);
+        covered[s] = q[b];
+      }
+    }
+    for (int t = 0; t < numberOfSteps; ++t) {
+      if (multiplicity[t] == 1) {
+        result[order[steps[t]]] = area[t];
+      }
+    }
+  }
+
+  private static boolean same(double[] p, double[] q, int a, int b) {
+    return p[a] == q[a] && p[b] == q[b];
+  }
+
+  private double[] limit(double[] p, double[] q) {
+    double[] u = new double[numberOfObjectives];
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      u[k] = Math.max(p[k], q[k]);
+    }
+    return u;
+  }
+}
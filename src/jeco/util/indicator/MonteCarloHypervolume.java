@@ -0,0 +1,284 @@
+package jeco.util.indicator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.random.RandomGenerator;
+
+/**
+ * Monte Carlo estimate of the hypervolume of a front (minimization), for
+ * many objectives, where the exact <code>Hypervolume</code> is too slow.
+ * Points are sampled uniformly in the box between the ideal point of the
+ * front and the reference point; the estimate is the volume of the box times
+ * the fraction of samples dominated by the front.
+ *
+ * Samples are drawn in batches until the half width of the confidence
+ * interval falls below the target relative error, or the maximum number of
+ * samples is reached. Every batch is split in chunks of CHUNK_SIZE samples,
+ * each one with its own random stream split from the seed, and the chunks
+ * are tested in parallel. Streams do not depend on the number of threads, so
+ * a seed always gives the same estimate.
+ *
+ * @author José L. Risco-Martín
+ */
+public class MonteCarloHypervolume {
+
+  /**
+   * Samples per random stream (and per parallel task).
+   */
+  public static final int CHUNK_SIZE = 4096;
+
+  protected ForkJoinPool pool;
+  protected double relativeError = 0.01;
+  protected double z = 1.96;
+  protected int batchSize = 16 * CHUNK_SIZE;
+  protected long maxSamples = 10000000L;
+  protected long seed;
+
+  public MonteCarloHypervolume(ForkJoinPool pool, long seed) {
+    this.pool = pool;
+    this.seed = seed;
+  }
+
+  /**
+   * Uses the common pool and a seed drawn from
+   * <code>RandomGenerator</code>.
+   */
+  public MonteCarloHypervolume() {
+    this(ForkJoinPool.commonPool(), RandomGenerator.nextInt(Integer.MAX_VALUE));
+  }
+
+  /**
+   * @param relativeError Target half width of the confidence interval,
+   * relative to the estimate
+   */
+  public void setRelativeError(double relativeError) {
+    this.relativeError = relativeError;
+  }
+
+  /**
+   * @param z Quantile of the standard normal distribution for the confidence
+   * interval (1.96 for 95%)
+   */
+  public void setZ(double z) {
+    this.z = z;
+  }
+
+  /**
+   * @param batchSize Samples drawn between two stopping checks (rounded up to
+   * CHUNK_SIZE)
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = Math.max(CHUNK_SIZE, (batchSize + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE);
+  }
+
+  public void setMaxSamples(long maxSamples) {
+    this.maxSamples = maxSamples;
+  }
+
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  public <V extends Variable<?>> Estimate estimate(Solutions<V> solutions, double[] referencePoint) {
+    return estimate(Hypervolume.toArray(solutions, referencePoint.length), referencePoint);
+  }
+
+  /**
+   * @param front Points (rows). Not modified.
+   * @param referencePoint Reference point
+   * @return Estimate and confidence interval.
+   */
+  public Estimate estimate(double[][] front, double[] referencePoint) {
+    final int m = referencePoint.length;
+    // Points inside the reference box, sorted by the first objective
+    double[][] points = new double[front.length][];
+    int n = 0;
+    for (double[] p : front) {
+      boolean inside = true;
+      for (int k = 0; k < m && inside; ++k) {
+        inside = p[k] < referencePoint[k];
+      }
+      if (inside) {
+        points[n++] = p.clone();
+      }
+    }
+    if (n == 0) {
+      return new Estimate(0, 0, 0);
+    }
+    points = Arrays.copyOf(points, n);
+    Arrays.sort(points, new Comparator<double[]>() {
+      @Override
+      public int compare(double[] a, double[] b) {
+        return Double.compare(a[0], b[0]);
+      }
+    });
+    double[] lower = points[0].clone();
+    for (double[] p : points) {
+      for (int k = 1; k < m; ++k) {
+        lower[k] = Math.min(lower[k], p[k]);
+      }
+    }
+    double box = 1.0;
+    for (int k = 0; k < m; ++k) {
+      box *= referencePoint[k] - lower[k];
+    }
+
+    SplittableRandom root = new SplittableRandom(seed);
+    int chunks = batchSize / CHUNK_SIZE;
+    long samples = 0, hits = 0;
+    Estimate estimate;
+    do {
+      Sampler[] tasks = new Sampler[chunks];
+      for (int c = 0; c < chunks; ++c) {
+        tasks[c] = new Sampler(points, lower, referencePoint, root.split());
+      }
+      if (pool != null && pool.getParallelism() > 1) {
+        pool.invoke(new Batch(tasks));
+      } else {
+        for (Sampler task : tasks) {
+          task.compute();
+        }
+      }
+      for (Sampler task : tasks) {
+        hits += task.hits;
+      }
+      samples += (long) chunks * CHUNK_SIZE;
+      double fraction = (double) hits / samples;
+      double halfWidth = z * box * Math.sqrt(fraction * (1 - fraction) / samples);
+      estimate = new Estimate(box * fraction, halfWidth, samples);
+      if (hits > 0 && halfWidth <= relativeError * estimate.value) {
+        break;
+      }
+    } while (samples < maxSamples);
+    return estimate;
+  }
+
+  /**
+   * Hypervolume estimate with a normal-approximation confidence interval.
+   */
+  public static class Estimate {
+
+    protected double value;
+    protected double halfWidth;
+    protected long samples;
+
+    protected Estimate(double value, double halfWidth, long samples) {
+      this.value = value;
+      this.halfWidth = halfWidth;
+      this.samples = samples;
+    }
+
+    public double getValue() {
+      return value;
+    }
+
+    public double getHalfWidth() {
+      return halfWidth;
+    }
+
+    public double getLowerBound() {
+      return value - halfWidth;
+    }
+
+    public double getUpperBound() {
+      return value + halfWidth;
+    }
+
+    public double getRelativeError() {
+      return value > 0 ? halfWidth / value : 0;
+    }
+
+    public long getNumberOfSamples() {
+      return samples;
+    }
+
+    @Override
+    public String toString() {
+      return value + " +/- " + halfWidth + " (" + samples + " samples)";
+    }
+  }
+
+  private static class Batch extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final Sampler[] tasks;
+
+    private Batch(Sampler[] tasks) {
+      this.tasks = tasks;
+    }
+
+    @Override
+    protected void compute() {
+      invokeAll(tasks);
+    }
+  }
+
+  private static class Sampler extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final double[][] points;
+    private final double[] lower;
+    private final double[] upper;
+    private final SplittableRandom random;
+    private long hits = 0;
+
+    private Sampler(double[][] points, double[] lower, double[] upper, SplittableRandom random) {
+      this.points = points;
+      this.lower = lower;
+      this.upper = upper;
+      this.random = random;
+    }
+
+    @Override
+    protected void compute() {
+      int m = lower.length;
+      double[] sample = new double[m];
+      for (int s = 0; s < CHUNK_SIZE; ++s) {
+        for (int k = 0; k < m; ++k) {
+          sample[k] = lower[k] + (upper[k] - lower[k]) * random.nextDouble();
+        }
+        if (dominated(sample, m)) {
+          hits++;
+        }
+      }
+    }
+
+    /**
+     * Only the points whose first objective is not greater than the sample's
+     * can dominate it.
+     */
+    private boolean dominated(double[] sample, int m) {
+      int end = upperBound(sample[0]);
+      for (int i = 0; i < end; ++i) {
+        double[] p = points[i];
+        int k = 1;
+        while (k < m && p[k] <= sample[k]) {
+          k++;
+        }
+        if (k == m) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private int upperBound(double value) {
+      int lo = 0, hi = points.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (points[mid][0] <= value) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
+  }
+}
@@ -0,0 +1,389 @@
+package jeco.util.indicator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jeco.operator.assigner.KdTree;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+import jeco.util.Maths;
+import jeco.util.io.FrontReader;
+
+/**
+ * Distance-based quality indicators of approximation fronts with respect to
+ * a reference front (minimization):
+ *
+ * - GD: mean distance from every point of the front to the reference front.
+ * - IGD: mean distance from every reference point to the front.
+ * - IGD_PLUS: as IGD, measuring only the objectives in which the front is
+ * worse (H. Ishibuchi et al., EMO 2015), so it is weakly Pareto compliant.
+ * - EPSILON: additive epsilon indicator, the smallest shift that makes the
+ * front weakly dominate every reference point.
+ * - SPREAD: generalized spread (A. Zhou et al., CEC 2006), which extends the
+ * spread of Deb to any number of objectives using nearest-neighbour
+ * distances and the extreme points of the reference front.
+ *
+ * Nearest-neighbour distances are answered by KD-trees instead of comparing
+ * every pair of points: one over the reference front, built once, and one
+ * over each front. Reference points are visited leaf by leaf, and every
+ * query starts from the answer to the previous one, which is usually the
+ * answer or close to it. Queries on the trees only read them, so many fronts
+ * are evaluated in parallel with calculate(List).
+ *
+ * @author José L. Risco-Martín
+ */
+public class QualityIndicators {
+
+  public enum INDICATOR {
+
+    GD, IGD, IGD_PLUS, EPSILON, SPREAD
+  };
+  protected int numberOfObjectives;
+  protected double[][] referenceFront;
+  protected KdTree referenceTree;
+  // Copies of the reference points grouped by leaves of referenceTree, and
+  // their indexes in referenceFront
+  protected double[][] orderedReference;
+  protected int[] referenceOrder;
+  // Point of the reference front with the greatest value in each objective
+  protected double[][] extremes;
+  protected ForkJoinPool pool;
+
+  /**
+   * @param referenceFront Reference points (rows), at least one, all with
+   * the same number of objectives. Not copied.
+   * @param pool Pool for calculate(List), or null to evaluate fronts one
+   * after the other
+   * @throws IllegalArgumentException If the reference front is empty or its
+   * points have different numbers of objectives
+   */
+  public QualityIndicators(double[][] referenceFront, ForkJoinPool pool) {
+    if (referenceFront == null || referenceFront.length == 0) {
+      throw new IllegalArgumentException("The reference front is empty.");
+    }
+    this.numberOfObjectives = referenceFront[0].length;
+    for (int i = 1; i < referenceFront.length; ++i) {
+      if (referenceFront[i].length != numberOfObjectives) {
+        throw new IllegalArgumentException("Reference point " + i + " has " + referenceFront[i].length + " objectives instead of " + numberOfObjectives + ".");
+      }
+    }
+    this.referenceFront = referenceFront;
+    this.referenceTree = buildTree(referenceFront, numberOfObjectives);
+    this.referenceOrder = referenceTree.getLeafOrder();
+    orderedReference = new double[referenceOrder.length][];
+    for (int i = 0; i < referenceOrder.length; ++i) {
+      orderedReference[i] = referenceFront[referenceOrder[i]].clone();
+    }
+    this.pool = pool;
+    extremes = new double[numberOfObjectives][];
+    for (int k = 0; k < numberOfObjectives; ++k) {
+      for (double[] r : referenceFront) {
+        if (extremes[k] == null || r[k] > extremes[k][k]) {
+          extremes[k] = r;
+        }
+      }
+    }
+  }
+
+  /**
+   * Uses the common pool.
+   */
+  public QualityIndicators(double[][] referenceFront) {
+    this(referenceFront, ForkJoinPool.commonPool());
+  }
+
+  public <V extends Variable<?>> QualityIndicators(Solutions<V> referenceFront, int numberOfObjectives) {
+    this(Hypervolume.toArray(referenceFront, numberOfObjectives));
+  }
+
+  public double generationalDistance(double[][] front) {
+    if (front.length == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double sum = 0;
+    int[] nearest = {-1};
+    for (double[] a : front) {
+      sum += referenceTree.nearestDistance(a, nearest);
+    }
+    return sum / front.length;
+  }
+
+  public double invertedGenerationalDistance(double[][] front) {
+    return invertedGenerationalDistance(buildTree(front, numberOfObjectives));
+  }
+
+  public double invertedGenerationalDistancePlus(double[][] front) {
+    return invertedGenerationalDistancePlus(buildTree(front, numberOfObjectives));
+  }
+
+  public double additiveEpsilon(double[][] front) {
+    return additiveEpsilon(buildTree(front, numberOfObjectives));
+  }
+
+  public double generalizedSpread(double[][] front) {
+    return generalizedSpread(buildTree(front, numberOfObjectives));
+  }
+
+  public double calculate(INDICATOR indicator, double[][] front) {
+    switch (indicator) {
+      case GD:
+        return generationalDistance(front);
+      case IGD:
+        return invertedGenerationalDistance(front);
+      case IGD_PLUS:
+        return invertedGenerationalDistancePlus(front);
+      case EPSILON:
+        return additiveEpsilon(front);
+      default:
+        return generalizedSpread(front);
+    }
+  }
+
+  /**
+   * @return Value of every indicator, in the order of INDICATOR.values().
+   * The tree over the front is built once.
+   */
+  public double[] calculate(double[][] front) {
+    KdTree tree = buildTree(front, numberOfObjectives);
+    double[] values = new double[INDICATOR.values().length];
+    values[INDICATOR.GD.ordinal()] = generationalDistance(front);
+    values[INDICATOR.IGD.ordinal()] = invertedGenerationalDistance(tree);
+    values[INDICATOR.IGD_PLUS.ordinal()] = invertedGenerationalDistancePlus(tree);
+    values[INDICATOR.EPSILON.ordinal()] = additiveEpsilon(tree);
+    values[INDICATOR.SPREAD.ordinal()] = generalizedSpread(tree);
+    return values;
+  }
+
+  /**
+   * Evaluates many fronts in parallel.
+   *
+   * @return Row i holds calculate(fronts.get(i)).
+   */
+  public double[][] calculate(List<double[][]> fronts) {
+    double[][] values = new double[fronts.size()][];
+    Evaluator[] tasks = new Evaluator[fronts.size()];
+    for (int i = 0; i < tasks.length; ++i) {
+      tasks[i] = new Evaluator(fronts.get(i), values, i);
+    }
+    if (pool != null && pool.getParallelism() > 1) {
+      pool.invoke(new Batch(tasks));
+    } else {
+      for (Evaluator task : tasks) {
+        task.compute();
+      }
+    }
+    return values;
+  }
+
+  public <V extends Variable<?>> double[] calculate(Solutions<V> front) {
+    return calculate(Hypervolume.toArray(front, numberOfObjectives));
+  }
+
+  private double invertedGenerationalDistance(KdTree tree) {
+    double[] distances = new double[referenceFront.length];
+    int[] nearest = {-1};
+    for (int i = 0; i < orderedReference.length; ++i) {
+      distances[referenceOrder[i]] = tree.nearestDistance(orderedReference[i], nearest);
+    }
+    return Maths.mean(distances);
+  }
+
+  private double invertedGenerationalDistancePlus(KdTree tree) {
+    double[] distances = new double[referenceFront.length];
+    int[] nearest = {-1};
+    for (int i = 0; i < orderedReference.length; ++i) {
+      distances[referenceOrder[i]] = tree.nearestDominanceDistance(orderedReference[i], nearest);
+    }
+    return Maths.mean(distances);
+  }
+
+  private double additiveEpsilon(KdTree tree) {
+    double max = Double.NEGATIVE_INFINITY;
+    int[] nearest = {-1};
+    for (double[] r : orderedReference) {
+      max = Math.max(max, tree.nearestAdditiveEpsilon(r, nearest));
+    }
+    return max;
+  }
+
+  private double generalizedSpread(KdTree tree) {
+    int n = tree.size();
+    if (n < 2) {
+      return 1.0;
+    }
+    double extremeSum = 0;
+    for (double[] e : extremes) {
+      extremeSum += tree.nearestDistance(e);
+    }
+    double[] distances = new double[n];
+    int[] neighbour = new int[1];
+    double[] distance = new double[1];
+    for (int i = 0; i < n; ++i) {
+      tree.nearest(i, 1, neighbour, distance);
+      distances[i] = distance[0];
+    }
+    double mean = Maths.mean(distances);
+    double deviation = 0;
+    for (double d : distances) {
+      deviation += Math.abs(d - mean);
+    }
+    double denominator = extremeSum + n * mean;
+    return denominator > 0 ? (extremeSum + deviation) / denominator : 0;
+  }
+
+  private static KdTree buildTree(double[][] front, int m) {
+    double[] points = new double[front.length * m];
+    for (int i = 0; i < front.length; ++i) {
+      System.arraycopy(front[i], 0, points, i * m, m);
+    }
+    return new KdTree(points, front.length, m);
+  }
+
+  private class Evaluator extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final double[][] front;
+    private final double[][] values;
+    private final int index;
+
+    private Evaluator(double[][] front, double[][] values, int index) {
+      this.front = front;
+      this.values = values;
+      this.index = index;
+    }
+
+    @Override
+    protected void compute() {
+      values[index] = calculate(front);
+    }
+  }
+
+  private static class Batch extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final Evaluator[] tasks;
+
+    private Batch(Evaluator[] tasks) {
+      this.tasks = tasks;
+    }
+
+    @Override
+    protected void compute() {
+      invokeAll(tasks);
+    }
+  }
+
+  private static double[][] concat(double[][] a, double[][] b) {
+    double[][] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  /**
+   * Maps every objective to [1, 2] with the bounds of all the fronts, as
+   * <code>Solutions.normalize()</code> does.
+   */
+  private static void normalize(List<double[][]> fronts, int dim) {
+    double[] mins = new double[dim];
+    double[] maxs = new double[dim];
+    Arrays.fill(mins, Double.POSITIVE_INFINITY);
+    Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    for (double[][] front : fronts) {
+      for (double[] point : front) {
+        for (int k = 0; k < dim; ++k) {
+          mins[k] = Math.min(mins[k], point[k]);
+          maxs[k] = Math.max(maxs[k], point[k]);
+        }
+      }
+    }
+    for (double[][] front : fronts) {
+      for (double[] point : front) {
+        for (int k = 0; k < dim; ++k) {
+          point[k] = 1.0 + (point[k] - mins[k]) / (maxs[k] - mins[k]);
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.err.println("Usage:");
+      System.err.println("java -jar " + QualityIndicators.class.getSimpleName() + ".jar -ref <PathToReferenceFront> [-norm] -dat <PathToFrontsFile1> -dat <PathToFrontsFile2> ...");
+      System.err.println("java -jar " + QualityIndicators.class.getSimpleName() + ".jar -ref DTLZ2.pf -dat NSGAIIfronts.txt");
+      return;
+    }
+    ArrayList<String> dataPaths = new ArrayList<String>();
+    String refPath = null;
+    boolean normalize = false;
+    int i = 0;
+    while (i < args.length) {
+      if (args[i].equals("-ref")) {
+        refPath = args[++i];
+      } else if (args[i].equals("-dat")) {
+        dataPaths.add(args[++i]);
+      } else if (args[i].equals("-norm")) {
+        normalize = true;
+      }
+      i++;
+    }
+    if (refPath == null || dataPaths.isEmpty()) {
+      System.err.println("A reference front and at least one fronts file are required.");
+      return;
+    }
+
+    try {
+      // Primitive fronts, without Solution objects
+      ArrayList<double[][]> referenceFronts = FrontReader.readAll(refPath);
+      if (referenceFronts.isEmpty()) {
+        throw new IOException("The reference front " + refPath + " is empty.");
+      }
+      double[][] referenceFront = referenceFronts.get(0);
+      for (int r = 1; r < referenceFronts.size(); ++r) {
+        referenceFront = concat(referenceFront, referenceFronts.get(r));
+      }
+      int dim = referenceFront[0].length;
+      ArrayList<Integer> counts = new ArrayList<Integer>();
+      ArrayList<double[][]> fronts = new ArrayList<double[][]>();
+      for (String dataPath : dataPaths) {
+        ArrayList<double[][]> dataFronts = FrontReader.readAll(dataPath);
+        counts.add(dataFronts.size());
+        fronts.addAll(dataFronts);
+      }
+      if (normalize) {
+        fronts.add(referenceFront);
+        normalize(fronts, dim);
+        fronts.remove(fronts.size() - 1);
+      }
+      QualityIndicators indicators = new QualityIndicators(referenceFront);
+      // Every front of every file in one parallel batch
+      double[][] values = indicators.calculate(fronts);
+
+      INDICATOR[] names = INDICATOR.values();
+      int row = 0;
+      for (i = 0; i < dataPaths.size(); ++i) {
+        int count = counts.get(i);
+        System.out.println("Indicators for:  " + dataPaths.get(i));
+        System.out.println(Arrays.toString(names));
+        for (int f = 0; f < count; ++f) {
+          System.out.println(Arrays.toString(values[row + f]));
+        }
+        System.out.println("--------------------------------------");
+        for (int c = 0; c < names.length; ++c) {
+          double[] column = new double[count];
+          for (int f = 0; f < count; ++f) {
+            column[f] = values[row + f][c];
+          }
+          System.out.println(names[c] + ": AVG=" + Maths.mean(column) + ", STD=" + Maths.std(column));
+        }
+        System.out.println();
+        row += count;
+      }
+    } catch (IOException e) {
+      System.err.println(e.getLocalizedMessage());
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package jeco.util.io;
+
+import java.io.IOException;
+
+/**
+ * Receives the fronts of a file, one at a time, from
+ * <code>FrontReader</code>.
+ *
+ * @author José L. Risco-Martín
+ */
+public abstract class FrontHandler {
+
+  /**
+   * @param index Position of the front in the file, from 0
+   * @param values Row-major points (numberOfPoints x numberOfObjectives). The
+   * buffer is reused for the next front: copy what must be kept.
+   * @param numberOfPoints Number of points
+   * @param numberOfObjectives Number of values of each point
+   * @throws IOException Stops the reading
+   */
+  public abstract void front(int index, double[] values, int numberOfPoints, int numberOfObjectives) throws IOException;
+}
@@ -0,0 +1,324 @@
+package jeco.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of front files. Two formats are accepted:
+ *
+ * - Text, as read by <code>Solutions.readFrontsFromFile()</code>: one point
+ * per line, values separated by spaces or tabs, and fronts separated by
+ * blank lines.
+ * - Binary, as written by <code>FrontWriter</code>.
+ *
+ * Files are memory-mapped WINDOW_SIZE bytes at a time and every front is
+ * delivered to a <code>FrontHandler</code> as a primitive array that is
+ * reused for the next one, so the memory needed does not depend on the size
+ * of the file. Text numbers are parsed from the mapped bytes; values with up
+ * to 15-16 significant digits and small exponents are computed exactly with
+ * one multiplication or division, and the rest go through
+ * Double.parseDouble(), so results are always the same as with the latter.
+ *
+ * @author José L. Risco-Martín
+ */
+public class FrontReader {
+
+  /**
+   * Bytes mapped at a time.
+   */
+  public static final int WINDOW_SIZE = 1 << 28;
+  private static final double[] POWERS_OF_TEN = new double[23];
+  // Greatest integer mantissa exactly representable as a double
+  private static final long MAX_EXACT = 1L << 53;
+  // Greatest array length accepted by most virtual machines
+  private static final int MAX_VALUES = Integer.MAX_VALUE - 8;
+
+  static {
+    POWERS_OF_TEN[0] = 1.0;
+    for (int i = 1; i < POWERS_OF_TEN.length; ++i) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  /**
+   * Reads a text or binary file, detected by its first bytes.
+   */
+  public static void read(String filePath, FrontHandler handler) throws IOException {
+    if (isBinary(filePath)) {
+      readBinary(filePath, handler);
+    } else {
+      readText(filePath, handler);
+    }
+  }
+
+  /**
+   * @return Every front of the file, each one as rows of points.
+   */
+  public static ArrayList<double[][]> readAll(String filePath) throws IOException {
+    final ArrayList<double[][]> fronts = new ArrayList<double[][]>();
+    read(filePath, new FrontHandler() {
+      @Override
+      public void front(int index, double[] values, int numberOfPoints, int numberOfObjectives) {
+        double[][] front = new double[numberOfPoints][];
+        for (int i = 0; i < numberOfPoints; ++i) {
+          front[i] = Arrays.copyOfRange(values, i * numberOfObjectives, (i + 1) * numberOfObjectives);
+        }
+        fronts.add(front);
+      }
+    });
+    return fronts;
+  }
+
+  public static boolean isBinary(String filePath) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(FrontWriter.MAGIC.length);
+      while (magic.hasRemaining() && channel.read(magic) >= 0) {
+      }
+      return !magic.hasRemaining() && Arrays.equals(magic.array(), FrontWriter.MAGIC);
+    }
+  }
+
+  public static void readBinary(String filePath, FrontHandler handler) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+      int m = readHeader(channel, filePath);
+      long size = channel.size();
+      long position = FrontWriter.HEADER_SIZE;
+      double[] values = new double[0];
+      int index = 0;
+      while (position < size) {
+        if (size - position < 4) {
+          throw new IOException(filePath + ": truncated front " + index + ".");
+        }
+        ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(count, position);
+        int n = count.getInt(0);
+        long total = (long) n * m;
+        long length = 8L * total;
+        if (n < 0 || size - position - 4 < length) {
+          throw new IOException(filePath + ": truncated front " + index + ".");
+        }
+        if (total > MAX_VALUES) {
+          throw new IOException(filePath + ": front " + index + " has " + total + " values, more than an array can hold.");
+        }
+        if (values.length < total) {
+          values = new double[(int) Math.min(Math.max(total, 2L * values.length), MAX_VALUES)];
+        }
+        // Large fronts are mapped in pieces
+        long offset = position + 4;
+        int done = 0;
+        while (done < total) {
+          int piece = (int) Math.min(total - done, WINDOW_SIZE / 8);
+          MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, 8L * piece);
+          buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, done, piece);
+          done += piece;
+          offset += 8L * piece;
+        }
+        handler.front(index++, values, n, m);
+        position += 4 + length;
+      }
+    }
+  }
+
+  public static void readText(String filePath, FrontHandler handler) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+      new TextParser(channel, filePath, handler).parse();
+    }
+  }
+
+  /**
+   * Checks the header of a binary file.
+   *
+   * @return Number of objectives.
+   */
+  static int readHeader(FileChannel channel, String filePath) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(FrontWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+    }
+    if (header.hasRemaining() || !Arrays.equals(Arrays.copyOf(header.array(), FrontWriter.MAGIC.length), FrontWriter.MAGIC)) {
+      throw new IOException(filePath + " is not a binary front file.");
+    }
+    int version = header.getInt(FrontWriter.MAGIC.length);
+    if (version != FrontWriter.VERSION) {
+      throw new IOException(filePath + ": unknown version " + version + ".");
+    }
+    int numberOfObjectives = header.getInt(FrontWriter.MAGIC.length + 4);
+    if (numberOfObjectives <= 0) {
+      throw new IOException(filePath + ": invalid number of objectives " + numberOfObjectives + ".");
+    }
+    return numberOfObjectives;
+  }
+
+  private static class TextParser {
+
+    private final FileChannel channel;
+    private final String filePath;
+    private final FrontHandler handler;
+    private final long size;
+    private MappedByteBuffer buffer;
+    // Position of the buffer in the file
+    private long start;
+    private double[] values = new double[1024];
+    private int count = 0;
+    private int numberOfObjectives = 0;
+    private int index = 0;
+    private long line = 0;
+
+    private TextParser(FileChannel channel, String filePath, FrontHandler handler) throws IOException {
+      this.channel = channel;
+      this.filePath = filePath;
+      this.handler = handler;
+      this.size = channel.size();
+    }
+
+    private void parse() throws IOException {
+      map(0, WINDOW_SIZE);
+      int position = 0;
+      while (start + position < size) {
+        int limit = buffer.limit();
+        int end = position;
+        while (end < limit && buffer.get(end) != '\n') {
+          end++;
+        }
+        if (end == limit && start + limit < size) {
+          // The line goes on in the next window
+          map(start + position, Math.max(WINDOW_SIZE, 2L * (end - position)));
+          position = 0;
+          continue;
+        }
+        line++;
+        parseLine(position, end);
+        position = end + 1;
+      }
+      endFront();
+    }
+
+    private void map(long from, long length) throws IOException {
+      start = from;
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(Math.min(length, Integer.MAX_VALUE), size - from));
+    }
+
+    private void parseLine(int from, int to) throws IOException {
+      int columns = 0;
+      int i = from;
+      while (true) {
+        while (i < to && isBlank(buffer.get(i))) {
+          i++;
+        }
+        if (i == to) {
+          break;
+        }
+        int tokenStart = i;
+        while (i < to && !isBlank(buffer.get(i))) {
+          i++;
+        }
+        if (count == values.length) {
+          values = Arrays.copyOf(values, 2 * count);
+        }
+        values[count++] = parseDouble(tokenStart, i);
+        columns++;
+      }
+      if (columns == 0) {
+        endFront();
+      } else if (numberOfObjectives == 0) {
+        numberOfObjectives = columns;
+      } else if (columns != numberOfObjectives) {
+        throw new IOException(filePath + ", line " + line + ": " + columns + " values, expected " + numberOfObjectives + ".");
+      }
+    }
+
+    private void endFront() throws IOException {
+      if (count > 0) {
+        handler.front(index++, values, count / numberOfObjectives, numberOfObjectives);
+      }
+      count = 0;
+      numberOfObjectives = 0;
+    }
+
+    private double parseDouble(int from, int to) throws IOException {
+      int i = from;
+      boolean negative = false;
+      byte c = buffer.get(i);
+      if (c == '-' || c == '+') {
+        negative = c == '-';
+        i++;
+      }
+      long mantissa = 0;
+      int exponent = 0;
+      int digits = 0;
+      boolean exact = true;
+      int mantissaStart = i;
+      while (i < to && (c = buffer.get(i)) >= '0' && c <= '9') {
+        if (digits < 18) {
+          mantissa = 10 * mantissa + (c - '0');
+          digits += mantissa > 0 ? 1 : 0;
+        } else {
+          exact &= c == '0';
+          exponent++;
+        }
+        i++;
+      }
+      boolean any = i > mantissaStart;
+      if (i < to && buffer.get(i) == '.') {
+        i++;
+        int fractionStart = i;
+        while (i < to && (c = buffer.get(i)) >= '0' && c <= '9') {
+          if (digits < 18) {
+            mantissa = 10 * mantissa + (c - '0');
+            digits += mantissa > 0 ? 1 : 0;
+            exponent--;
+          } else {
+            exact &= c == '0';
+          }
+          i++;
+        }
+        any |= i > fractionStart;
+      }
+      if (any && i < to && ((c = buffer.get(i)) == 'e' || c == 'E')) {
+        i++;
+        boolean negativeExponent = false;
+        if (i < to && ((c = buffer.get(i)) == '-' || c == '+')) {
+          negativeExponent = c == '-';
+          i++;
+        }
+        int exponentStart = i;
+        int value = 0;
+        while (i < to && (c = buffer.get(i)) >= '0' && c <= '9') {
+          value = Math.min(10 * value + (c - '0'), 100000);
+          i++;
+        }
+        any = i > exponentStart;
+        exponent += negativeExponent ? -value : value;
+      }
+      if (any && i == to && exact) {
+        if (mantissa == 0) {
+          return negative ? -0.0 : 0.0;
+        }
+        if (mantissa <= MAX_EXACT && exponent >= -22 && exponent <= 22) {
+          // Both operands are exact, so the result is correctly rounded
+          double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+          return negative ? -value : value;
+        }
+      }
+      byte[] bytes = new byte[to - from];
+      buffer.get(from, bytes);
+      String token = new String(bytes, StandardCharsets.US_ASCII);
+      try {
+        return Double.parseDouble(token);
+      } catch (NumberFormatException e) {
+        throw new IOException(filePath + ", line " + line + ": " + token + " is not a number.");
+      }
+    }
+
+    private static boolean isBlank(byte c) {
+      return c == ' ' || c == '\t' || c == '\r';
+    }
+  }
+}
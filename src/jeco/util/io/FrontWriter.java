@@ -0,0 +1,140 @@
+package jeco.util.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import jeco.problem.Solution;
+import jeco.problem.Solutions;
+import jeco.problem.Variable;
+
+/**
+ * Writes fronts in the binary format read by <code>FrontReader</code>
+ * (little-endian):
+ *
+ * - Header: MAGIC (8 bytes), VERSION (int), number of objectives (int).
+ * - One block per front: number of points (int), then the points row by
+ * row (doubles).
+ *
+ * Blocks are appended as fronts are written, so a run can dump a front every
+ * generation. Data is buffered, and fronts larger than the buffer are
+ * written in pieces, so the file only ends with a whole front after flush()
+ * or close(): a reader running meanwhile may find the last front truncated.
+ * The file may be opened again to append more fronts with the same number of
+ * objectives.
+ *
+ * @author José L. Risco-Martín
+ */
+public class FrontWriter implements Closeable {
+
+  public static final byte[] MAGIC = {'J', 'E', 'C', 'O', 'F', 'R', 'N', 'T'};
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = MAGIC.length + 8;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  protected int numberOfObjectives;
+  protected FileChannel channel;
+  protected ByteBuffer buffer;
+
+  /**
+   * @param filePath File path
+   * @param numberOfObjectives Number of values of each point
+   * @param append If true and the file exists, fronts are added at its end
+   */
+  public FrontWriter(String filePath, int numberOfObjectives, boolean append) throws IOException {
+    this.numberOfObjectives = numberOfObjectives;
+    Path path = Paths.get(filePath);
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    if (append && channel.size() > 0) {
+      int existing = FrontReader.readHeader(channel, filePath);
+      if (existing != numberOfObjectives) {
+        channel.close();
+        throw new IOException(filePath + " holds fronts with " + existing + " objectives, not " + numberOfObjectives + ".");
+      }
+      channel.position(channel.size());
+    } else {
+      channel.truncate(0);
+      buffer.put(MAGIC).putInt(VERSION).putInt(numberOfObjectives);
+    }
+  }
+
+  /**
+   * Creates (or truncates) the file.
+   */
+  public FrontWriter(String filePath, int numberOfObjectives) throws IOException {
+    this(filePath, numberOfObjectives, false);
+  }
+
+  /**
+   * @param values Row-major points (numberOfPoints x numberOfObjectives)
+   * @param numberOfPoints Number of points
+   */
+  public void write(double[] values, int numberOfPoints) throws IOException {
+    ensure(4);
+    buffer.putInt(numberOfPoints);
+    int count = numberOfPoints * numberOfObjectives;
+    int i = 0;
+    while (i < count) {
+      if (buffer.remaining() < 8) {
+        flush();
+      }
+      int length = Math.min(count - i, buffer.remaining() / 8);
+      buffer.asDoubleBuffer().put(values, i, length);
+      buffer.position(buffer.position() + 8 * length);
+      i += length;
+    }
+  }
+
+  public void write(double[][] front) throws IOException {
+    ensure(4);
+    buffer.putInt(front.length);
+    for (double[] point : front) {
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        ensure(8);
+        buffer.putDouble(point[k]);
+      }
+    }
+  }
+
+  public <V extends Variable<?>> void write(Solutions<V> front) throws IOException {
+    ensure(4);
+    buffer.putInt(front.size());
+    for (Solution<V> solution : front) {
+      for (int k = 0; k < numberOfObjectives; ++k) {
+        ensure(8);
+        buffer.putDouble(solution.getObjectiveValue(k));
+      }
+    }
+  }
+
+  /**
+   * Writes the buffered data to the file.
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel.isOpen()) {
+      flush();
+      channel.close();
+    }
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+}
@@ -5,21 +5,67 @@ import java.util.Random;
 public class RandomGenerator {
 
     protected static Random randomGenerator = new Random();
-
+    // Generators bound to threads (see setThreadGenerator), and how many
+    protected static final ThreadLocal<Random> threadGenerator = new ThreadLocal<Random>();
+    protected static volatile int numberOfThreadGenerators = 0;
+
+    /**
+     * Seeds the generator of the calling thread: its own one, if it has been
+     * given one, or the shared one.
+     */
     public static void setSeed(long seed) {
-        randomGenerator.setSeed(seed);
+        generator().setSeed(seed);
+    }
+
+    /**
+     * Gives the calling thread its own generator, so that an algorithm run
+     * in that thread (an island, for instance) draws a reproducible sequence
+     * whatever the other threads do.
+     *
+     * @param random Generator of the thread, or null to use the shared one
+     * again
+     */
+    public static synchronized void setThreadGenerator(Random random) {
+        Random previous = threadGenerator.get();
+        if (random == null) {
+            threadGenerator.remove();
+        } else {
+            threadGenerator.set(random);
+        }
+        numberOfThreadGenerators += (random != null ? 1 : 0) - (previous != null ? 1 : 0);
+    }
+
+    /**
+     * @return Generator given to the calling thread, or null if it uses the
+     * shared one.
+     */
+    public static Random getThreadGenerator() {
+        return numberOfThreadGenerators > 0 ? threadGenerator.get() : null;
+    }
+
+    /**
+     * @return Generator of the calling thread.
+     */
+    public static Random generator() {
+        if (numberOfThreadGenerators > 0) {
+            Random random = threadGenerator.get();
+            if (random != null) {
+                return random;
+            }
+        }
+        return randomGenerator;
     }
 
     public static double nextDouble() {
-        return randomGenerator.nextDouble();
+        return generator().nextDouble();
     }
 
     public static double nextDouble(double lowerBound, double upperBound) {
-        return lowerBound + (upperBound - lowerBound) * randomGenerator.nextDouble();
+        return lowerBound + (upperBound - lowerBound) * generator().nextDouble();
     }
 
     public static int nextInt(int lowerBound, int upperBound) {
-        return ((upperBound-lowerBound)<=0)? 0 : lowerBound + randomGenerator.nextInt(upperBound-lowerBound);
+        return ((upperBound-lowerBound)<=0)? 0 : lowerBound + generator().nextInt(upperBound-lowerBound);
     }
 
     public static int nextInteger(int lowerBound, int upperBound) {
@@ -27,7 +73,7 @@ public class RandomGenerator {
     }
 
     public static int nextInt(int upperBound) {
-        return randomGenerator.nextInt(upperBound);
+        return generator().nextInt(upperBound);
     }
 
     public static int nextInteger(int upperBound) {
@@ -35,7 +81,7 @@ public class RandomGenerator {
     }
 
     public static boolean nextBoolean() {
-        return randomGenerator.nextBoolean();
+        return generator().nextBoolean();
     }
 
     public static int[] intPermutation(int length) {
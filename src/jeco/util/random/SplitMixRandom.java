@@ -0,0 +1,60 @@
+package jeco.util.random;
+
+import java.util.Random;
+
+/**
+ * SplitMix64 generator behind the <code>Random</code> interface. It is not
+ * thread-safe (no atomic updates, unlike <code>Random</code>): it is meant to
+ * be bound to one thread with RandomGenerator.setThreadGenerator(). Streams
+ * for independent tasks are obtained with stream(seed, index), which gives
+ * well-separated seeds for consecutive indexes.
+ *
+ * @author José L. Risco-Martín
+ */
+public class SplitMixRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+    protected static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    protected long state;
+
+    public SplitMixRandom(long seed) {
+        // Random(long) calls setSeed()
+        super(seed);
+    }
+
+    public SplitMixRandom() {
+        this(System.nanoTime());
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Clears the cached Gaussian of Random
+        super.setSeed(seed);
+        state = seed;
+    }
+
+    /**
+     * Restarts the generator at the stream of the given task.
+     */
+    public void stream(long seed, long index) {
+        setSeed(mix(seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    protected static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
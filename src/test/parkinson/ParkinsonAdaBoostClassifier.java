@@ -335,7 +335,7 @@ public class ParkinsonAdaBoostClassifier extends AbstractProblemGE {
             double macroFvalue = classifierEval.getMacroFValue();
             
             // Return the value to the algorithm:
-            solution.getObjectives().set(0, 1-macroFvalue); //(1-macroFvalue) to maximize the F-value
+            solution.setObjectiveValue(0, 1-macroFvalue); //(1-macroFvalue) to maximize the F-value
             
             if (macroFvalue > bestMacroAvgF) {
                 bestSolution = solution;